@@ -0,0 +1,445 @@
+package base;
+
+import java.util.Arrays;
+
+/**
+ * Delaunay triangulation of points in the plane in O(n log n) with the sweep hull algorithm: the points are added
+ * in the order of their distance to the center of a first triangle, every new point is connected to the visible edges
+ * of the convex hull and the new triangles are flipped until they satisfy the Delaunay condition. The hull is a linked
+ * list of points with a hash table over the angles, so the visible edge is found in constant time on average.
+ *
+ * The triangles are stored as half edges: the half edge e belongs to the triangle e / 3, starts at the point
+ * {@code triangles[e]} and is the opposite of {@code halfedges[e]} or a hull edge, if it is -1.
+ * Identical points are triangulated only once. If all points are on one line, there are no triangles and the edges
+ * connect the points along the line.
+ * @author Alexander Muth
+ */
+public class ADelaunayTriangulation {
+    private static final double EPSILON = Math.pow(2, -52);
+
+    private final double[] coords; // x and y of every point
+    private final int[] triangles, halfedges;
+    private int trianglesLength;
+    private int[] collinearOrder; // the points sorted along the line, if there are no triangles
+
+    // the convex hull during the sweep
+    private final int[] hullPrev, hullNext, hullTri, hullHash;
+    private final int hashSize;
+    private int hullStart;
+    private double centerX, centerY;
+    private int[] edgeStack = new int[512];
+
+    /**
+     * @param xs the x coordinates of the points
+     * @param ys the y coordinates of the points
+     */
+    public ADelaunayTriangulation(double[] xs, double[] ys) {
+        int n = xs.length;
+        coords = new double[2 * n];
+        for(int i = 0; i < n; i++){
+            coords[2 * i] = xs[i];
+            coords[2 * i + 1] = ys[i];
+        }
+        int maxTriangles = Math.max(2 * n - 5, 0);
+        triangles = new int[maxTriangles * 3];
+        halfedges = new int[maxTriangles * 3];
+        hashSize = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        hullPrev = new int[n];
+        hullNext = new int[n];
+        hullTri = new int[n];
+        hullHash = new int[hashSize];
+        triangulate();
+    }
+
+    /**
+     * @return the count of points
+     */
+    public int getPointCount() {
+        return coords.length / 2;
+    }
+
+    /**
+     * @return the point ids of the triangles, three per triangle in counterclockwise order
+     */
+    public int[] getTriangles() {
+        return Arrays.copyOf(triangles, trianglesLength);
+    }
+
+    /**
+     * @return every edge once as two consecutive point ids
+     */
+    public int[] getEdges() {
+        if(collinearOrder != null){
+            int[] edges = new int[2 * Math.max(0, collinearOrder.length - 1)];
+            for(int i = 0; i + 1 < collinearOrder.length; i++){
+                edges[2 * i] = collinearOrder[i];
+                edges[2 * i + 1] = collinearOrder[i + 1];
+            }
+            return edges;
+        }
+        int[] edges = new int[2 * trianglesLength];
+        int count = 0;
+        for(int e = 0; e < trianglesLength; e++){
+            if(halfedges[e] < e){ // the inner edges once, the hull edges always
+                edges[count++] = triangles[e];
+                edges[count++] = triangles[e % 3 == 2 ? e - 2 : e + 1];
+            }
+        }
+        return Arrays.copyOf(edges, count);
+    }
+
+    private void triangulate() {
+        int n = getPointCount();
+        if(n == 0)
+            return;
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        int[] ids = new int[n];
+        for(int i = 0; i < n; i++){
+            minX = Math.min(minX, coords[2 * i]);
+            minY = Math.min(minY, coords[2 * i + 1]);
+            maxX = Math.max(maxX, coords[2 * i]);
+            maxY = Math.max(maxY, coords[2 * i + 1]);
+            ids[i] = i;
+        }
+        double cx = (minX + maxX) / 2, cy = (minY + maxY) / 2;
+
+        // the seed triangle: the point nearest to the center, its nearest point and the point with the smallest
+        // circumcircle through both
+        int i0 = 0, i1 = -1, i2 = -1;
+        double minDistance = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < n; i++){
+            double d = squaredDistance(cx, cy, coords[2 * i], coords[2 * i + 1]);
+            if(d < minDistance){
+                i0 = i;
+                minDistance = d;
+            }
+        }
+        double i0x = coords[2 * i0], i0y = coords[2 * i0 + 1];
+        minDistance = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < n; i++){
+            if(i == i0)
+                continue;
+            double d = squaredDistance(i0x, i0y, coords[2 * i], coords[2 * i + 1]);
+            if(d < minDistance && d > 0){
+                i1 = i;
+                minDistance = d;
+            }
+        }
+        double minRadius = Double.POSITIVE_INFINITY;
+        if(i1 != -1){
+            double i1x = coords[2 * i1], i1y = coords[2 * i1 + 1];
+            for(int i = 0; i < n; i++){
+                if(i == i0 || i == i1)
+                    continue;
+                double r = circumradius(i0x, i0y, i1x, i1y, coords[2 * i], coords[2 * i + 1]);
+                if(r < minRadius){
+                    i2 = i;
+                    minRadius = r;
+                }
+            }
+        }
+
+        double[] distances = new double[n];
+        if(Double.isInfinite(minRadius)){
+            // all points are on one line (or identical), sort them along the line
+            for(int i = 0; i < n; i++){
+                double dx = coords[2 * i] - coords[0];
+                distances[i] = dx != 0 ? dx : coords[2 * i + 1] - coords[1];
+            }
+            quicksort(ids, distances, 0, n - 1);
+            int[] order = new int[n];
+            int count = 0;
+            double last = Double.NEGATIVE_INFINITY;
+            for(int id : ids){
+                if(distances[id] > last){
+                    order[count++] = id;
+                    last = distances[id];
+                }
+            }
+            collinearOrder = Arrays.copyOf(order, count);
+            return;
+        }
+
+        double i1x = coords[2 * i1], i1y = coords[2 * i1 + 1];
+        double i2x = coords[2 * i2], i2y = coords[2 * i2 + 1];
+        if(orient(i0x, i0y, i1x, i1y, i2x, i2y)){ // the seed triangle must be counterclockwise
+            int i = i1;
+            i1 = i2;
+            i2 = i;
+            i1x = coords[2 * i1];
+            i1y = coords[2 * i1 + 1];
+            i2x = coords[2 * i2];
+            i2y = coords[2 * i2 + 1];
+        }
+        circumcenter(i0x, i0y, i1x, i1y, i2x, i2y);
+
+        for(int i = 0; i < n; i++)
+            distances[i] = squaredDistance(coords[2 * i], coords[2 * i + 1], centerX, centerY);
+        quicksort(ids, distances, 0, n - 1);
+
+        hullStart = i0;
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+        Arrays.fill(hullHash, -1);
+        hullHash[hashKey(i0x, i0y)] = i0;
+        hullHash[hashKey(i1x, i1y)] = i1;
+        hullHash[hashKey(i2x, i2y)] = i2;
+
+        trianglesLength = 0;
+        addTriangle(i0, i1, i2, -1, -1, -1);
+
+        double xp = 0, yp = 0;
+        for(int k = 0; k < n; k++){
+            int i = ids[k];
+            double x = coords[2 * i], y = coords[2 * i + 1];
+
+            // skip identical points
+            if(k > 0 && Math.abs(x - xp) <= EPSILON && Math.abs(y - yp) <= EPSILON)
+                continue;
+            xp = x;
+            yp = y;
+            if(i == i0 || i == i1 || i == i2)
+                continue;
+
+            // a visible edge of the hull, starting at the hull point with the nearest angle
+            int start = 0;
+            for(int j = 0, key = hashKey(x, y); j < hashSize; j++){
+                start = hullHash[(key + j) % hashSize];
+                if(start != -1 && start != hullNext[start])
+                    break;
+            }
+            start = hullPrev[start];
+            int e = start, q;
+            while(!orient(x, y, coords[2 * e], coords[2 * e + 1], coords[2 * (q = hullNext[e])], coords[2 * q + 1])){
+                e = q;
+                if(e == start){
+                    e = -1;
+                    break;
+                }
+            }
+            if(e == -1)
+                continue; // a nearly identical point
+
+            // the first triangle from the point
+            int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+            hullTri[i] = legalize(t + 2);
+            hullTri[e] = t;
+
+            // walk forward through the hull and add the triangles of all visible edges
+            int next = hullNext[e];
+            while(orient(x, y, coords[2 * next], coords[2 * next + 1], coords[2 * (q = hullNext[next])], coords[2 * q + 1])){
+                t = addTriangle(next, i, q, hullTri[i], -1, hullTri[next]);
+                hullTri[i] = legalize(t + 2);
+                hullNext[next] = next; // removed from the hull
+                next = q;
+            }
+
+            // walk backward from the other side
+            if(e == start){
+                while(orient(x, y, coords[2 * (q = hullPrev[e])], coords[2 * q + 1], coords[2 * e], coords[2 * e + 1])){
+                    t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                    legalize(t + 2);
+                    hullTri[q] = t;
+                    hullNext[e] = e; // removed from the hull
+                    e = q;
+                }
+            }
+
+            hullStart = hullPrev[i] = e;
+            hullNext[e] = hullPrev[next] = i;
+            hullNext[i] = next;
+            hullHash[hashKey(x, y)] = i;
+            hullHash[hashKey(coords[2 * e], coords[2 * e + 1])] = e;
+        }
+    }
+
+    /**
+     * Flips the edge and the edges behind it, until the triangles satisfy the Delaunay condition
+     * @param a the half edge
+     * @return the half edge, which replaced the half edge after a
+     */
+    private int legalize(int a) {
+        int stackSize = 0, ar;
+        while(true){
+            int b = halfedges[a];
+            int a0 = a - a % 3;
+            ar = a0 + (a + 2) % 3;
+
+            if(b == -1){ // an edge of the hull
+                if(stackSize == 0)
+                    break;
+                a = edgeStack[--stackSize];
+                continue;
+            }
+
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+            int p0 = triangles[ar], pr = triangles[a], pl = triangles[al], p1 = triangles[bl];
+            boolean illegal = inCircle(coords[2 * p0], coords[2 * p0 + 1], coords[2 * pr], coords[2 * pr + 1],
+                    coords[2 * pl], coords[2 * pl + 1], coords[2 * p1], coords[2 * p1 + 1]);
+            if(illegal){
+                triangles[a] = p1;
+                triangles[b] = p0;
+                int hbl = halfedges[bl];
+                if(hbl == -1){ // the flipped edge is on the hull, the hull must point to the new half edge
+                    int e = hullStart;
+                    do {
+                        if(hullTri[e] == bl){
+                            hullTri[e] = a;
+                            break;
+                        }
+                        e = hullPrev[e];
+                    } while(e != hullStart);
+                }
+                link(a, hbl);
+                link(b, halfedges[ar]);
+                link(ar, bl);
+
+                if(stackSize == edgeStack.length)
+                    edgeStack = Arrays.copyOf(edgeStack, stackSize * 2);
+                edgeStack[stackSize++] = b0 + (b + 1) % 3;
+            } else {
+                if(stackSize == 0)
+                    break;
+                a = edgeStack[--stackSize];
+            }
+        }
+        return ar;
+    }
+
+    private void link(int a, int b) {
+        halfedges[a] = b;
+        if(b != -1)
+            halfedges[b] = a;
+    }
+
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+        int t = trianglesLength;
+        triangles[t] = i0;
+        triangles[t + 1] = i1;
+        triangles[t + 2] = i2;
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        trianglesLength += 3;
+        return t;
+    }
+
+    private int hashKey(double x, double y) {
+        return (int) Math.floor(pseudoAngle(x - centerX, y - centerY) * hashSize) % hashSize;
+    }
+
+    /**
+     * @return a value between 0 and 1, which increases monotonically with the angle of the vector
+     */
+    private static double pseudoAngle(double dx, double dy) {
+        double p = dx / (Math.abs(dx) + Math.abs(dy));
+        return (dy > 0 ? 3 - p : 1 + p) / 4;
+    }
+
+    /**
+     * @return if r is on the right side of the line from p to q
+     */
+    private static boolean orient(double px, double py, double qx, double qy, double rx, double ry) {
+        return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+    }
+
+    /**
+     * @return if p is inside the circumcircle of a, b and c
+     */
+    private static boolean inCircle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py) {
+        double dx = ax - px, dy = ay - py;
+        double ex = bx - px, ey = by - py;
+        double fx = cx - px, fy = cy - py;
+        double ap = dx * dx + dy * dy;
+        double bp = ex * ex + ey * ey;
+        double cp = fx * fx + fy * fy;
+        return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+    }
+
+    private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax, dy = by - ay;
+        double ex = cx - ax, ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+        double x = (ey * bl - dy * cl) * d;
+        double y = (dx * cl - ex * bl) * d;
+        return x * x + y * y;
+    }
+
+    /**
+     * Sets the center of the sweep to the circumcenter of the seed triangle
+     */
+    private void circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax, dy = by - ay;
+        double ex = cx - ax, ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+        centerX = ax + (ey * bl - dy * cl) * d;
+        centerY = ay + (dx * cl - ex * bl) * d;
+    }
+
+    private static double squaredDistance(double ax, double ay, double bx, double by) {
+        double dx = ax - bx, dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Sorts the ids by their values, insertion sort for short ranges
+     */
+    private static void quicksort(int[] ids, double[] values, int left, int right) {
+        while(right - left > 20){
+            int median = (left + right) >>> 1;
+            swap(ids, median, left + 1);
+            if(values[ids[left]] > values[ids[right]]) swap(ids, left, right);
+            if(values[ids[left + 1]] > values[ids[right]]) swap(ids, left + 1, right);
+            if(values[ids[left]] > values[ids[left + 1]]) swap(ids, left, left + 1);
+
+            int i = left + 1, j = right, temp = ids[left + 1];
+            double pivot = values[temp];
+            while(true){
+                do i++; while(values[ids[i]] < pivot);
+                do j--; while(values[ids[j]] > pivot);
+                if(j < i)
+                    break;
+                swap(ids, i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = temp;
+
+            // recursion into the smaller part, loop over the larger part
+            if(right - i + 1 >= j - left){
+                quicksort(ids, values, left, j - 1);
+                left = i;
+            } else {
+                quicksort(ids, values, i, right);
+                right = j - 1;
+            }
+        }
+        for(int i = left + 1; i <= right; i++){
+            int temp = ids[i];
+            double value = values[temp];
+            int j = i - 1;
+            while(j >= left && values[ids[j]] > value){
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = temp;
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+}
@@ -0,0 +1,110 @@
+package base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The connected components of a {@link Graph}. The components are searched with an iterative breadth first search
+ * over the dense node indices ({@link Node#getIndex()}) with an int array as queue, so there is no recursion and no
+ * allocation per visited node.
+ * The components are numbered in the order of their first node, the result doesn't change if the graph changes.
+ * @param <T> the value type of the graph
+ * @author Alexander Muth
+ */
+public class AGraphComponents<T> {
+    private final List<Node<T>> nodes;
+    private final int[] componentIds; // component of every node index
+    private final int[] componentSizes;
+
+    /**
+     * Searches all components of the graph
+     * @param graph the graph
+     */
+    public AGraphComponents(Graph<T> graph) {
+        this.nodes = new ArrayList<>(graph.getNodes());
+        int nodeCount = nodes.size();
+        componentIds = new int[nodeCount];
+        int[] queue = new int[nodeCount];
+        int[] sizes = new int[nodeCount];
+        int componentCount = 0;
+
+        for(int i = 0; i < nodeCount; i++)
+            componentIds[i] = -1;
+        for(int start = 0; start < nodeCount; start++){
+            if(componentIds[start] >= 0)
+                continue;
+            int component = componentCount++, head = 0, tail = 0;
+            componentIds[start] = component;
+            queue[tail++] = start;
+            while(head < tail){
+                Node<T> node = nodes.get(queue[head++]);
+                for(Edge<T> edge : graph.getIncidentEdges(node)){
+                    int other = edge.getOtherNode(node).getIndex();
+                    if(componentIds[other] < 0){
+                        componentIds[other] = component;
+                        queue[tail++] = other;
+                    }
+                }
+            }
+            sizes[component] = tail;
+        }
+
+        componentSizes = new int[componentCount];
+        System.arraycopy(sizes, 0, componentSizes, 0, componentCount);
+    }
+
+    /**
+     * @return true if all nodes are in one component (or the graph is empty)
+     */
+    public boolean isConnected() {
+        return componentSizes.length <= 1;
+    }
+
+    public int getComponentCount() {
+        return componentSizes.length;
+    }
+
+    /**
+     * @param node the node
+     * @return the number of the component of the node or -1 if the node doesn't belong to the graph
+     */
+    public int getComponentId(Node<T> node) {
+        int index = node.getIndex();
+        return index < nodes.size() && nodes.get(index) == node ? componentIds[index] : -1;
+    }
+
+    /**
+     * @param component the number of the component
+     * @return the count of nodes in the component
+     */
+    public int getComponentSize(int component) {
+        return componentSizes[component];
+    }
+
+    /**
+     * @param component the number of the component
+     * @return the nodes of the component, in the order of the graph
+     */
+    public List<Node<T>> getComponent(int component) {
+        List<Node<T>> returnList = new ArrayList<>(componentSizes[component]);
+        for(int i = 0; i < componentIds.length; i++){
+            if(componentIds[i] == component)
+                returnList.add(nodes.get(i));
+        }
+        return returnList;
+    }
+
+    /**
+     * @return the nodes of all components, the components sorted descending by size
+     */
+    public List<List<Node<T>>> getComponents() {
+        List<List<Node<T>>> components = new ArrayList<>(componentSizes.length);
+        for(int i = 0; i < componentSizes.length; i++)
+            components.add(new ArrayList<>(componentSizes[i]));
+        for(int i = 0; i < componentIds.length; i++)
+            components.get(componentIds[i]).add(nodes.get(i));
+        components.sort(Collections.reverseOrder((a, b) -> Integer.compare(a.size(), b.size())));
+        return components;
+    }
+}
@@ -7,15 +7,18 @@ package base;
 public class Edge<T> {
 
     private Node<T> nodeA, nodeB;
+    private final double weight;
 
     /**
      * Erstellt eine neue Kante zwischen zwei gegebenen Knoten
      * @param nodeA der erste Knoten
      * @param nodeB der zweite Knoten
+     * @param weight das Gewicht der Kante, berechnet von seinem {@link Graph}
      */
-    Edge(Node<T> nodeA, Node<T> nodeB) {
+    Edge(Node<T> nodeA, Node<T> nodeB, double weight) {
         this.nodeA = nodeA;
         this.nodeB = nodeB;
+        this.weight = weight;
     }
 
     /**
@@ -43,6 +46,14 @@ public class Edge<T> {
         return nodeB;
     }
 
+    /**
+     * Gibt das Gewicht der Kante zurück, das beim Erstellen der Kante einmal berechnet wurde
+     * @return das Gewicht der Kante
+     */
+    public double getWeight() {
+        return weight;
+    }
+
     /**
      * Gibt den jeweils anderen Knoten zurück, abhängig von dem gegebenen
      * @param source der eine Knoten
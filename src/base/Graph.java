@@ -2,7 +2,7 @@ package base;
 
 import java.util.*;
 import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.function.ToDoubleBiFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -16,12 +16,30 @@ public class Graph<T> {
     private List<Edge<T>> edges;
     private List<Node<T>> nodes;
 
+    // indices, so lookups don't have to scan all nodes or edges
+    private List<List<Edge<T>>> adjacency; // incident edges, indexed by Node#getIndex()
+    private Map<T, Node<T>> valueNodes; // first node for every value
+    private Map<Long, Edge<T>> pairEdges; // edge for every (unordered) pair of node indices
+    private final ToDoubleBiFunction<T, T> weights; // null if every edge has the weight 1
+
     /**
-     * Konstruktor für einen neuen, leeren Graphen
+     * Konstruktor für einen neuen, leeren Graphen, dessen Kanten alle das Gewicht 1 haben
      */
     public Graph() {
+        this(null);
+    }
+
+    /**
+     * Konstruktor für einen neuen, leeren Graphen mit gewichteten Kanten
+     * @param weights berechnet das Gewicht einer neuen Kante aus den Werten ihrer Knoten, z.B. die Distanz zweier Burgen
+     */
+    public Graph(ToDoubleBiFunction<T, T> weights) {
+        this.weights = weights;
         this.nodes = new ArrayList<>();
-        this.edges = new LinkedList<>();
+        this.edges = new ArrayList<>();
+        this.adjacency = new ArrayList<>();
+        this.valueNodes = new HashMap<>();
+        this.pairEdges = new HashMap<>();
     }
 
     /**
@@ -30,8 +48,10 @@ public class Graph<T> {
      * @return Der erstellte Knoten
      */
     public Node<T> addNode(T value) {
-        Node<T> node = new Node<>(value);
+        Node<T> node = new Node<>(value, nodes.size());
         this.nodes.add(node);
+        this.adjacency.add(new ArrayList<>(4));
+        this.valueNodes.putIfAbsent(value, node);
         return node;
     }
 
@@ -47,11 +67,34 @@ public class Graph<T> {
             return edge;
         }
 
-        edge = new Edge<>(nodeA, nodeB);
+        edge = new Edge<>(nodeA, nodeB, getWeight(nodeA.getValue(), nodeB.getValue()));
         this.edges.add(edge);
+        this.adjacency.get(nodeA.getIndex()).add(edge);
+        if(nodeA != nodeB) {
+            this.adjacency.get(nodeB.getIndex()).add(edge);
+        }
+        this.pairEdges.put(pairKey(nodeA, nodeB), edge);
         return edge;
     }
 
+    /**
+     * Berechnet das Gewicht einer Kante zwischen zwei Werten, auch wenn es diese Kante nicht gibt
+     * @param valueA Der Wert des ersten Knotens
+     * @param valueB Der Wert des zweiten Knotens
+     * @return Das Gewicht, 1 wenn die Kanten des Graphen nicht gewichtet sind
+     */
+    public double getWeight(T valueA, T valueB) {
+        return weights == null ? 1 : weights.applyAsDouble(valueA, valueB);
+    }
+
+    /**
+     * Gibt an, ob die Kanten mit einer Gewichtsfunktion gewichtet werden (siehe {@link #Graph(ToDoubleBiFunction)})
+     * @return true, wenn die Kanten gewichtet sind
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
     /**
      * Gibt die Liste aller Knoten zurück
      * @return die Liste aller Knoten
@@ -79,21 +122,54 @@ public class Graph<T> {
     }
 
     /**
-     * Diese Methode gibt alle Kanten eines Knotens als Liste mittels Streams zurück.
+     * Diese Methode gibt alle Kanten eines Knotens als neue Liste zurück.
+     * Die Kanten werden direkt aus der Adjazenzliste des Knotens gelesen, der Aufwand hängt also nur vom Grad des Knotens ab.
      * @param node Der Knoten für die dazugehörigen Kanten
-     * @see java.util.stream.Stream#filter(Predicate)
-     * @see java.util.stream.Stream#collect(Collector)
      * @return Die Liste aller zum Knoten zugehörigen Kanten
      */
     public List<Edge<T>> getEdges(Node<T> node) {
-        return edges.stream().filter(e -> e.contains(node)).collect(Collectors.toList());
+        return new ArrayList<>(getIncidentEdges(node));
     }
     /**
      * @param nodes The nodes for the edges
      * @return all edges for all the nodes
      */
     public List<Edge<T>> getEdges(List<Node<T>> nodes){
-        return edges.stream().filter(e -> nodes.stream().anyMatch(e::contains)).collect(Collectors.toList());
+        Set<Edge<T>> edgeSet = new LinkedHashSet<>();
+        for(Node<T> node : nodes){
+            edgeSet.addAll(getIncidentEdges(node));
+        }
+        return new ArrayList<>(edgeSet);
+    }
+
+    /**
+     * Gibt die interne Liste der Kanten eines Knotens zurück, ohne sie zu kopieren.
+     * Die Liste darf nicht verändert werden.
+     * @param node Der Knoten für die dazugehörigen Kanten
+     * @return Die Liste aller zum Knoten zugehörigen Kanten, leer wenn der Knoten nicht zu diesem Graphen gehört
+     */
+    List<Edge<T>> getIncidentEdges(Node<T> node) {
+        if(!containsNode(node)) {
+            return Collections.emptyList();
+        }
+        return adjacency.get(node.getIndex());
+    }
+
+    /**
+     * @param node the node to check
+     * @return true if the node was created by this graph
+     */
+    private boolean containsNode(Node<T> node) {
+        return node != null && node.getIndex() < nodes.size() && nodes.get(node.getIndex()) == node;
+    }
+
+    /**
+     * @return a key for the unordered pair of both node indices
+     */
+    private static long pairKey(Node<?> nodeA, Node<?> nodeB) {
+        int a = Math.min(nodeA.getIndex(), nodeB.getIndex());
+        int b = Math.max(nodeA.getIndex(), nodeB.getIndex());
+        return ((long) a << 32) | b;
     }
 
     /**
@@ -104,7 +180,10 @@ public class Graph<T> {
      * @return Die Kante zwischen beiden Knoten oder null
      */
     public Edge<T> getEdge(Node<T> nodeA, Node<T> nodeB) {
-        return edges.stream().filter(e -> e.contains(nodeA) && e.contains(nodeB)).findFirst().orElse(null);
+        if(!containsNode(nodeA) || !containsNode(nodeB)) {
+            return null;
+        }
+        return pairEdges.get(pairKey(nodeA, nodeB));
     }
 
     /**
@@ -113,15 +192,32 @@ public class Graph<T> {
      * @return Ein Knoten mit dem angegebenen Wert oder null
      */
     public Node<T> getNode(T value) {
-        return nodes.stream().filter(n -> value.equals(n.getValue())).findFirst().orElse(null);
+        return valueNodes.get(value);
     }
     /**
      * Gibt eine Liste an Knoten mit einem der angegebenen Werte zurück
      * @param values die zu suchenden Werte
-     * @return Eine Liste mit Knoten mit den angegebenen werten
+     * @return Eine Liste mit Knoten mit den angegebenen werten, in der Reihenfolge des Graphen
      */
     public List<Node<T>> getNodes(List<T> values) {
-        return nodes.stream().filter(n -> values.stream().anyMatch(m -> n.getValue().equals(m))).collect(Collectors.toList());
+        if(valueNodes.size() != nodes.size()) { // there are nodes with equal values, which the value index can't resolve
+            Set<T> valueSet = new HashSet<>(values);
+            return nodes.stream().filter(n -> valueSet.contains(n.getValue())).collect(Collectors.toList());
+        }
+        boolean[] found = new boolean[nodes.size()];
+        for(T value : values) {
+            Node<T> node = valueNodes.get(value);
+            if(node != null) {
+                found[node.getIndex()] = true;
+            }
+        }
+        List<Node<T>> returnList = new ArrayList<>(values.size());
+        for(int i = 0; i < found.length; i++) {
+            if(found[i]) {
+                returnList.add(nodes.get(i));
+            }
+        }
+        return returnList;
     }
     
     /**
@@ -129,29 +225,15 @@ public class Graph<T> {
      * @return true, wenn alle Knoten erreichbar sind, false wenn nicht
      */
     public boolean allNodesConnected() {
-        if(nodes.size() == 0){
-            return true;
-        }
-        return (nodes.size() == allNodesConnectedHelper(nodes.get(0), new HashSet<>(Collections.singleton(nodes.get(0)))).size());
+        return new AGraphComponents<>(this).isConnected();
     }
 
     /**
-     * helper function for allNodesConnected
-     * checks recursively if all nodes are reachable
-     * @param node current node
-     * @param nodes passed nodes
-     * @return a list with all reachable nodes from the current node
+     * Sucht die Zusammenhangskomponenten des Graphen.
+     * @return die Zusammenhangskomponenten, siehe {@link AGraphComponents}
      */
-    private HashSet<Node<T>> allNodesConnectedHelper(Node<T> node, HashSet<Node<T>> nodes){
-        Node<T> other;
-        for(Edge<T> edge : getEdges(node)){
-            other = edge.getOtherNode(node);
-            if(!nodes.contains(other)){
-                nodes.add(other);
-                nodes = allNodesConnectedHelper(other, nodes);
-            }
-        }
-        return nodes;
+    public AGraphComponents<T> getComponents() {
+        return new AGraphComponents<>(this);
     }
 
     /**
@@ -159,8 +241,9 @@ public class Graph<T> {
      * @return A List with all neighbour nodes
      */
     public List<Node<T>> getNeighbours(Node<T> node){
-        List<Node<T>> returnList = new LinkedList<>();
-        for(Edge<T> edge : getEdges(node)){
+        List<Edge<T>> incidentEdges = getIncidentEdges(node);
+        List<Node<T>> returnList = new ArrayList<>(incidentEdges.size());
+        for(Edge<T> edge : incidentEdges){
             returnList.add(edge.getOtherNode(node));
         }
         return returnList;
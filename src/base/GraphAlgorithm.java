@@ -10,31 +10,112 @@ import java.util.*;
 public abstract class GraphAlgorithm<T> {
 
     /**
-     * Innere Klasse um {@link Node} zu erweitern, aber nicht zu verändern
-     * Sie weist jedem Knoten einen Wert und einen Vorgängerknoten zu.
-     * @param <T>
+     * Arbeitsspeicher eines Threads für den Algorithmus: ein binärer Min-Heap über die Knotennummern ({@link Node#getIndex()}).
+     * Die Arrays werden nur vergrößert und von allen Durchläufen im selben Thread wiederverwendet,
+     * sodass ein Durchlauf keine Objekte erzeugt.
      */
-    private static class AlgorithmNode<T> {
+    private static class Scratch {
+        private static final int SETTLED = -2;
+        private static final int UNSEEN = -1;
 
-        private Node<T> node;
-        private double value;
-        private AlgorithmNode<T> previous;
+        private int[] heap = new int[0]; // Knotennummern, geordnet nach keys
+        private int[] position = new int[0]; // Position einer Knotennummer im Heap, UNSEEN oder SETTLED
+        private double[] keys = new double[0]; // Wert plus Schätzung der Restkosten
+        private double[] estimates = new double[0]; // Schätzung der Restkosten, gültig sobald der Knoten gesehen wurde
+        private int size;
+        private boolean inUse;
 
-        AlgorithmNode(Node<T> parentNode, AlgorithmNode<T> previousNode, double value) {
-            this.node = parentNode;
-            this.previous = previousNode;
-            this.value = value;
+        void reset(int nodeCount) {
+            if(heap.length < nodeCount) {
+                heap = new int[nodeCount];
+                position = new int[nodeCount];
+                keys = new double[nodeCount];
+                estimates = new double[nodeCount];
+            }
+            Arrays.fill(position, 0, nodeCount, UNSEEN);
+            this.size = 0;
+        }
+
+        boolean isUnseen(int node) {
+            return position[node] == UNSEEN;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean isSettled(int node) {
+            return position[node] == SETTLED;
+        }
+
+        /**
+         * Fügt den Knoten ein oder stellt die Heap-Eigenschaft nach einer Verringerung seines Schlüssels wieder her
+         */
+        void insertOrDecrease(int node, double key) {
+            keys[node] = key;
+            int index = position[node];
+            if(index == UNSEEN) {
+                index = size++;
+                heap[index] = node;
+                position[node] = index;
+            }
+            siftUp(index);
+        }
+
+        int poll() {
+            int node = heap[0];
+            position[node] = SETTLED;
+            size--;
+            if(size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(0);
+            }
+            return node;
+        }
+
+        private void siftUp(int index) {
+            int node = heap[index];
+            double key = keys[node];
+            while(index > 0) {
+                int parent = (index - 1) >>> 1;
+                if(keys[heap[parent]] <= key)
+                    break;
+                heap[index] = heap[parent];
+                position[heap[index]] = index;
+                index = parent;
+            }
+            heap[index] = node;
+            position[node] = index;
+        }
+
+        private void siftDown(int index) {
+            int node = heap[index];
+            double key = keys[node];
+            int half = size >>> 1;
+            while(index < half) {
+                int child = 2 * index + 1;
+                if(child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                    child++;
+                if(key <= keys[heap[child]])
+                    break;
+                heap[index] = heap[child];
+                position[heap[index]] = index;
+                index = child;
+            }
+            heap[index] = node;
+            position[node] = index;
         }
     }
 
-    private Graph<T> graph;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
 
-    // Diese Liste enthält alle Knoten, die noch nicht abgearbeitet wurden
-    private List<Node<T>> availableNodes;
+    private Graph<T> graph;
     protected Node<T> sourceNode;
 
-    // Diese Map enthält alle Zuordnungen
-    private Map<Node<T>, AlgorithmNode<T>> algorithmNodes;
+    // Ergebnis des Algorithmus, indiziert über die Knotennummern: der Wert (-1 wenn nicht gesetzt) und der Vorgänger (-1 wenn keiner)
+    private double[] values;
+    private int[] previous;
 
     /**
      * Erzeugt ein neues GraphAlgorithm-Objekt mit dem dazugehörigen Graphen und dem Startknoten.
@@ -43,100 +124,148 @@ public abstract class GraphAlgorithm<T> {
      */
     public GraphAlgorithm(Graph<T> graph, Node<T> sourceNode) {
         this.graph = graph;
-        this.availableNodes = new LinkedList<>(graph.getNodes());
-        this.algorithmNodes = new HashMap<>();
-
-        for(Node<T> node : graph.getNodes())
-            this.algorithmNodes.put(node, new AlgorithmNode<>(node, null, -1));
-
-        this.sourceNode = sourceNode;
-        this.algorithmNodes.get(sourceNode).value = 0;
+        this.values = new double[0];
+        this.previous = new int[0];
+        setSourceNode(sourceNode);
     }
 
     /**
-     * Diese Methode gibt einen Knoten mit dem kleinsten Wert, der noch nicht abgearbeitet wurde, zurück und entfernt ihn aus der Liste {@link #availableNodes}.
-     * Sollte kein Knoten gefunden werden, wird null zurückgegeben.
-     * Verbindliche Anforderung: Verwenden Sie beim Durchlaufen der Liste Iteratoren
-     * @return Der nächste abzuarbeitende Knoten oder null
+     * Setzt einen neuen Startknoten und verwirft das bisherige Ergebnis.
+     * Die Arrays für das Ergebnis werden dabei wiederverwendet, sodass ein Objekt für beliebig viele Anfragen genutzt werden kann.
+     * @param sourceNode der neue Startknoten
      */
-    private AlgorithmNode<T> getSmallestNode() {
-        if(availableNodes.isEmpty())
-            return null;
-        Iterator<Node<T>> iterator = availableNodes.iterator();
-        Node<T> nextNode, bestNode = null;
-        AlgorithmNode<T> nextAlgorithmNode, bestAlgorithmNode = null;
-        while(iterator.hasNext()){
-            nextNode = iterator.next();
-            nextAlgorithmNode = algorithmNodes.get(nextNode);
-            if((bestAlgorithmNode == null || nextAlgorithmNode.value < bestAlgorithmNode.value) && nextAlgorithmNode.value >= 0){
-                bestAlgorithmNode = nextAlgorithmNode;
-                bestNode = nextNode;
-            }
+    public void setSourceNode(Node<T> sourceNode) {
+        int nodeCount = graph.getNodes().size();
+        if(values.length != nodeCount) {
+            values = new double[nodeCount];
+            previous = new int[nodeCount];
         }
-        if(bestNode != null)
-            availableNodes.remove(bestNode);
-        return bestAlgorithmNode;
+        Arrays.fill(values, -1);
+        Arrays.fill(previous, -1);
+        this.sourceNode = sourceNode;
+        this.values[sourceNode.getIndex()] = 0;
     }
 
     /**
      * Diese Methode startet den Algorithmus. Dieser funktioniert wie folgt:
-     * 1. Suche den Knoten mit dem geringsten Wert (siehe {@link #getSmallestNode()})
-     * 2. Für jede angrenzende Kante:
+     * 1. Entnimm dem Heap den Knoten mit dem geringsten Wert
+     * 2. Ist der Knoten passierbar ({@link #isPassable(Node)}), für jede angrenzende Kante:
      * 2a. Überprüfe ob die Kante passierbar ist ({@link #isPassable(Edge)})
      * 2b. Berechne den Wert des Knotens, in dem du den aktuellen Wert des Knotens und den der Kante addierst
      * 2c. Ist der alte Wert nicht gesetzt (-1) oder ist der neue Wert kleiner, setze den neuen Wert und den Vorgängerknoten
-     * 3. Wiederhole solange, bis alle Knoten abgearbeitet wurden
-
-     * Nützliche Methoden:
-     * @see #getSmallestNode()
+     *     und füge den Knoten in den Heap ein bzw. aktualisiere seine Position
+     * 3. Wiederhole solange, bis der Heap leer ist
+     *
+     * Der Aufwand liegt damit bei O((Knoten + Kanten) * log(Knoten)).
      * @see #isPassable(Edge)
-     * @see Graph#getEdges(Node)
      * @see Edge#getOtherNode(Node)
      */
     public void run() {
-        AlgorithmNode<T> algorithmNode = getSmallestNode(), otherAlgorithmNode;
-        List<Edge<T>> edges;
-        double newValue;
-        while(algorithmNode != null){
-            edges = graph.getEdges(algorithmNode.node);
-            for(Edge<T> edge : edges){
-                if(isPassable(edge) && isPassable(algorithmNode.node)){
-                    otherAlgorithmNode = algorithmNodes.get(edge.getOtherNode(algorithmNode.node));
-                    newValue = algorithmNode.value + getValue(edge);
-                    if(otherAlgorithmNode.value == -1 || newValue < otherAlgorithmNode.value){
-                        otherAlgorithmNode.previous = algorithmNode;
-                        otherAlgorithmNode.value = newValue;
-                    }
+        run(null);
+    }
+
+    /**
+     * Startet den Algorithmus für eine gezielte Anfrage: er bricht ab, sobald der Wert des Zielknotens feststeht.
+     * Die Knoten werden dabei nach ihrem Wert plus {@link #getHeuristic(Node, Node)} abgearbeitet (A*),
+     * ohne überschriebene Schätzung entspricht das dem normalen Algorithmus.
+     * Danach liefert {@link #getPath(Node)} nur für den Zielknoten einen verlässlichen Pfad.
+     * @param destination der Zielknoten oder null, um alle Knoten abzuarbeiten
+     */
+    public void run(Node<T> destination) {
+        setSourceNode(sourceNode); // discards a previous result, the arrays are only reallocated if the graph changed
+
+        List<Node<T>> nodes = graph.getNodes();
+        Scratch scratch = SCRATCH.get();
+        if(scratch.inUse) // a hook of this run started another run on the same thread
+            scratch = new Scratch();
+        scratch.inUse = true;
+        try {
+            run(nodes, scratch, destination);
+        } finally {
+            scratch.inUse = false;
+        }
+    }
+
+    private void run(List<Node<T>> nodes, Scratch scratch, Node<T> destination) {
+        scratch.reset(nodes.size());
+        int source = sourceNode.getIndex();
+        scratch.estimates[source] = destination == null ? 0 : getHeuristic(sourceNode, destination);
+        scratch.insertOrDecrease(source, scratch.estimates[source]);
+
+        while(!scratch.isEmpty()) {
+            int current = scratch.poll();
+            Node<T> currentNode = nodes.get(current);
+            if(currentNode == destination)
+                return;
+            if(!isPassable(currentNode))
+                continue;
+
+            List<Edge<T>> edges = graph.getIncidentEdges(currentNode);
+            for(int i = 0; i < edges.size(); i++) {
+                Edge<T> edge = edges.get(i);
+                Node<T> otherNode = edge.getOtherNode(currentNode);
+                int other = otherNode.getIndex();
+                if(scratch.isSettled(other) || !isPassable(edge))
+                    continue;
+                double newValue = values[current] + getValue(edge);
+                if(values[other] == -1 || newValue < values[other]) {
+                    if(scratch.isUnseen(other))
+                        scratch.estimates[other] = destination == null ? 0 : getHeuristic(otherNode, destination);
+                    values[other] = newValue;
+                    previous[other] = current;
+                    scratch.insertOrDecrease(other, newValue + scratch.estimates[other]);
                 }
             }
-            algorithmNode = getSmallestNode();
         }
     }
 
     /**
      * Diese Methode gibt eine Liste von Kanten zurück, die einen Pfad zu dem angegebenen Zielknoten representiert.
-     * Dabei werden zuerst beginnend mit dem Zielknoten alle Kanten mithilfe des Vorgängerattributs {@link AlgorithmNode#previous} zu der Liste hinzugefügt.
-     * Zum Schluss muss die Liste nur noch umgedreht werden. Sollte kein Pfad existieren, geben Sie null zurück.
+     * Dabei werden zuerst beginnend mit dem Zielknoten alle Kanten mithilfe der Vorgänger zu der Liste hinzugefügt.
+     * Zum Schluss muss die Liste nur noch umgedreht werden. Sollte kein Pfad existieren, wird null zurückgegeben.
      * @param destination Der Zielknoten des Pfads
      * @return eine Liste von Kanten oder null
      */
     public List<Edge<T>> getPath(Node<T> destination) {
-        if(destination == null || algorithmNodes.get(destination) == null || algorithmNodes.get(destination).previous == null)
+        if(destination == null || destination.getIndex() >= previous.length || graph.getNodes().get(destination.getIndex()) != destination
+                || previous[destination.getIndex()] == -1)
             return null;
-        AlgorithmNode<T> algorithmNode = algorithmNodes.get(destination);
+        List<Node<T>> nodes = graph.getNodes();
         List<Edge<T>> list = new ArrayList<>();
-        HashSet<AlgorithmNode<T>> passedNodes = new HashSet<>();
-        while(algorithmNode.previous != null){
-            list.add(graph.getEdge(algorithmNode.node, algorithmNode.previous.node));
-            passedNodes.add(algorithmNode);
-            if(passedNodes.contains(algorithmNode.previous)) // if there is an infinite cycle
+        int current = destination.getIndex();
+        while(previous[current] != -1) {
+            if(list.size() >= nodes.size()) // if there is an infinite cycle
                 return null; // there is no path
-            algorithmNode = algorithmNode.previous;
+            list.add(getIncidentEdge(nodes.get(current), nodes.get(previous[current])));
+            current = previous[current];
         }
         Collections.reverse(list);
         return list;
     }
 
+    /**
+     * Gibt den berechneten Wert des Knotens zurück, also die Summe der Kantenwerte auf dem kürzesten Pfad vom Startknoten
+     * @param node der Knoten
+     * @return der Wert des Knotens oder -1, wenn der Knoten nicht erreicht wurde
+     */
+    public double getDistance(Node<T> node) {
+        if(node == null || node.getIndex() >= values.length)
+            return -1;
+        return values[node.getIndex()];
+    }
+
+    /**
+     * @return the edge between both nodes, found in the adjacency of {@code node}
+     */
+    private Edge<T> getIncidentEdge(Node<T> node, Node<T> other) {
+        List<Edge<T>> edges = graph.getIncidentEdges(node);
+        for(int i = 0; i < edges.size(); i++) {
+            if(edges.get(i).getOtherNode(node) == other)
+                return edges.get(i);
+        }
+        return null;
+    }
+
     /**
      * Gibt den betrachteten Graphen zurück
      * @return der zu betrachtende Graph
@@ -153,6 +282,18 @@ public abstract class GraphAlgorithm<T> {
      */
     protected abstract double getValue(Edge<T> edge);
 
+    /**
+     * Schätzt die Kosten vom Knoten bis zum Zielknoten einer gezielten Anfrage ({@link #run(Node)}).
+     * Die Schätzung darf die tatsächlichen Kosten nie überschreiten und muss für jede Kante höchstens um deren Wert fallen,
+     * sonst ist der gefundene Pfad nicht mehr der kürzeste. Standardmäßig wird 0 geschätzt.
+     * @param node ein Knoten
+     * @param destination der Zielknoten
+     * @return die geschätzten Kosten
+     */
+    protected double getHeuristic(Node<T> node, Node<T> destination) {
+        return 0;
+    }
+
     /**
      * Gibt an, ob eine Kante passierbar ist.
      * @param edge Eine Kante
@@ -7,13 +7,16 @@ package base;
 public class Node<T> {
 
     private T value;
+    private int index;
 
     /**
      * Erzeugt einen neuen Knoten mit dem gegebenen Wert
      * @param value der Wert des Knotens
+     * @param index die fortlaufende Nummer des Knotens in seinem Graphen
      */
-    Node(T value) {
+    Node(T value, int index) {
         this.value = value;
+        this.index = index;
     }
 
     /**
@@ -23,4 +26,13 @@ public class Node<T> {
     public T getValue() {
         return value;
     }
+
+    /**
+     * Gibt die fortlaufende Nummer des Knotens zurück. Die Nummern sind innerhalb eines Graphen dicht (0 bis Knotenanzahl - 1)
+     * und entsprechen der Position in {@link Graph#getNodes()}, sie eignen sich also als Index für Arrays.
+     * @return die Nummer des Knotens
+     */
+    public int getIndex() {
+        return index;
+    }
 }
@@ -1,8 +1,9 @@
 package base;
 
 import java.awt.*;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * @author Philipp Imperatori, Nils Nedderhut, Louis Neumann
@@ -20,9 +21,20 @@ public class PerlinNoise {
     private int gheight; // scaled height
 
     private Random random;
-    private ArrayList<Vector<Double>> Vectors; //gradients
+    private double[] gradients; // x and y of every gradient, the octaves follow each other
+    private int[] octaveOffsets; // the index of the first gradient of every octave
+    private int octaves = 1;
+    private double persistence = 0.5;
+    private AxisTable[][] axisTables; // see getAxisTables()
 
     public PerlinNoise(int width, int height, int scale) {
+        this(width, height, scale, new Random());
+    }
+
+    /**
+     * @param random the random number generator for the gradients, a seeded one creates the same noise every time
+     */
+    public PerlinNoise(int width, int height, int scale, Random random) {
 
         this.width = width * scale;
         this.height = height * scale;
@@ -30,8 +42,9 @@ public class PerlinNoise {
         this.gwidth = width;
         this.gheight = height;
 
-        this.random = new Random();
-        this.Vectors = new ArrayList<>();
+        this.random = random;
+        this.octaveOffsets = new int[]{0};
+        this.gradients = new double[0];
         createVectors((1 + gwidth) * (1 + gheight));
     }
 
@@ -44,18 +57,39 @@ public class PerlinNoise {
     }
 
     /**
-     * create's a list with n elements where each element is a vector in the union circle (gradient)
+     * Adds finer octaves to the noise: the octave i has 2^i times as many gradients in each direction and the weight
+     * persistence^i. The gradients of the first octave stay the same, so one octave is the plain noise.
+     * @param octaves the count of octaves (at least 1)
+     * @param persistence the factor of the weight from one octave to the next, e.g. 0.5
+     */
+    public void setOctaves(int octaves, double persistence) {
+        octaves = Math.max(1, octaves);
+        int[] offsets = new int[octaves];
+        for(int octave = 0; octave < octaves; octave++){
+            if(octave < octaveOffsets.length){
+                offsets[octave] = octaveOffsets[octave];
+            } else {
+                offsets[octave] = gradients.length / 2;
+                createVectors((1 + (gwidth << octave)) * (1 + (gheight << octave)));
+            }
+        }
+        this.octaveOffsets = offsets;
+        this.octaves = octaves;
+        this.persistence = persistence;
+    }
+
+    /**
+     * create's n gradients (vectors in the union circle) and appends them to the gradients
      * @param n: number of gradients to be created
      */
     private void createVectors(int n) {
-        this.Vectors = new ArrayList<>();
+        int offset = gradients.length;
+        gradients = Arrays.copyOf(gradients, offset + 2 * n);
         for(int i=0;i<n;i++){
             double randomValue = random.nextDouble();
             randomValue = randomValue * 2 * Math.PI;
-            double x = Math.cos(randomValue);
-            double y = Math.sin(randomValue);
-            Vector<Double> grad = new Vector<>(x,y);
-            this.Vectors.add(grad);
+            gradients[offset + 2 * i] = Math.cos(randomValue);
+            gradients[offset + 2 * i + 1] = Math.sin(randomValue);
         }
     }
 
@@ -64,7 +98,7 @@ public class PerlinNoise {
      * @param t: number to smooth
      * @return smoothed number
      */
-    private double fade(double t){
+    private static double fade(double t){
         return (((6*(t*t*t*t*t))-(15*t*t*t*t))+(10*t*t*t));
     }
 
@@ -74,30 +108,19 @@ public class PerlinNoise {
      * @param w: weight w to interpolate
      * @return result of linear interpolation
      */
-    private double linearInterpolation(double x, double y, double w){
+    private static double linearInterpolation(double x, double y, double w){
         return ((1.0-w)*x+w*y);
     }
 
-    /**
-     * Calculates the scalar product between the direction vector and the gradient in the corner
-     * @param vector: direction vector
-     * @param gradient: gradient in the corner
-     * @return scalar product
-     */
-    private double scalarVekGrad(Vector<Double> vector, Vector<Double> gradient){
-        return (vector.getX()*gradient.getX() + vector.getY()*gradient.getY());
-    }
-
     /**
      * Converts the value from its old interval [oldMin,oldMax] to a new interval [newMin,newMax]
      * @param value : value to be converted
      * @return converted value
      */
-    private double mapToInterval(double value) {
+    private static double mapToInterval(double value) {
         return (value + 1.0)/2.0;
     }
 
-
     /**
      * Creates the noise value for the given point (x,y)
      * @param x: x-coordinate of point
@@ -110,44 +133,130 @@ public class PerlinNoise {
             return 0;
         }
 
-        double scaledX = x / this.scale;
-        double scaledY = y / this.scale;
-
-        //Left upper edge
-        int xlo = (int) scaledX;
-        int ylo = (int) scaledY;
+        double noise = 0, amplitude = 1, amplitudes = 0;
+        for(int octave = 0; octave < octaves; octave++){
+            double octaveScale = (double) this.scale / (1 << octave);
+            double scaledX = x / octaveScale;
+            double scaledY = y / octaveScale;
+            //Left upper edge
+            int xlo = (int) scaledX;
+            int ylo = (int) scaledY;
+            double value = getCellNoise(octave, xlo, ylo, scaledX - xlo, scaledX - (xlo + 1), fade(scaledX - xlo),
+                    scaledY - ylo, scaledY - (ylo + 1), fade(scaledY - ylo));
+            if(octaves == 1)
+                return mapToInterval(value);
+            noise += amplitude * value;
+            amplitudes += amplitude;
+            amplitude *= persistence;
+        }
+        return mapToInterval(noise / amplitudes);
+    }
 
-        //right upper egde
-        int xro = ((int) scaledX)+1;
-        int yro = ((int) scaledY);
+    /**
+     * Interpolates the scalar products of the direction vectors and the gradients in the four corners of a cell
+     * @param xlo the x index of the left upper corner
+     * @param ylo the y index of the left upper corner
+     * @param dxl the x offset to the left corners
+     * @param dxr the x offset to the right corners
+     * @param fadeX the smoothed x position in the cell
+     * @return the noise between -1 and 1
+     */
+    private double getCellNoise(int octave, int xlo, int ylo, double dxl, double dxr, double fadeX, double dyo, double dyu, double fadeY) {
+        int rowLength = (gwidth << octave) + 1;
+        int lo = 2 * (octaveOffsets[octave] + xlo + ylo * rowLength); // left upper gradient
+        int lu = lo + 2 * rowLength; // left lower gradient
+        double[] g = gradients;
 
-        //left lower edge
-        int xlu = (int) scaledX;
-        int ylu = ((int) scaledY)+1;
+        //upper edges
+        double linIntOben = linearInterpolation(dxl * g[lo] + dyo * g[lo + 1], dxr * g[lo + 2] + dyo * g[lo + 3], fadeX);
 
-        //right lower edge
-        int xru = ((int) scaledX)+1;
-        int yru = ((int) scaledY)+1;
+        //lower edges
+        double linIntUnten = linearInterpolation(dxl * g[lu] + dyu * g[lu + 1], dxr * g[lu + 2] + dyu * g[lu + 3], fadeX);
 
-        // int cell_nr = xlo+(ylo*this.gwidth);
+        //final interpolation
+        return linearInterpolation(linIntOben, linIntUnten, fadeY);
+    }
 
-        Vector<Double> gradLO = this.Vectors.get(xlo+(ylo*(this.gwidth+1)));
-        Vector<Double> gradRO = this.Vectors.get(xro+(yro*(this.gwidth+1)));
-        Vector<Double> gradLU = this.Vectors.get(xlu+((ylu)*(this.gwidth+1)));
-        Vector<Double> gradRU = this.Vectors.get(xru+((yru)*(this.gwidth+1)));
+    /**
+     * Computes the noise of every pixel of the real size. The rows are computed in parallel.
+     * @return the noise values row by row, the value of (x,y) has the index x + y * width
+     * @see #getNoiseRow(int, double[])
+     */
+    public double[] getNoiseField() {
+        double[] field = new double[width * height];
+        getAxisTables();
+        IntStream.range(0, height).parallel().forEach(y -> {
+            double[] row = new double[width];
+            getNoiseRow(y, row);
+            System.arraycopy(row, 0, field, y * width, width);
+        });
+        return field;
+    }
 
-        Vector<Double> rvLO = new Vector<>(scaledX - xlo,scaledY - ylo);
-        Vector<Double> rvRO = new Vector<>(scaledX - xro,scaledY - yro);
-        Vector<Double> rvLU = new Vector<>(scaledX - xlu,scaledY - ylu);
-        Vector<Double> rvRU = new Vector<>(scaledX - xru,scaledY - yru);
+    /**
+     * Computes the noise of one row of pixels like {@link #getNoise(double, double)}, the positions in the cells and
+     * their smoothed values are computed only once per column and row. Can be called by several threads at once.
+     * @param y the y coordinate of the row
+     * @param row the array for the noise values of the row, at least as long as the real width
+     */
+    public void getNoiseRow(int y, double[] row) {
+        AxisTable[][] tables = getAxisTables();
+        double amplitude = 1, amplitudes = 0;
+        for(int octave = 0; octave < octaves; octave++){
+            AxisTable columns = tables[0][octave], rows = tables[1][octave];
+            int cellY = rows.cells[y];
+            double dyo = rows.near[y], dyu = rows.far[y], fadeY = rows.fades[y];
+            for(int x = 0; x < width; x++){
+                double value = getCellNoise(octave, columns.cells[x], cellY, columns.near[x], columns.far[x],
+                        columns.fades[x], dyo, dyu, fadeY);
+                if(octaves == 1)
+                    row[x] = mapToInterval(value);
+                else
+                    row[x] = (octave == 0 ? 0 : row[x]) + amplitude * value;
+            }
+            amplitudes += amplitude;
+            amplitude *= persistence;
+        }
+        if(octaves > 1){
+            for(int x = 0; x < width; x++)
+                row[x] = mapToInterval(row[x] / amplitudes);
+        }
+    }
 
-        //upper edges
-        double linIntOben = this.linearInterpolation(this.scalarVekGrad(rvLO,gradLO),this.scalarVekGrad(rvRO,gradRO),this.fade(rvLO.getX()));
+    /**
+     * @return the tables of the columns (first index 0) and rows (first index 1) of every octave
+     */
+    private synchronized AxisTable[][] getAxisTables() {
+        if(axisTables == null || axisTables[0].length != octaves){
+            AxisTable[][] tables = new AxisTable[2][octaves];
+            for(int octave = 0; octave < octaves; octave++){
+                tables[0][octave] = new AxisTable(width, (double) scale / (1 << octave));
+                tables[1][octave] = new AxisTable(height, (double) scale / (1 << octave));
+            }
+            axisTables = tables;
+        }
+        return axisTables;
+    }
 
-        //lower edges
-        double linIntUnten = this.linearInterpolation(this.scalarVekGrad(rvLU,gradLU),this.scalarVekGrad(rvRU,gradRU),this.fade(rvLO.getX()));
+    /**
+     * The cells and offsets of all pixels of one axis, computed like {@link #getNoise(double, double)}
+     */
+    private static class AxisTable {
+        private final int[] cells;
+        private final double[] near, far, fades; // the offset to the near and far corners and the smoothed position
 
-        //final interpolation
-        return this.mapToInterval(this.linearInterpolation(linIntOben,linIntUnten,this.fade(rvLO.getY())));
+        private AxisTable(int length, double scale) {
+            cells = new int[length];
+            near = new double[length];
+            far = new double[length];
+            fades = new double[length];
+            for(int i = 0; i < length; i++){
+                double scaled = i / scale;
+                cells[i] = (int) scaled;
+                near[i] = scaled - cells[i];
+                far[i] = scaled - (cells[i] + 1);
+                fades[i] = fade(near[i]);
+            }
+        }
     }
 }
@@ -9,7 +9,6 @@ import gui.Resources;
 import java.awt.*;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Replaces {@link game.map.Clustering} for {@link game.goals.AClashOfArmiesGoal} (does not create clusters but doesn't
@@ -27,7 +26,18 @@ public class AClustering {
      * @return a {@link List} of the generated bases.
      */
     public static List<Castle> generateBases(List<Player> players, Dimension mapSize){
-        List<Castle> bases = generateRandomCastles(players, mapSize);
+        return generateBases(players, mapSize, new Random());
+    }
+    /**
+     * Generates random {@link Castle}s and moves them with an negative gravity to each other, until they doesn't move
+     * anymore or the max iteration count is reached.
+     * @param players the players to generate the bases for
+     * @param mapSize the size of the map
+     * @param random the random number generator for the start positions
+     * @return a {@link List} of the generated bases.
+     */
+    public static List<Castle> generateBases(List<Player> players, Dimension mapSize, Random random){
+        List<Castle> bases = generateRandomCastles(players, mapSize, random);
         Map<Castle, Point> basesPositions = new HashMap<>();
         for(Castle base : bases){
             basesPositions.put(base, base.getLocationOnMap());
@@ -93,9 +103,10 @@ public class AClustering {
      * generates random {@link Castle}s inside the map for the players
      * @param players the players to generate castles for
      * @param mapSize the size of the map
+     * @param random the random number generator for the positions
      * @return a {@link List} containing the generated {@link Castle}s.
      */
-    public static List<Castle> generateRandomCastles(List<Player> players, Dimension mapSize){
+    public static List<Castle> generateRandomCastles(List<Player> players, Dimension mapSize, Random random){
         List<Castle> returnList = new LinkedList<>();
         Point position;
         Point posMin, posMax;
@@ -120,8 +131,8 @@ public class AClustering {
             }*/
             posMin = new Point(0, 0);
             posMax = new Point(mapSize.width, mapSize.height);
-            position = new Point(ThreadLocalRandom.current().nextInt(posMin.x, posMax.x + 1),
-                                 ThreadLocalRandom.current().nextInt(posMin.y, posMax.y + 1));
+            position = new Point(posMin.x + random.nextInt(posMax.x - posMin.x + 1),
+                                 posMin.y + random.nextInt(posMax.y - posMin.y + 1));
             castle = new Castle(position, player.getName() + " Basis");
             castle.setOwner(player);
             returnList.add(castle);
@@ -0,0 +1,126 @@
+package de.teast;
+
+import base.Edge;
+import base.Graph;
+import base.Node;
+import game.map.Castle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All pairs hop distances (edge counts) of a castle graph, computed once with a breadth first search from every node.
+ * The distances are stored in one {@code short[]} matrix indexed by {@link Node#getIndex()}. A second {@code short[]}
+ * matrix stores in every row the reachable nodes in the order of the search, which is sorted by distance, so the castles
+ * within a range are a prefix of that row.
+ * @author Alexander Muth
+ *
+ * @see APath#getHopDistances()
+ */
+public class AHopDistances {
+    private static final short UNREACHABLE = -1;
+
+    private final Graph<Castle> graph;
+    private final int nodeCount;
+    private final short[] distances; // nodeCount * nodeCount, UNREACHABLE if there is no path
+    private final short[] order; // row of every source: the reachable nodes sorted by distance (without the source)
+    private final int[] reachableCount;
+
+    /**
+     * @param graph the graph, which must not change as long as this object is used
+     */
+    public AHopDistances(Graph<Castle> graph){
+        this.graph = graph;
+        this.nodeCount = graph.getNodes().size();
+        if(nodeCount > Short.MAX_VALUE)
+            throw new IllegalArgumentException("too many nodes for a hop distance matrix: " + nodeCount);
+        this.distances = new short[nodeCount * nodeCount];
+        this.order = new short[nodeCount * nodeCount];
+        this.reachableCount = new int[nodeCount];
+
+        int[][] neighbours = new int[nodeCount][];
+        List<Node<Castle>> nodes = graph.getNodes();
+        for(Node<Castle> node : nodes){
+            List<Edge<Castle>> edges = graph.getEdges(node);
+            int[] nodeNeighbours = new int[edges.size()];
+            for(int i = 0; i < nodeNeighbours.length; i++){
+                nodeNeighbours[i] = edges.get(i).getOtherNode(node).getIndex();
+            }
+            neighbours[node.getIndex()] = nodeNeighbours;
+        }
+
+        int[] queue = new int[nodeCount];
+        for(int source = 0; source < nodeCount; source++){
+            breadthFirstSearch(source, neighbours, queue);
+        }
+    }
+
+    private void breadthFirstSearch(int source, int[][] neighbours, int[] queue){
+        int row = source * nodeCount;
+        Arrays.fill(distances, row, row + nodeCount, UNREACHABLE);
+        distances[row + source] = 0;
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        while(head < tail){
+            int current = queue[head++];
+            short nextDistance = (short) (distances[row + current] + 1);
+            for(int neighbour : neighbours[current]){
+                if(distances[row + neighbour] == UNREACHABLE){
+                    distances[row + neighbour] = nextDistance;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        // the queue holds the reachable nodes sorted by distance, the source is the first one
+        for(int i = 1; i < tail; i++){
+            order[row + i - 1] = (short) queue[i];
+        }
+        reachableCount[source] = tail - 1;
+    }
+
+    /**
+     * @param source the source castle
+     * @param destination the destination castle
+     * @return the count of edges on the shortest path or -1 if there is no path or a castle isn't part of the graph
+     */
+    public int getRange(Castle source, Castle destination){
+        int sourceIndex = indexOf(source), destinationIndex = indexOf(destination);
+        if(sourceIndex < 0 || destinationIndex < 0)
+            return -1;
+        return distances[sourceIndex * nodeCount + destinationIndex];
+    }
+
+    /**
+     * @param castle the castle from where the range starts
+     * @param range the maximum count of edges
+     * @return all castles except {@code castle} with a range of at most {@code range}, sorted by range
+     */
+    public List<Castle> getCastlesInRange(Castle castle, int range){
+        int source = indexOf(castle);
+        List<Castle> returnList = new ArrayList<>();
+        if(source < 0 || range <= 0)
+            return returnList;
+        List<Node<Castle>> nodes = graph.getNodes();
+        int row = source * nodeCount;
+        for(int i = 0; i < reachableCount[source]; i++){
+            int node = order[row + i];
+            if(distances[row + node] > range)
+                break;
+            returnList.add(nodes.get(node).getValue());
+        }
+        return returnList;
+    }
+
+    /**
+     * @return the count of nodes of the graph when this object was created
+     */
+    public int getNodeCount(){
+        return nodeCount;
+    }
+
+    private int indexOf(Castle castle){
+        Node<Castle> node = graph.getNode(castle);
+        return (node == null || node.getIndex() >= nodeCount) ? -1 : node.getIndex();
+    }
+}
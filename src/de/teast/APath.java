@@ -13,7 +13,6 @@ import game.map.Kingdom;
 import java.awt.*;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * extends the functionality of {@link Graph} for {@link game.goals.AClashOfArmiesGoal}
@@ -26,9 +25,10 @@ public class APath extends Graph<Castle> {
     Map<Castle, Node<Castle>> castleMap;
     List<ATriplet<Castle, Castle, List<Castle>>> stops;
     Kingdom kingdom = new Kingdom(6);
+    AHopDistances hopDistances;
 
     public APath(List<Castle> castles){
-        super();
+        super(Castle::distance);
         castleMap = new HashMap<>();
         for(Castle castle : castles){
             castleMap.put(castle, addNode(castle));
@@ -36,6 +36,27 @@ public class APath extends Graph<Castle> {
         stops = new LinkedList<>();
     }
 
+    /**
+     * @return the hop distances between all castles, which get computed on the first call after the graph has changed
+     */
+    public synchronized AHopDistances getHopDistances(){
+        if(hopDistances == null || hopDistances.getNodeCount() != getNodes().size())
+            hopDistances = new AHopDistances(this);
+        return hopDistances;
+    }
+
+    @Override
+    public synchronized Node<Castle> addNode(Castle value) {
+        hopDistances = null;
+        return super.addNode(value);
+    }
+
+    @Override
+    public synchronized Edge<Castle> addEdge(Node<Castle> nodeA, Node<Castle> nodeB) {
+        hopDistances = null;
+        return super.addEdge(nodeA, nodeB);
+    }
+
     /**
      * @return the map of bases
      */
@@ -76,6 +97,17 @@ public class APath extends Graph<Castle> {
      * @param scale a scale factor
      */
     public void generateStops(Castle source, Castle destination, int stopCount, double scale){
+        generateStops(source, destination, stopCount, scale, new Random());
+    }
+    /**
+     * generates stops from {@code source} to {@code destination}
+     * @param source the source castle
+     * @param destination the destination castle
+     * @param stopCount the count of stops to generate
+     * @param scale a scale factor
+     * @param random the random number generator for the positions of the stops
+     */
+    public void generateStops(Castle source, Castle destination, int stopCount, double scale, Random random){
         if(!castleMap.containsKey(source)){
             addCastle(source);
         }
@@ -105,7 +137,8 @@ public class APath extends Graph<Castle> {
             scaledPerpen = perpen.mult(tempI);
             for(int i = 1; i <= stopCount; i++) {
                 posMult = 1 - (Math.abs((stopCount / 2.0) - i) / AConstants.DISTANCE_MIDDLE_DIVISOR);
-                posMult *= ThreadLocalRandom.current().nextDouble(AConstants.RANDOM_DISTANCE_SCALE_MULTIPLIER_MIN, AConstants.RANDOM_DISTANCE_SCALE_MULTIPLIER_MAX);
+                posMult *= AConstants.RANDOM_DISTANCE_SCALE_MULTIPLIER_MIN + random.nextDouble()
+                        * (AConstants.RANDOM_DISTANCE_SCALE_MULTIPLIER_MAX - AConstants.RANDOM_DISTANCE_SCALE_MULTIPLIER_MIN);
                 stopPos = pos.add(difVec.mult(i)).add(scaledPerpen.mult(posMult));
                 positions.add(stopPos);
             }
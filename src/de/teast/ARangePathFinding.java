@@ -17,22 +17,25 @@ public class ARangePathFinding extends GraphAlgorithm<Castle> {
 
     /**
      * @param destination the destination
-     * @return the range (count of edges) to the destination
+     * @return the range (count of edges) to the destination or -1 if it isn't reachable
      */
     public int getRange(Castle destination){
-        return getPath(getGraph().getNode(destination)).size();
+        return (int) getDistance(getGraph().getNode(destination));
     }
     /**
      * @param castleGraph the castle graph
      * @param source the source castle
      * @param destination the destination castle
-     * @return the range in the {@code castleGraph} from {@code source} to {@code destination}
+     * @return the range in the {@code castleGraph} from {@code source} to {@code destination}, looked up in the
+     * precomputed {@link AHopDistances} if {@code castleGraph} is an {@link APath}
      *
      * @see #getRange(Castle)
      */
     public static int getRange(Graph<Castle> castleGraph, Castle source, Castle destination){
         if(source == destination)
             return 0;
+        if(castleGraph instanceof APath)
+            return ((APath) castleGraph).getHopDistances().getRange(source, destination);
         ARangePathFinding pathFinding = new ARangePathFinding(castleGraph, source);
         pathFinding.run();
         return pathFinding.getRange(destination);
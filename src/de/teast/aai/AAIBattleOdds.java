@@ -0,0 +1,160 @@
+package de.teast.aai;
+
+/**
+ * Exact odds of an attack as it is rolled by {@link game.AAttack} and {@link game.Game#doAttack}: in every round
+ * the attacker rolls up to 3 dice (6 with double dice), the defender up to 2, the highest dice are compared pairwise
+ * and the defender wins ties. The attack is a Markov chain over the pairs (attackers, defenders), whose win
+ * probabilities and expected losses are computed once for all pairs up to {@link #MAX_TROOPS} and stored in flat
+ * tables, so a lookup is an array access.
+ * The attackers are the troops, which can be lost, i.e. the troops of the attacking castle minus the troop staying
+ * behind ({@link AAIMethods#getAttackTroopCount(java.util.List)}).
+ * @author Alexander Muth
+ */
+public class AAIBattleOdds {
+    public static final int MAX_TROOPS = 100;
+
+    private static final int SIZE = MAX_TROOPS + 1;
+    private static final int SIDES = 6;
+
+    // [doubleDice ? 1 : 0][attackers * SIZE + defenders]
+    private static final double[][] winProbabilities = new double[2][SIZE * SIZE];
+    private static final double[][] attackerLosses = new double[2][SIZE * SIZE];
+    private static final double[][] defenderLosses = new double[2][SIZE * SIZE];
+
+    static {
+        for(int variant = 0; variant < 2; variant++){
+            // roundOdds[attackerDice][defenderDice][lost defender troops] of a single round
+            double[][][] roundOdds = new double[3 * (variant + 1) + 1][3][];
+            for(int attackerDice = 1; attackerDice < roundOdds.length; attackerDice++){
+                for(int defenderDice = 1; defenderDice <= 2; defenderDice++)
+                    roundOdds[attackerDice][defenderDice] = computeRoundOdds(attackerDice, defenderDice);
+            }
+            fillTables(variant, roundOdds);
+        }
+    }
+
+    /**
+     * @param attackers the troops, which attack (at least 1)
+     * @param defenders the troops of the defending castle (at least 1)
+     * @param doubleDice if the attacker rolls twice as many dice
+     * @return the probability, that the castle is conquered
+     */
+    public static double getWinProbability(int attackers, int defenders, boolean doubleDice){
+        return lookup(winProbabilities, attackers, defenders, doubleDice);
+    }
+
+    /**
+     * @return the expected count of lost attacking troops until the castle is conquered or all attackers are lost
+     * @see #getWinProbability(int, int, boolean)
+     */
+    public static double getExpectedAttackerLosses(int attackers, int defenders, boolean doubleDice){
+        return lookup(attackerLosses, attackers, defenders, doubleDice) * scale(attackers, defenders);
+    }
+
+    /**
+     * @return the expected count of lost defending troops until the castle is conquered or all attackers are lost
+     * @see #getWinProbability(int, int, boolean)
+     */
+    public static double getExpectedDefenderLosses(int attackers, int defenders, boolean doubleDice){
+        return lookup(defenderLosses, attackers, defenders, doubleDice) * scale(attackers, defenders);
+    }
+
+    /**
+     * Looks up the table, pairs above {@link #MAX_TROOPS} are scaled down with the same ratio, which is a close
+     * approximation for large armies
+     */
+    private static double lookup(double[][] table, int attackers, int defenders, boolean doubleDice){
+        if(defenders <= 0)
+            return table == winProbabilities ? 1 : 0;
+        if(attackers <= 0)
+            return 0;
+        double scale = scale(attackers, defenders);
+        if(scale > 1){
+            attackers = Math.max(1, (int) Math.round(attackers / scale));
+            defenders = Math.max(1, (int) Math.round(defenders / scale));
+        }
+        return table[doubleDice ? 1 : 0][attackers * SIZE + defenders];
+    }
+
+    private static double scale(int attackers, int defenders){
+        return Math.max(1, Math.max(attackers, defenders) / (double) MAX_TROOPS);
+    }
+
+    /**
+     * Enumerates all rolls of one round
+     * @return the probabilities of the lost defender troops (the attacker loses the other compared dice)
+     */
+    private static double[] computeRoundOdds(int attackerDice, int defenderDice){
+        int[][] attackerTop = topTwoCounts(attackerDice), defenderTop = topTwoCounts(defenderDice);
+        int comparisons = Math.min(attackerDice, defenderDice);
+        double[] odds = new double[comparisons + 1];
+        double total = Math.pow(SIDES, attackerDice + defenderDice);
+        for(int a = 0; a < SIDES * SIDES; a++){
+            if(attackerTop[a / SIDES][a % SIDES] == 0)
+                continue;
+            for(int d = 0; d < SIDES * SIDES; d++){
+                if(defenderTop[d / SIDES][d % SIDES] == 0)
+                    continue;
+                int lost = 0;
+                if(a / SIDES > d / SIDES)
+                    lost++;
+                if(comparisons > 1 && a % SIDES > d % SIDES)
+                    lost++;
+                odds[lost] += (double) attackerTop[a / SIDES][a % SIDES] * defenderTop[d / SIDES][d % SIDES] / total;
+            }
+        }
+        return odds;
+    }
+
+    /**
+     * @return how many rolls of the dice have the highest die (first index) and second highest die (second index),
+     * the dice are 0 to 5 and the second die of a single die is 0
+     */
+    private static int[][] topTwoCounts(int dice){
+        int[][] counts = new int[SIDES][SIDES];
+        int[] roll = new int[dice];
+        int rolls = (int) Math.pow(SIDES, dice);
+        for(int r = 0; r < rolls; r++){
+            int value = r, first = -1, second = -1;
+            for(int i = 0; i < dice; i++){
+                roll[i] = value % SIDES;
+                value /= SIDES;
+                if(roll[i] > first){
+                    second = first;
+                    first = roll[i];
+                } else if(roll[i] > second){
+                    second = roll[i];
+                }
+            }
+            counts[first][Math.max(second, 0)]++;
+        }
+        return counts;
+    }
+
+    private static void fillTables(int variant, double[][][] roundOdds){
+        double[] win = winProbabilities[variant], lostAttackers = attackerLosses[variant], lostDefenders = defenderLosses[variant];
+        int diceFactor = variant + 1;
+        for(int attackers = 0; attackers < SIZE; attackers++){
+            for(int defenders = 0; defenders < SIZE; defenders++){
+                int index = attackers * SIZE + defenders;
+                if(defenders == 0){
+                    win[index] = 1;
+                    continue;
+                }
+                if(attackers == 0)
+                    continue;
+                int attackerDice = Math.min(attackers, 3) * diceFactor, defenderDice = Math.min(defenders, 2);
+                double[] odds = roundOdds[attackerDice][defenderDice];
+                int comparisons = odds.length - 1;
+                for(int lost = 0; lost <= comparisons; lost++){
+                    int lostByAttacker = Math.min(comparisons - lost, attackers);
+                    int next = (attackers - lostByAttacker) * SIZE + (defenders - lost);
+                    win[index] += odds[lost] * win[next];
+                    lostAttackers[index] += odds[lost] * (lostByAttacker + lostAttackers[next]);
+                    lostDefenders[index] += odds[lost] * (lost + lostDefenders[next]);
+                }
+                win[index] = Math.min(1, win[index]); // the rounding errors of the sum may exceed 1
+            }
+        }
+    }
+}
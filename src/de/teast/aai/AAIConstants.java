@@ -5,6 +5,7 @@ import game.map.MapSize;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -18,6 +19,26 @@ public class AAIConstants {
 
     private static int valueCount = 32;
 
+    // the constants of the AI, which is acting in this thread (see ABasicAI), so games in different threads don't interfere
+    private static final ThreadLocal<AAIConstants> current = ThreadLocal.withInitial(AAIConstants::new);
+
+    /**
+     * @return the constants used by the methods of {@link de.teast.aai} in the current thread
+     */
+    public static AAIConstants current(){
+        return current.get();
+    }
+    /**
+     * Sets the constants used by the methods of {@link de.teast.aai} in the current thread
+     * @param constants the new constants
+     * @return the previous constants of the current thread
+     */
+    public static AAIConstants setCurrent(AAIConstants constants){
+        AAIConstants previous = current.get();
+        current.set(constants);
+        return previous;
+    }
+
     public AAIConstants(){
         super();
     }
@@ -40,6 +61,10 @@ public class AAIConstants {
         if(randomValues)
             generateRandom();
     }
+    public AAIConstants(Random random){
+        super();
+        generateRandom(random);
+    }
     public AAIConstants(String filename){
         super();
         try {
@@ -162,38 +187,45 @@ public class AAIConstants {
      * generates random values for this object
      */
     public void generateRandom(){
-        SURROUNDED_BY_OWN_CASTLES = ThreadLocalRandom.current().nextInt(0, 10);
-        NO_ENEMY_NEIGHBOUR = ThreadLocalRandom.current().nextInt(0, 10);
-        FIRST_CASTLE_IN_KINGDOM = ThreadLocalRandom.current().nextInt(0, 10);
-        OTHER_CAN_CAPTURE_KINGDOM = ThreadLocalRandom.current().nextInt(0, 10);
-        OTHER_HAS_CASTLES_IN_KINGDOM = ThreadLocalRandom.current().nextInt(0, 10);
-        SPLIT_ENEMY_REGION = ThreadLocalRandom.current().nextInt(0, 10);
-        CONNECTED_TO_OWN_CASTLES = ThreadLocalRandom.current().nextInt(0, 10);
-        EXPAND_POSSIBILITIES = ThreadLocalRandom.current().nextInt(0, 10);
-        EXPAND_POSSIBILITIES_COUNT = ThreadLocalRandom.current().nextInt(0, 10);
-        FREE_NEIGHBOURS_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        SMALL_KINGDOM = ThreadLocalRandom.current().nextInt(0, 10);
-        HAS_FEW_EDGES_TO_OTHER_KINGDOMS = ThreadLocalRandom.current().nextInt(0, 10);
-        OPPORTUNITY_ELEMINATE_PLAYER = ThreadLocalRandom.current().nextInt(0, 10);
-        BELONGS_BIG_THREAT = ThreadLocalRandom.current().nextInt(0, 10);
-        CLOSE_TO_CAPTURE_KINGDOM = ThreadLocalRandom.current().nextInt(0, 10);
-        BREAK_UP_KINGDOM = ThreadLocalRandom.current().nextInt(0, 10);
-        HAS_FEW_NEIGHBOURS = ThreadLocalRandom.current().nextInt(0, 10);
-        UNITE_SPLITTED_REGIONS = ThreadLocalRandom.current().nextInt(0, 10);
-        BIG_THREAT_KINGDOM_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        BIG_THREAT_CASTLE_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        BIG_THREAT_TROOP_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        FEW_NEIGHBOUR_COUNT = ThreadLocalRandom.current().nextInt(0, 10);
-        EDGE_DIFFERENCE_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        NEIGHBOUR_TROOP_DIFFERENCE_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        TARGET_TROOP_DIFFERNECE_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        MIN_ATTACK_VALUE = ThreadLocalRandom.current().nextInt(0, 10);
-        EDGE_COUNT_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        THREATENING_TROOP_COUNT_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        CASTLE_COUNT_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        OWNED_KINGDOM_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
-        CAN_UNITE_SPLITTED_REGIONS = ThreadLocalRandom.current().nextInt(0, 10);
-        TROOP_DIFFERENCE_MULTIPLIER = ThreadLocalRandom.current().nextDouble(0, 10); // DOUBLE!!!
+        generateRandom(ThreadLocalRandom.current());
+    }
+    /**
+     * generates random values for this object
+     * @param random the random number generator, a seeded one generates the same values every time
+     */
+    public void generateRandom(Random random){
+        SURROUNDED_BY_OWN_CASTLES = random.nextInt(10);
+        NO_ENEMY_NEIGHBOUR = random.nextInt(10);
+        FIRST_CASTLE_IN_KINGDOM = random.nextInt(10);
+        OTHER_CAN_CAPTURE_KINGDOM = random.nextInt(10);
+        OTHER_HAS_CASTLES_IN_KINGDOM = random.nextInt(10);
+        SPLIT_ENEMY_REGION = random.nextInt(10);
+        CONNECTED_TO_OWN_CASTLES = random.nextInt(10);
+        EXPAND_POSSIBILITIES = random.nextInt(10);
+        EXPAND_POSSIBILITIES_COUNT = random.nextInt(10);
+        FREE_NEIGHBOURS_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        SMALL_KINGDOM = random.nextInt(10);
+        HAS_FEW_EDGES_TO_OTHER_KINGDOMS = random.nextInt(10);
+        OPPORTUNITY_ELEMINATE_PLAYER = random.nextInt(10);
+        BELONGS_BIG_THREAT = random.nextInt(10);
+        CLOSE_TO_CAPTURE_KINGDOM = random.nextInt(10);
+        BREAK_UP_KINGDOM = random.nextInt(10);
+        HAS_FEW_NEIGHBOURS = random.nextInt(10);
+        UNITE_SPLITTED_REGIONS = random.nextInt(10);
+        BIG_THREAT_KINGDOM_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        BIG_THREAT_CASTLE_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        BIG_THREAT_TROOP_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        FEW_NEIGHBOUR_COUNT = random.nextInt(10);
+        EDGE_DIFFERENCE_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        NEIGHBOUR_TROOP_DIFFERENCE_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        TARGET_TROOP_DIFFERNECE_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        MIN_ATTACK_VALUE = random.nextInt(10);
+        EDGE_COUNT_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        THREATENING_TROOP_COUNT_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        CASTLE_COUNT_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        OWNED_KINGDOM_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
+        CAN_UNITE_SPLITTED_REGIONS = random.nextInt(10);
+        TROOP_DIFFERENCE_MULTIPLIER = random.nextDouble() * 10; // DOUBLE!!!
     }
 
     /**
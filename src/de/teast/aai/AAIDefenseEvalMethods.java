@@ -13,7 +13,6 @@ import java.util.*;
  * @author Alexander Muth
  */
 public class AAIDefenseEvalMethods {
-    public static AAIConstants constants = new AAIConstants();
 
     /**
      * Moves the TROOPS for defense
@@ -115,8 +114,8 @@ public class AAIDefenseEvalMethods {
     public static double evaluateCastle(Graph<Castle> castleGraph, Castle castle){
         double points = 0;
 
-        points += (getEnemyEdgeCount(castleGraph, castle) * constants.EDGE_COUNT_MULTIPLIER);
-        points += (getThreateningNeighboursTroopCount(castleGraph, castle) * constants.THREATENING_TROOP_COUNT_MULTIPLIER);
+        points += (getEnemyEdgeCount(castleGraph, castle) * AAIConstants.current().EDGE_COUNT_MULTIPLIER);
+        points += (getThreateningNeighboursTroopCount(castleGraph, castle) * AAIConstants.current().THREATENING_TROOP_COUNT_MULTIPLIER);
 
         return points;
     }
@@ -48,7 +48,6 @@ public class AAIDistributeTroopsMethods {
         }
     }
 
-    public static AAIConstants constants = new AAIConstants();
 
     /**
      * Generates {@link ATroopMover} objects, to distribute the TROOPS, for the given distribution (only TROOPS of
@@ -204,8 +203,8 @@ public class AAIDistributeTroopsMethods {
     public static double evaluateConnectedCastles(Graph<Castle> castleGraph, Player player, List<Castle> connectedCastles){
         double points = 0;
 
-        points += connectedCastles.size() * constants.CASTLE_COUNT_MULTIPLIER;
-        points += ownedKingdomCount(connectedCastles) * constants.OWNED_KINGDOM_MULTIPLIER;
+        points += connectedCastles.size() * AAIConstants.current().CASTLE_COUNT_MULTIPLIER;
+        points += ownedKingdomCount(connectedCastles) * AAIConstants.current().OWNED_KINGDOM_MULTIPLIER;
 
         points += evaluateAttackPossibilities(castleGraph, player, connectedCastles);
 
@@ -248,7 +247,7 @@ public class AAIDistributeTroopsMethods {
     public static int evaluateAttackPossibilities(Graph<Castle> castleGraph, Player player, List<Castle> connectedCastles){
         int points = 0;
 
-        points += canUniteSplittedRegions(castleGraph, player, connectedCastles) ? constants.CAN_UNITE_SPLITTED_REGIONS : 0;
+        points += canUniteSplittedRegions(castleGraph, player, connectedCastles) ? AAIConstants.current().CAN_UNITE_SPLITTED_REGIONS : 0;
 
         return points;
     }
@@ -264,7 +263,7 @@ public class AAIDistributeTroopsMethods {
         for(Castle neighbour : AAIMethods.getOtherNeighbours(castleGraph, player, connectedCastles)){
             for(Castle otherNeighbour : AAIMethods.getNeighbours(castleGraph, player, neighbour)){
                 if(!connectedCastlesSet.contains(otherNeighbour)
-                        && AAIMethods.getConnectedCastles(castleGraph, otherNeighbour).size() <= connectedCastles.size()){
+                        && AAIMethods.getRegionIndex(castleGraph).getRegionSize(otherNeighbour) - 1 <= connectedCastles.size()){
                     return true;
                 }
             }
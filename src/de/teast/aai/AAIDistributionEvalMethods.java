@@ -3,6 +3,7 @@ package de.teast.aai;
 import base.Graph;
 import game.GameConstants;
 import game.Player;
+import game.map.ARegionIndex;
 import game.map.Castle;
 import game.map.Kingdom;
 import javafx.util.Pair;
@@ -15,7 +16,6 @@ import java.util.stream.Collectors;
  * @author Alexander Muth
  */
 public class AAIDistributionEvalMethods {
-    public static AAIConstants constants = new AAIConstants();
 
     /**
      * Get the best castles during distribution period
@@ -155,29 +155,29 @@ public class AAIDistributionEvalMethods {
 
             if(!otherCanCaptureKingdom && otherCanCaptureKingdom(player, castle)){
                 otherCanCaptureKingdom = true;
-                points += constants.OTHER_CAN_CAPTURE_KINGDOM;
+                points += AAIConstants.current().OTHER_CAN_CAPTURE_KINGDOM;
             }
             if(!otherHasCastleInKingdom && otherHasCastleInKingdom(player, castle)){
                 otherHasCastleInKingdom = true;
-                points += constants.OTHER_HAS_CASTLES_IN_KINGDOM;
+                points += AAIConstants.current().OTHER_HAS_CASTLES_IN_KINGDOM;
             }
             if(!isFirstCastleInKingdom && isFirstCastleInKingdom(player, castle)){
                 isFirstCastleInKingdom = true;
-                points += constants.FIRST_CASTLE_IN_KINGDOM;
+                points += AAIConstants.current().FIRST_CASTLE_IN_KINGDOM;
             }
             if(!canSplitEnemyRegion && canSplitEnemyRegion(castleGraph, player, castle)){
                 canSplitEnemyRegion = true;
-                points += constants.SPLIT_ENEMY_REGION;
+                points += AAIConstants.current().SPLIT_ENEMY_REGION;
             }
             if(!isConnectedToPlayerCastles && AAIMethods.isConnectedToPlayerCastles(castleGraph, player, castle)){
                 isConnectedToPlayerCastles = true;
-                points += constants.CONNECTED_TO_OWN_CASTLES;
+                points += AAIConstants.current().CONNECTED_TO_OWN_CASTLES;
             }
         }
 
-        points += AAIMethods.getNeighbours(castleGraph, null, castles).size() * constants.FREE_NEIGHBOURS_MULTIPLIER;
+        points += AAIMethods.getNeighbours(castleGraph, null, castles).size() * AAIConstants.current().FREE_NEIGHBOURS_MULTIPLIER;
 
-        points += hasExpandPossibilities(castleGraph, castles) ? constants.EXPAND_POSSIBILITIES : 0;
+        points += hasExpandPossibilities(castleGraph, castles) ? AAIConstants.current().EXPAND_POSSIBILITIES : 0;
 
         return points;
     }
@@ -192,7 +192,7 @@ public class AAIDistributionEvalMethods {
         for(Castle castle : castles){
             nullNeighbourCount += AAIMethods.getNeighbours(castleGraph, null, castle).size();
         }
-        return nullNeighbourCount >= constants.EXPAND_POSSIBILITIES_COUNT;
+        return nullNeighbourCount >= AAIConstants.current().EXPAND_POSSIBILITIES_COUNT;
     }
 
     /**
@@ -209,10 +209,10 @@ public class AAIDistributionEvalMethods {
 
         List<Player> tempPlayers = new ArrayList<>(2);
         tempPlayers.add(player);
-        points += !AAIMethods.hasOtherNeighbours(castleGraph, tempPlayers, castle) ? constants.NO_ENEMY_NEIGHBOUR + constants.SURROUNDED_BY_OWN_CASTLES : 0;
+        points += !AAIMethods.hasOtherNeighbours(castleGraph, tempPlayers, castle) ? AAIConstants.current().NO_ENEMY_NEIGHBOUR + AAIConstants.current().SURROUNDED_BY_OWN_CASTLES : 0;
         if(points <= 0){
             tempPlayers.add(null);
-            points += !AAIMethods.hasOtherNeighbours(castleGraph, tempPlayers, castle) ? constants.NO_ENEMY_NEIGHBOUR : 0;
+            points += !AAIMethods.hasOtherNeighbours(castleGraph, tempPlayers, castle) ? AAIConstants.current().NO_ENEMY_NEIGHBOUR : 0;
         }
         if(castle.getKingdom() != null){
             points += AAIKingdomEvalMethods.evaluateKingdom(castleGraph, castle.getKingdom());
@@ -228,18 +228,16 @@ public class AAIDistributionEvalMethods {
      * @return true if player can split regions of an enemy player
      */
     public static boolean canSplitEnemyRegion(Graph<Castle> castleGraph, Player player, Castle castle){
-        Map<Player, Set<Castle>> playerConnectedMap = new HashMap<>();
-        Set<Castle> passed;
-        List<Castle> connected;
+        ARegionIndex regionIndex = AAIMethods.getRegionIndex(castleGraph);
+        Map<Player, Castle> playerRegionMap = new HashMap<>(); // a castle of the last seen region of every player
+        Castle passed;
         for(Castle neighbour : AAIMethods.getOtherNeighbours(castleGraph, player, castle)){
             if(neighbour.getOwner() != null){
-                passed = playerConnectedMap.get(neighbour.getOwner());
-                if(passed != null && !passed.contains(neighbour) && ((Castle)passed.toArray()[0]).getOwner() == neighbour.getOwner()) {
+                passed = playerRegionMap.get(neighbour.getOwner());
+                if(passed != null && !regionIndex.isSameRegion(passed, neighbour)) {
                     return true;
                 } else {
-                    connected = AAIMethods.getConnectedCastles(castleGraph, neighbour);
-                    connected.add(neighbour);
-                    playerConnectedMap.put(neighbour.getOwner(), new HashSet<>(connected));
+                    playerRegionMap.put(neighbour.getOwner(), neighbour);
                 }
             }
         }
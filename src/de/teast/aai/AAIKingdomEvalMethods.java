@@ -11,7 +11,6 @@ import java.util.List;
  * @author Alexander Muth
  */
 public class AAIKingdomEvalMethods {
-    public static AAIConstants constants = new AAIConstants();
 
     /**
      * Evaluates a value for passed kingdom dependent on some factors
@@ -24,8 +23,8 @@ public class AAIKingdomEvalMethods {
         List<Kingdom> kingdoms = AAIMethods.getAllKingdoms(castles);
         int points = 0;
 
-        points += isSmallKingdom(kingdoms, kingdom) ? constants.SMALL_KINGDOM : 0;
-        points += hasFewEdgesToOtherKingdoms(castleGraph, kingdoms, kingdom) ? constants.HAS_FEW_EDGES_TO_OTHER_KINGDOMS : 0;
+        points += isSmallKingdom(kingdoms, kingdom) ? AAIConstants.current().SMALL_KINGDOM : 0;
+        points += hasFewEdgesToOtherKingdoms(castleGraph, kingdoms, kingdom) ? AAIConstants.current().HAS_FEW_EDGES_TO_OTHER_KINGDOMS : 0;
 
         return points;
     }
@@ -4,7 +4,9 @@ import base.Edge;
 import base.Graph;
 import base.Node;
 import game.Player;
+import game.map.ARegionIndex;
 import game.map.Castle;
+import game.map.GameMap;
 import game.map.Kingdom;
 
 import java.util.*;
@@ -15,6 +17,30 @@ import java.util.function.Predicate;
  * @author Alexander Muth
  */
 public class AAIMethods {
+    // the map of the AI, which is acting in this thread (see ABasicAI), whose region index is used
+    private static final ThreadLocal<GameMap> currentMap = new ThreadLocal<>();
+
+    /**
+     * Sets the map, whose region index is used by the methods of {@link de.teast.aai} in the current thread
+     * @param gameMap the new map (may be null)
+     * @return the previous map of the current thread
+     */
+    public static GameMap setCurrentMap(GameMap gameMap){
+        GameMap previous = currentMap.get();
+        currentMap.set(gameMap);
+        return previous;
+    }
+
+    /**
+     * @param castleGraph the current graph
+     * @return the region index of the current map (see {@link #setCurrentMap(GameMap)}), if castleGraph is its graph,
+     * otherwise a snapshot of the regions of castleGraph
+     */
+    public static ARegionIndex getRegionIndex(Graph<Castle> castleGraph){
+        GameMap gameMap = currentMap.get();
+        return gameMap != null && gameMap.getGraph() == castleGraph ? gameMap.getRegionIndex() : ARegionIndex.snapshot(castleGraph);
+    }
+
     /**
      * Collects a list with all possible pairs. Only adjacent castles could be pairs
      * @param castleGraph The graph containing all edges and nodes
@@ -276,18 +302,7 @@ public class AAIMethods {
      * are contained in castles
      */
     public static List<List<Castle>> getConnectedCastles(Graph<Castle> castleGraph, List<Castle> castles, Player player){
-        List<Castle> playerCastles = player.getCastles(castleGraph.getAllValues());
-        Set<Castle> passed = new HashSet<>();
-        List<Castle> connected;
-        List<List<Castle>> returnList = new LinkedList<>();
-        for(Castle castle : playerCastles){
-            if(!passed.contains(castle)){
-                connected = getConnectedCastles(castleGraph, castle);
-                connected.add(castle);
-                passed.addAll(connected);
-                returnList.add(connected);
-            }
-        }
+        List<List<Castle>> returnList = getRegionIndex(castleGraph).getRegions(player);
         // Filter all castle's, which are not in castles
         if(castleGraph.getNodes().size() != castles.size()) { // filter only if not all nodes are allowed
             Set<Castle> usable = new HashSet<>(castles);
@@ -309,29 +324,11 @@ public class AAIMethods {
      * @return a list of castles, which are reachable from castle and belongs to the same player
      * as the passed {@code castle} (The list is empty if there are no connected castles and {@code castle} is not
      * contained in the returned list)
+     * @see ARegionIndex#getRegion(Castle)
      */
     public static List<Castle> getConnectedCastles(Graph<Castle> castleGraph, Castle castle){
-        Node<Castle> node = castleGraph.getNode(castle);
-        return getConnectedCastlesHelper(castleGraph, node, new HashSet<>(Collections.singletonList(node)));
-    }
-    /**
-     * helper for {@link AAIMethods#getConnectedCastles(Graph, Castle)}
-     * @param castleGraph graph to get edges from
-     * @param node current node
-     * @param passed passed nodes
-     * @return a list with connected castles (empty list if there are none)
-     */
-    private static List<Castle> getConnectedCastlesHelper(Graph<Castle> castleGraph, Node<Castle> node, HashSet<Node<Castle>> passed){
-        List<Castle> returnList = new LinkedList<>();
-        Node<Castle> otherNode;
-        for(Edge<Castle> edge : castleGraph.getEdges(node)){
-            otherNode = edge.getOtherNode(node);
-            if(!passed.contains(otherNode) && otherNode.getValue().getOwner() == node.getValue().getOwner()){
-                passed.add(otherNode);
-                returnList.add(otherNode.getValue());
-                returnList.addAll(getConnectedCastlesHelper(castleGraph, otherNode, passed));
-            }
-        }
+        List<Castle> returnList = getRegionIndex(castleGraph).getRegion(castle);
+        returnList.remove(castle);
         return returnList;
     }
 
@@ -416,15 +413,20 @@ public class AAIMethods {
      * @return the amount of TROOPS, which can attack the region of {@code connectedCastles}
      */
     public static int getNeighboursAttackTroopCount(Graph<Castle> castleGraph, Player player, List<Castle> connectedCastles){
+        ARegionIndex regionIndex = getRegionIndex(castleGraph);
         int sum = 0;
-        Set<Castle> passed = new HashSet<>(connectedCastles);
-        List<Castle> connected;
+        List<Castle> passed = new ArrayList<>(); // one castle of every counted region
         for(Castle neighbour : getOtherNeighbours(castleGraph, player, connectedCastles)){
-            if(!passed.contains(neighbour)){
-                connected = getConnectedCastles(castleGraph, neighbour);
-                connected.add(neighbour);
-                passed.addAll(connected);
-                sum += getAttackTroopCount(connected);
+            boolean counted = false;
+            for(Castle castle : passed){
+                if(regionIndex.isSameRegion(castle, neighbour)){
+                    counted = true;
+                    break;
+                }
+            }
+            if(!counted){
+                passed.add(neighbour);
+                sum += regionIndex.getRegionTroopSum(neighbour) - regionIndex.getRegionSize(neighbour);
             }
         }
         return sum;
@@ -3,6 +3,7 @@ package de.teast.aai;
 import base.Graph;
 import de.teast.autils.ATriplet;
 import game.Player;
+import game.map.ARegionIndex;
 import game.map.Castle;
 import game.map.Kingdom;
 import javafx.util.Pair;
@@ -14,7 +15,7 @@ import java.util.*;
  * @author Alexander Muth
  */
 public class AAITargetEvalMethods {
-    public static AAIConstants constants = new AAIConstants();
+    private static final double LIKELY_WIN_PROBABILITY = 0.6; // targets with a lower evaluation are attacked, if the attack is likely won
 
     /**
      * This method searches all targets for {@code player}, evaluates them and sorts them after their priority and
@@ -30,8 +31,9 @@ public class AAITargetEvalMethods {
 
         List<Pair<List<Castle>, Castle>> returnList = new LinkedList<>();
         for(ATriplet<List<Castle>, Castle, Double> triplet : evalList){
-            if(triplet.getThird() >= constants.MIN_ATTACK_VALUE
-                    || (AAIMethods.getAttackTroopCount(triplet.getFirst()) > triplet.getSecond().getTroopCount() * 1.3)){
+            if(triplet.getThird() >= AAIConstants.current().MIN_ATTACK_VALUE
+                    || AAIBattleOdds.getWinProbability(AAIMethods.getAttackTroopCount(triplet.getFirst()),
+                            triplet.getSecond().getTroopCount(), false) >= LIKELY_WIN_PROBABILITY){
                 returnList.add(new Pair<>(triplet.getFirst(), triplet.getSecond()));
             }else{
                 break;
@@ -93,17 +95,17 @@ public class AAITargetEvalMethods {
 
             temp = (AAIMethods.getOtherNeighbours(castleGraph, player, newRegion).size()
                     - AAIMethods.getOtherNeighbours(castleGraph, player, attackerRegion).size())
-                    * constants.EDGE_DIFFERENCE_MULTIPLIER;
+                    * AAIConstants.current().EDGE_DIFFERENCE_MULTIPLIER;
             points += temp;
 
             temp = (AAIMethods.getNeighboursAttackTroopCount(castleGraph, player, newRegion)
                     - AAIMethods.getNeighboursAttackTroopCount(castleGraph, player, attackerRegion))
-                    * constants.NEIGHBOUR_TROOP_DIFFERENCE_MULTIPLIER;
+                    * AAIConstants.current().NEIGHBOUR_TROOP_DIFFERENCE_MULTIPLIER;
             points += temp;
 
             temp = (castle.getTroopCount()
                     - AAIMethods.getAttackTroopCount(attackerRegion))
-                    * constants.TARGET_TROOP_DIFFERNECE_MULTIPLIER;
+                    * AAIConstants.current().TARGET_TROOP_DIFFERNECE_MULTIPLIER;
             points += temp;
 
             returnList.add(new Pair<>(castle, pair.getValue() - points));
@@ -136,13 +138,13 @@ public class AAITargetEvalMethods {
     public static int evaluateCastle(Graph<Castle> castleGraph, Player player, Castle castle){
         int points = 0;
 
-        points += canEliminateEnemyPlayer(castleGraph, castle) ? constants.OPPORTUNITY_ELEMINATE_PLAYER : 0;
-        points += belongsBigThreat(castleGraph, player, castle) ? constants.BELONGS_BIG_THREAT : 0;
-        points += hasFewNeighbours(castleGraph, player, castle) ? constants.HAS_FEW_NEIGHBOURS : 0;
-        points += canUniteSplittedRegions(castleGraph, player, castle) ? constants.UNITE_SPLITTED_REGIONS : 0;
+        points += canEliminateEnemyPlayer(castleGraph, castle) ? AAIConstants.current().OPPORTUNITY_ELEMINATE_PLAYER : 0;
+        points += belongsBigThreat(castleGraph, player, castle) ? AAIConstants.current().BELONGS_BIG_THREAT : 0;
+        points += hasFewNeighbours(castleGraph, player, castle) ? AAIConstants.current().HAS_FEW_NEIGHBOURS : 0;
+        points += canUniteSplittedRegions(castleGraph, player, castle) ? AAIConstants.current().UNITE_SPLITTED_REGIONS : 0;
         if(castle.getKingdom() != null) {
-            points += isCloseToCaptureKingdom(player, castle.getKingdom()) ? constants.CLOSE_TO_CAPTURE_KINGDOM : 0;
-            points += isOwnedByOnePlayer(castle.getKingdom()) ? constants.BREAK_UP_KINGDOM : 0;
+            points += isCloseToCaptureKingdom(player, castle.getKingdom()) ? AAIConstants.current().CLOSE_TO_CAPTURE_KINGDOM : 0;
+            points += isOwnedByOnePlayer(castle.getKingdom()) ? AAIConstants.current().BREAK_UP_KINGDOM : 0;
         }
 
         return points;
@@ -155,13 +157,13 @@ public class AAITargetEvalMethods {
      * @return if 2 regions could get united by an attack
      */
     public static boolean canUniteSplittedRegions(Graph<Castle> castleGraph, Player player, Castle castle){
-        Set<Castle> passed = new HashSet<>();
+        ARegionIndex regionIndex = AAIMethods.getRegionIndex(castleGraph);
+        Castle first = null;
         for(Castle neighbour : AAIMethods.getNeighbours(castleGraph, player, castle)){
-            if(!passed.isEmpty() && !passed.contains(neighbour)) {
+            if(first != null && !regionIndex.isSameRegion(first, neighbour)) {
                 return true;
-            } else {
-                passed.addAll(AAIMethods.getConnectedCastles(castleGraph, neighbour));
-                passed.add(neighbour);
+            } else if(first == null) {
+                first = neighbour;
             }
         }
         return false;
@@ -197,9 +199,9 @@ public class AAITargetEvalMethods {
 
         double points = 0;
 
-        points += (enemyKingdomCount - playerKingdomCount) * constants.BIG_THREAT_KINGDOM_MULTIPLIER;
-        points += (enemyCastles.size() - playerCastles.size()) * constants.BIG_THREAT_CASTLE_MULTIPLIER;
-        points += (enemyTroopCount - playerTroopCount) * constants.BIG_THREAT_TROOP_MULTIPLIER;
+        points += (enemyKingdomCount - playerKingdomCount) * AAIConstants.current().BIG_THREAT_KINGDOM_MULTIPLIER;
+        points += (enemyCastles.size() - playerCastles.size()) * AAIConstants.current().BIG_THREAT_CASTLE_MULTIPLIER;
+        points += (enemyTroopCount - playerTroopCount) * AAIConstants.current().BIG_THREAT_TROOP_MULTIPLIER;
 
         return points > 0;
     }
@@ -245,6 +247,6 @@ public class AAITargetEvalMethods {
      * @return if the passed {@code castle} has few enemy neighbours
      */
     public static boolean hasFewNeighbours(Graph<Castle> castleGraph, Player player, Castle castle){
-        return AAIMethods.getOtherNeighbours(castleGraph, player, castle).size() <= constants.FEW_NEIGHBOUR_COUNT;
+        return AAIMethods.getOtherNeighbours(castleGraph, player, castle).size() <= AAIConstants.current().FEW_NEIGHBOUR_COUNT;
     }
 }
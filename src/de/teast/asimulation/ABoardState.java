@@ -0,0 +1,350 @@
+package de.teast.asimulation;
+
+import game.Game;
+import game.GameConstants;
+import game.Player;
+import game.map.Castle;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A compact copy of the mutable part of a board: the owner and troop count of every castle and the remaining troops of
+ * every player, stored in primitive arrays indexed by the ids of an {@link ABoardTopology}. It follows the rules of
+ * {@link Game#addTroops}, {@link Game#moveTroops}, {@link Game#doAttack} and the reinforcements of a conquer game, so
+ * a search can play many moves without touching the real castles.
+ *
+ * A {@link #fork()} shares the arrays until one of the states is changed (copy on write), and every change is written
+ * to a journal, so a search can return to a {@link #mark()} with {@link #undo(int)} instead of copying the state.
+ * @author Alexander Muth
+ */
+public class ABoardState {
+    public static final int NO_OWNER = -1;
+
+    private static final int OWNER = 0, TROOPS = 1, RESERVE = 2; // the kinds of journal entries
+
+    private final ABoardTopology topology;
+    private int[] owners, troops, reserves, castleCounts;
+    private boolean shared;
+    private int[] journal = new int[48]; // (kind, id, old value) of every change
+    private int journalSize;
+
+    /**
+     * Creates a state with the current owners and troops of the castles and the remaining troops of the players
+     * @param topology the topology of the map
+     */
+    public ABoardState(ABoardTopology topology){
+        this.topology = topology;
+        int castleCount = topology.getCastleCount(), playerCount = topology.getPlayerCount();
+        owners = new int[castleCount];
+        troops = new int[castleCount];
+        reserves = new int[playerCount];
+        castleCounts = new int[playerCount];
+        for(int i = 0; i < castleCount; i++){
+            Castle castle = topology.getCastle(i);
+            owners[i] = topology.getPlayerId(castle.getOwner());
+            troops[i] = castle.getTroopCount();
+            if(owners[i] != NO_OWNER)
+                castleCounts[owners[i]]++;
+        }
+        for(int i = 0; i < playerCount; i++)
+            reserves[i] = topology.getPlayer(i).getRemainingTroops();
+    }
+
+    private ABoardState(ABoardState state){
+        this.topology = state.topology;
+        this.owners = state.owners;
+        this.troops = state.troops;
+        this.reserves = state.reserves;
+        this.castleCounts = state.castleCounts;
+        this.shared = true;
+    }
+
+    /**
+     * @param game the game
+     * @return the current state of the game on a new topology
+     */
+    public static ABoardState of(Game game){
+        return new ABoardState(new ABoardTopology(game.getMap(), game.getPlayers()));
+    }
+
+    /**
+     * @return a state equal to this one, which shares the arrays until one of both is changed. The journal of the
+     * new state is empty.
+     */
+    public ABoardState fork(){
+        shared = true;
+        return new ABoardState(this);
+    }
+
+    public ABoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * @return the player id of the owner or {@link #NO_OWNER}
+     */
+    public int getOwner(int castle) {
+        return owners[castle];
+    }
+
+    public int getTroops(int castle) {
+        return troops[castle];
+    }
+
+    /**
+     * @return the troops, which the player can still distribute
+     */
+    public int getReserve(int player) {
+        return reserves[player];
+    }
+
+    public int getCastleCount(int player) {
+        return castleCounts[player];
+    }
+
+    /**
+     * @return if the player owns every castle of the kingdom
+     */
+    public boolean ownsKingdom(int player, int kingdom) {
+        int[] castles = topology.getKingdomCastles(kingdom);
+        if(castles.length == 0)
+            return false;
+        for(int castle : castles){
+            if(owners[castle] != player)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the troops, which the player gets at the beginning of a turn after the first round
+     * @see Game#nextTurn()
+     */
+    public int getReinforcements(int player) {
+        int reinforcements = Math.max(3, castleCounts[player] / GameConstants.TROOPS_PER_ROUND_DIVISOR);
+        for(int kingdom = 0; kingdom < topology.getKingdomCount(); kingdom++){
+            if(ownsKingdom(player, kingdom))
+                reinforcements++;
+        }
+        return reinforcements;
+    }
+
+    /**
+     * @return the count of players, which own at least one castle
+     */
+    public int getAlivePlayerCount() {
+        int count = 0;
+        for(int castleCount : castleCounts){
+            if(castleCount > 0)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the only player owning castles, if all castles are owned, otherwise -1
+     */
+    public int getWinner() {
+        int winner = -1;
+        for(int player = 0; player < castleCounts.length; player++){
+            if(castleCounts[player] == owners.length)
+                winner = player;
+        }
+        return winner;
+    }
+
+    // moves
+
+    /**
+     * Adds the reinforcements of a new turn to the remaining troops of the player
+     */
+    public void startTurn(int player) {
+        setReserve(player, reserves[player] + getReinforcements(player));
+    }
+
+    /**
+     * Like {@link Game#addTroops(Player, Castle, int)}
+     * @return the count of added troops
+     */
+    public int addTroops(int player, int castle, int count) {
+        if(count < 1 || owners[castle] != player)
+            return 0;
+        count = Math.min(count, reserves[player]);
+        setTroops(castle, troops[castle] + count);
+        setReserve(player, reserves[player] - count);
+        return count;
+    }
+
+    /**
+     * Like {@link Game#moveTroops(Castle, Castle, int)}, a castle without owner is taken with one of the moved troops
+     * @return if the troops were moved
+     */
+    public boolean moveTroops(int source, int destination, int count) {
+        int player = owners[source];
+        if(count >= troops[source] || count < 1 || player == NO_OWNER
+                || (owners[destination] != NO_OWNER && owners[destination] != player))
+            return false;
+        if(owners[destination] == NO_OWNER){
+            setOwner(destination, player);
+            setTroops(destination, 1);
+            setTroops(source, troops[source] - 1);
+            count--;
+        }
+        setTroops(source, troops[source] - count);
+        setTroops(destination, troops[destination] + count);
+        return true;
+    }
+
+    /**
+     * Applies the outcome of one or more rolls of an attack like {@link Game#doAttack}: the losses are removed and if
+     * the defender has no troops left, the attacker conquers the castle with one troop.
+     * @param attackerLosses the troops lost by the attacking castle
+     * @param defenderLosses the troops lost by the defending castle
+     * @return if the castle was conquered
+     */
+    public boolean applyAttack(int source, int target, int attackerLosses, int defenderLosses) {
+        setTroops(source, Math.max(0, troops[source] - attackerLosses));
+        setTroops(target, Math.max(0, troops[target] - defenderLosses));
+        if(troops[target] > 0)
+            return false;
+        setTroops(source, troops[source] - 1);
+        setOwner(target, owners[source]);
+        setTroops(target, 1);
+        return true;
+    }
+
+    /**
+     * Rolls a complete attack like {@link game.AAttack}: the attacker rolls up to 3 dice (doubled with double dice),
+     * the defender up to 2, until the castle is conquered or the attacker has used the troop count.
+     * @param troopCount the count of troops to attack with
+     * @param doubleDice if the attacker rolls twice as many dice
+     * @param random the dice
+     * @return if the castle was conquered
+     */
+    public boolean attack(int source, int target, int troopCount, boolean doubleDice, Random random) {
+        if(owners[source] == owners[target] || troopCount < 1)
+            return false;
+        int attackUntil = Math.max(1, troops[source] - troopCount);
+        while(troops[source] > attackUntil){
+            int attackerDice = Math.min(troopCount, Math.min(troops[source] - 1, 3)) * (doubleDice ? 2 : 1);
+            int defenderDice = Math.min(2, troops[target]);
+            int attacker1 = 0, attacker2 = 0, defender1 = 0, defender2 = 0; // the two highest dice of both sides
+            for(int i = 0; i < attackerDice; i++){
+                int roll = random.nextInt(6) + 1;
+                if(roll > attacker1){
+                    attacker2 = attacker1;
+                    attacker1 = roll;
+                }else if(roll > attacker2){
+                    attacker2 = roll;
+                }
+            }
+            for(int i = 0; i < defenderDice; i++){
+                int roll = random.nextInt(6) + 1;
+                if(roll > defender1){
+                    defender2 = defender1;
+                    defender1 = roll;
+                }else if(roll > defender2){
+                    defender2 = roll;
+                }
+            }
+
+            int comparisons = Math.min(attackerDice, defenderDice), attackerLosses = 0, defenderLosses = 0;
+            for(int i = 0; i < comparisons; i++){
+                if((i == 0 ? attacker1 : attacker2) > (i == 0 ? defender1 : defender2)){
+                    defenderLosses++;
+                    if(troops[target] - defenderLosses == 0)
+                        break;
+                }else{
+                    attackerLosses++;
+                }
+            }
+            if(applyAttack(source, target, attackerLosses, defenderLosses))
+                return true;
+        }
+        return false;
+    }
+
+    // journal
+
+    /**
+     * @return the current position in the journal, to which {@link #undo(int)} can return
+     */
+    public int mark() {
+        return journalSize;
+    }
+
+    /**
+     * Reverts all changes after the mark
+     * @param mark a position returned by {@link #mark()}
+     */
+    public void undo(int mark) {
+        if(journalSize > mark)
+            ensureOwnArrays();
+        while(journalSize > mark){
+            journalSize -= 3;
+            int kind = journal[journalSize], id = journal[journalSize + 1], oldValue = journal[journalSize + 2];
+            if(kind == OWNER){
+                if(owners[id] != NO_OWNER)
+                    castleCounts[owners[id]]--;
+                if(oldValue != NO_OWNER)
+                    castleCounts[oldValue]++;
+                owners[id] = oldValue;
+            }else if(kind == TROOPS){
+                troops[id] = oldValue;
+            }else{
+                reserves[id] = oldValue;
+            }
+        }
+    }
+
+    /**
+     * Drops the journal, the current state can't be undone anymore
+     */
+    public void clearJournal() {
+        journalSize = 0;
+    }
+
+    private void setOwner(int castle, int player) {
+        ensureOwnArrays();
+        record(OWNER, castle, owners[castle]);
+        if(owners[castle] != NO_OWNER)
+            castleCounts[owners[castle]]--;
+        if(player != NO_OWNER)
+            castleCounts[player]++;
+        owners[castle] = player;
+    }
+
+    private void setTroops(int castle, int count) {
+        ensureOwnArrays();
+        record(TROOPS, castle, troops[castle]);
+        troops[castle] = count;
+    }
+
+    private void setReserve(int player, int count) {
+        ensureOwnArrays();
+        record(RESERVE, player, reserves[player]);
+        reserves[player] = count;
+    }
+
+    private void record(int kind, int id, int oldValue) {
+        if(journalSize + 3 > journal.length)
+            journal = Arrays.copyOf(journal, journal.length * 2);
+        journal[journalSize++] = kind;
+        journal[journalSize++] = id;
+        journal[journalSize++] = oldValue;
+    }
+
+    /**
+     * Copies the arrays, if they are shared with another state
+     */
+    private void ensureOwnArrays() {
+        if(!shared)
+            return;
+        owners = owners.clone();
+        troops = troops.clone();
+        reserves = reserves.clone();
+        castleCounts = castleCounts.clone();
+        shared = false;
+    }
+}
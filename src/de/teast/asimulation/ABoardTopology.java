@@ -0,0 +1,163 @@
+package de.teast.asimulation;
+
+import base.Edge;
+import base.Graph;
+import base.Node;
+import game.Player;
+import game.map.Castle;
+import game.map.GameMap;
+import game.map.Kingdom;
+
+import java.util.*;
+
+/**
+ * The immutable part of a board: the castles, their neighbours, the kingdoms and the players, all numbered densely.
+ * The castle ids are the node indices of the castle graph ({@link Node#getIndex()}), the player ids are the indices in
+ * the player list. Every {@link ABoardState} of a map shares one topology.
+ * @author Alexander Muth
+ */
+public class ABoardTopology {
+    private final Castle[] castles;
+    private final Map<Castle, Integer> castleIds;
+    private final int[] neighbourStart, neighbours; // neighbours of castle i: neighbours[neighbourStart[i]] until neighbours[neighbourStart[i + 1]]
+    private final int[] kingdomOf; // kingdom id of every castle or -1
+    private final int[][] kingdomCastles;
+    private final Player[] players;
+    private final Map<Player, Integer> playerIds;
+
+    /**
+     * @param gameMap the map
+     * @param players the players, their order decides the player ids
+     */
+    public ABoardTopology(GameMap gameMap, List<Player> players){
+        Graph<Castle> graph = gameMap.getGraph();
+        List<Node<Castle>> nodes = graph.getNodes();
+        int castleCount = nodes.size();
+        castles = new Castle[castleCount];
+        castleIds = new HashMap<>(castleCount * 2);
+        for(Node<Castle> node : nodes){
+            castles[node.getIndex()] = node.getValue();
+            castleIds.putIfAbsent(node.getValue(), node.getIndex());
+        }
+
+        neighbourStart = new int[castleCount + 1];
+        for(Edge<Castle> edge : graph.getEdges()){
+            if(edge.getNodeA() != edge.getNodeB()){
+                neighbourStart[edge.getNodeA().getIndex() + 1]++;
+                neighbourStart[edge.getNodeB().getIndex() + 1]++;
+            }
+        }
+        for(int i = 0; i < castleCount; i++)
+            neighbourStart[i + 1] += neighbourStart[i];
+        neighbours = new int[neighbourStart[castleCount]];
+        int[] next = Arrays.copyOf(neighbourStart, castleCount);
+        for(Edge<Castle> edge : graph.getEdges()){
+            int a = edge.getNodeA().getIndex(), b = edge.getNodeB().getIndex();
+            if(a != b){
+                neighbours[next[a]++] = b;
+                neighbours[next[b]++] = a;
+            }
+        }
+
+        kingdomOf = new int[castleCount];
+        Arrays.fill(kingdomOf, -1);
+        List<Kingdom> kingdoms = gameMap.getKingdoms();
+        kingdomCastles = new int[kingdoms.size()][];
+        for(int k = 0; k < kingdoms.size(); k++){
+            List<Castle> castleList = kingdoms.get(k).getCastles();
+            int[] ids = new int[castleList.size()];
+            int count = 0;
+            for(Castle castle : castleList){
+                Integer id = castleIds.get(castle);
+                if(id != null){
+                    ids[count++] = id;
+                    kingdomOf[id] = k;
+                }
+            }
+            kingdomCastles[k] = Arrays.copyOf(ids, count);
+        }
+
+        this.players = players.toArray(new Player[0]);
+        playerIds = new HashMap<>();
+        for(int i = 0; i < this.players.length; i++)
+            playerIds.put(this.players[i], i);
+    }
+
+    public int getCastleCount() {
+        return castles.length;
+    }
+
+    public Castle getCastle(int castle) {
+        return castles[castle];
+    }
+
+    /**
+     * @param castle the castle
+     * @return the id of the castle or -1 if it isn't part of the map
+     */
+    public int getCastleId(Castle castle) {
+        Integer id = castleIds.get(castle);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the first index of the neighbours of the castle in {@link #getNeighbour(int)}
+     */
+    public int getNeighbourStart(int castle) {
+        return neighbourStart[castle];
+    }
+
+    /**
+     * @return the index after the last neighbour of the castle in {@link #getNeighbour(int)}
+     */
+    public int getNeighbourEnd(int castle) {
+        return neighbourStart[castle + 1];
+    }
+
+    /**
+     * @param index an index between {@link #getNeighbourStart(int)} and {@link #getNeighbourEnd(int)} of a castle
+     * @return the id of the neighbour castle
+     */
+    public int getNeighbour(int index) {
+        return neighbours[index];
+    }
+
+    public int getDegree(int castle) {
+        return neighbourStart[castle + 1] - neighbourStart[castle];
+    }
+
+    /**
+     * @return the kingdom id of the castle or -1 if the castle doesn't belong to a kingdom
+     */
+    public int getKingdom(int castle) {
+        return kingdomOf[castle];
+    }
+
+    public int getKingdomCount() {
+        return kingdomCastles.length;
+    }
+
+    /**
+     * @return the castle ids of the kingdom, the array must not be changed
+     */
+    public int[] getKingdomCastles(int kingdom) {
+        return kingdomCastles[kingdom];
+    }
+
+    public int getPlayerCount() {
+        return players.length;
+    }
+
+    public Player getPlayer(int player) {
+        return players[player];
+    }
+
+    /**
+     * @param player the player or null
+     * @return the id of the player or -1 for null or a player which isn't part of the board
+     */
+    public int getPlayerId(Player player) {
+        Integer id = player == null ? null : playerIds.get(player);
+        return id == null ? -1 : id;
+    }
+}
@@ -0,0 +1,295 @@
+package de.teast.asimulation;
+
+import de.teast.aai.AAIConstants;
+import de.teast.autils.ARandomSource;
+import game.Goal;
+import game.goals.ConquerGoal;
+import game.map.MapSize;
+import game.players.ABasicAI;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Genetic algorithm over the value vector of {@link AAIConstants} ({@link AAIConstants#save()}), which replaces the
+ * random restarts of {@link gui.views.GameViewTraining}. Every generation is evaluated as one {@link ATournament}, so
+ * the candidates of a generation play in parallel and with the same seeds. The best candidates survive unchanged and
+ * are evaluated again with new seeds, the rest of the population is bred from tournament selected parents with
+ * blend crossover and gaussian mutation.
+ *
+ * After every generation the population is written to a checkpoint file, from which a restarted run continues.
+ * Usage: {@code AGeneticOptimizer [generations] [population] [gamesPerCandidate] [threads] [checkpoint]}
+ * @author Alexander Muth
+ */
+public class AGeneticOptimizer {
+    public static final double MIN_VALUE = 0, MAX_VALUE = 10; // the range of AAIConstants#generateRandom()
+
+    private static final int SELECTION_SIZE = 3;
+
+    private final Supplier<Goal> goalSupplier;
+    private final Class<?>[] opponentTypes;
+    private final int populationSize, gamesPerCandidate;
+    private final Random random;
+    private MapSize mapSize = MapSize.SMALL;
+    private double[] opponentConstants;
+    private int eliteCount;
+    private double mutationRate = 0.15, mutationStrength = 1.5;
+    private String checkpointFile;
+
+    private List<double[]> population;
+    private int generation;
+    private double[] best;
+    private double bestWinRate = -1;
+
+    /**
+     * @param populationSize the count of candidates of every generation
+     * @param gamesPerCandidate the count of games every candidate plays per generation
+     * @param seed the seed for the population and the games
+     * @param goalSupplier creates a new goal for every game
+     * @param opponentTypes the AI classes of the opponents
+     */
+    public AGeneticOptimizer(int populationSize, int gamesPerCandidate, long seed, Supplier<Goal> goalSupplier, Class<?>... opponentTypes){
+        if(populationSize < 2)
+            throw new IllegalArgumentException("population too small: " + populationSize);
+        this.populationSize = populationSize;
+        this.gamesPerCandidate = gamesPerCandidate;
+        this.random = new ARandomSource(seed).create(ARandomSource.Stream.CONSTANTS);
+        this.goalSupplier = goalSupplier;
+        this.opponentTypes = opponentTypes;
+        this.eliteCount = Math.max(1, populationSize / 8);
+    }
+
+    public void setMapSize(MapSize mapSize) {
+        this.mapSize = mapSize;
+    }
+
+    /**
+     * @see ATournament#setOpponentConstants(double[])
+     */
+    public void setOpponentConstants(double[] opponentConstants) {
+        this.opponentConstants = opponentConstants;
+    }
+
+    /**
+     * @param eliteCount the count of best candidates, which survive a generation unchanged
+     */
+    public void setEliteCount(int eliteCount) {
+        this.eliteCount = Math.max(0, Math.min(eliteCount, populationSize));
+    }
+
+    /**
+     * @param mutationRate the probability, that a value of a child is mutated
+     * @param mutationStrength the standard deviation of a mutation
+     */
+    public void setMutation(double mutationRate, double mutationStrength) {
+        this.mutationRate = mutationRate;
+        this.mutationStrength = mutationStrength;
+    }
+
+    /**
+     * @param checkpointFile the file the population is written to after every generation or null for no checkpoints
+     */
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the values of the candidate with the best win rate so far or null if no generation was evaluated
+     */
+    public double[] getBest() {
+        return best;
+    }
+
+    public double getBestWinRate() {
+        return bestWinRate;
+    }
+
+    /**
+     * Starts with the given candidates, the population is filled up with random candidates.
+     * @param initial the initial candidates, e.g. the hardcoded values of {@link AAIConstants#AAIConstants(MapSize)}
+     */
+    public void initialize(List<double[]> initial){
+        population = new ArrayList<>(populationSize);
+        for(double[] values : initial){
+            if(population.size() < populationSize)
+                population.add(values.clone());
+        }
+        int valueCount = new AAIConstants().save().length;
+        while(population.size() < populationSize){
+            double[] values = new double[valueCount];
+            for(int i = 0; i < valueCount; i++)
+                values[i] = MIN_VALUE + random.nextDouble() * (MAX_VALUE - MIN_VALUE);
+            population.add(values);
+        }
+        generation = 0;
+    }
+
+    /**
+     * Evaluates and breeds generations, starting at the checkpoint if there is one
+     * @param generations the count of generations to evaluate, including the generations of a loaded checkpoint
+     * @param pool the pool to play the games in
+     * @throws IOException if the checkpoint couldn't be read or written
+     */
+    public void run(int generations, ForkJoinPool pool) throws IOException {
+        if(checkpointFile != null && new File(checkpointFile).exists())
+            readCheckpoint(checkpointFile);
+        else if(population == null)
+            initialize(new ArrayList<>());
+
+        while(generation < generations){
+            List<ATournament.Standing> standings = evaluate(pool);
+            ATournament.Standing generationBest = standings.get(0);
+            if(generationBest.getWinRate() > bestWinRate){
+                bestWinRate = generationBest.getWinRate();
+                best = generationBest.values.clone();
+            }
+            double meanWinRate = standings.stream().mapToDouble(ATournament.Standing::getWinRate).average().orElse(0);
+            System.out.printf(Locale.ROOT, "generation %d: best %.3f, mean %.3f, best so far %.3f%n",
+                    generation, generationBest.getWinRate(), meanWinRate, bestWinRate);
+
+            population = breed(standings);
+            generation++;
+            if(checkpointFile != null)
+                writeCheckpoint(checkpointFile);
+        }
+    }
+
+    private List<ATournament.Standing> evaluate(ForkJoinPool pool){
+        ATournament tournament = new ATournament(population, gamesPerCandidate, goalSupplier, opponentTypes);
+        tournament.getSimulation().setMapSize(mapSize);
+        tournament.setOpponentConstants(opponentConstants);
+        tournament.setSeed(random.nextLong()); // new seeds every generation, so the elite doesn't overfit its games
+        return tournament.run(pool);
+    }
+
+    /**
+     * @param standings the evaluated population, sorted by win rate
+     * @return the next generation
+     */
+    private List<double[]> breed(List<ATournament.Standing> standings){
+        List<double[]> next = new ArrayList<>(populationSize);
+        for(int i = 0; i < eliteCount; i++)
+            next.add(standings.get(i).values.clone());
+        while(next.size() < populationSize){
+            double[] first = select(standings), second = select(standings);
+            double[] child = new double[first.length];
+            for(int i = 0; i < child.length; i++){
+                double weight = random.nextDouble();
+                child[i] = weight * first[i] + (1 - weight) * second[i];
+                if(random.nextDouble() < mutationRate)
+                    child[i] += random.nextGaussian() * mutationStrength;
+                child[i] = Math.max(MIN_VALUE, Math.min(MAX_VALUE, child[i]));
+            }
+            next.add(child);
+        }
+        return next;
+    }
+
+    /**
+     * @return the best of {@link #SELECTION_SIZE} random candidates
+     */
+    private double[] select(List<ATournament.Standing> standings){
+        ATournament.Standing selected = null;
+        for(int i = 0; i < SELECTION_SIZE; i++){
+            ATournament.Standing standing = standings.get(random.nextInt(standings.size()));
+            if(selected == null || standing.getWinRate() > selected.getWinRate())
+                selected = standing;
+        }
+        return selected.values;
+    }
+
+    /**
+     * Writes the generation, the best candidate and the population, one candidate per line
+     * @param filename the file to write to
+     * @throws IOException if the file couldn't be written
+     */
+    public void writeCheckpoint(String filename) throws IOException {
+        File temporaryFile = new File(filename + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(temporaryFile)))) {
+            writer.println(generation);
+            writer.println(bestWinRate);
+            writer.println(best == null ? "" : toLine(best));
+            for(double[] values : population)
+                writer.println(toLine(values));
+        }
+        // replace the old checkpoint only after the new one is complete
+        Files.move(temporaryFile.toPath(), new File(filename).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #writeCheckpoint(String)}
+     * @param filename the file to read from
+     * @throws IOException if the file couldn't be read
+     */
+    public void readCheckpoint(String filename) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            int generation = Integer.parseInt(reader.readLine().trim());
+            bestWinRate = Double.parseDouble(reader.readLine().trim());
+            String bestLine = reader.readLine().trim();
+            best = bestLine.isEmpty() ? null : fromLine(bestLine);
+            List<double[]> population = new ArrayList<>(populationSize);
+            for(String line; (line = reader.readLine()) != null; ){
+                if(!line.trim().isEmpty())
+                    population.add(fromLine(line));
+            }
+            initialize(population);
+            this.generation = generation;
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IOException("Invalid checkpoint " + filename, e);
+        }
+    }
+
+    private static String toLine(double[] values){
+        StringBuilder line = new StringBuilder();
+        for(double value : values){
+            if(line.length() > 0)
+                line.append(' ');
+            line.append(value);
+        }
+        return line.toString();
+    }
+
+    private static double[] fromLine(String line){
+        String[] parts = line.trim().split(" ");
+        double[] values = new double[parts.length];
+        for(int i = 0; i < parts.length; i++)
+            values[i] = Double.parseDouble(parts[i]);
+        return values;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int populationSize = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+        int gamesPerCandidate = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        String checkpointFile = args.length > 4 ? args[4] : "optimizer.txt";
+
+        // the opponents play with the hardcoded values, a win rate above 50% beats them
+        double[] hardcoded = new AAIConstants(MapSize.SMALL).save();
+        AGeneticOptimizer optimizer = new AGeneticOptimizer(populationSize, gamesPerCandidate, System.nanoTime(),
+                ConquerGoal::new, ABasicAI.class);
+        optimizer.setOpponentConstants(hardcoded);
+        optimizer.setCheckpointFile(checkpointFile);
+        List<double[]> initial = new ArrayList<>();
+        initial.add(hardcoded);
+        optimizer.initialize(initial);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        optimizer.run(generations, pool);
+        pool.shutdown();
+
+        if(optimizer.getBest() != null)
+            new AAIConstants(optimizer.getBest()).write("best0.txt");
+    }
+}
@@ -0,0 +1,103 @@
+package de.teast.asimulation;
+
+import de.teast.aextensions.ajoker.AJoker;
+import de.teast.agui.ATroopCountPanel;
+import game.Game;
+import game.GameInterface;
+import game.Player;
+import game.map.Castle;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * A {@link GameInterface} without any user interface for headless games ({@link Game#setHeadless(boolean)}).
+ * All events are ignored, only the dices are rolled with a seeded random number generator, so a game can be replayed.
+ * @author Alexander Muth
+ */
+public class AHeadlessGameInterface implements GameInterface {
+    private final Random random;
+    private Player winner;
+    private boolean gameOver;
+
+    /**
+     * @param seed the seed of the dices
+     */
+    public AHeadlessGameInterface(long seed){
+        this(new Random(seed));
+    }
+    /**
+     * @param random the random number generator of the dices, e.g. {@link Game#getRandom}
+     */
+    public AHeadlessGameInterface(Random random){
+        this.random = random;
+    }
+
+    /**
+     * @return the winner of the game or null if the game isn't over or ended without a winner
+     */
+    public Player getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return if {@link #onGameOver(Player)} was called
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Rolls the dices like {@link gui.components.DicePanel#generateRandom(int)}: at most three values, every further
+     * dice is added to one of them.
+     */
+    @Override
+    public int[] onRoll(Player player, int dices, boolean fastForward) {
+        int[] result = new int[Math.min(dices, 3)];
+        for(int i = 0; i < dices; i++){
+            result[i % result.length] += random.nextInt(6) + 1;
+        }
+        return result;
+    }
+
+    @Override
+    public void onGameOver(Player winner) {
+        this.winner = winner;
+        this.gameOver = true;
+    }
+
+    @Override
+    public void onAttackStopped() {}
+    @Override
+    public void onAttackStarted(Castle source, Castle target, int troopCount) {}
+    @Override
+    public void onCastleChosen(Castle castle, Player player) {}
+    @Override
+    public void onNextTurn(Player currentPlayer, int troopsGot, boolean human) {}
+    @Override
+    public void onNewRound(int round) {}
+    @Override
+    public void onGameStarted(Game game) {}
+    @Override
+    public void onConquer(Castle castle, Player player) {}
+    @Override
+    public void onUpdate() {}
+    @Override
+    public void onAddScore(Player player, int score) {}
+    @Override
+    public void onLogText(String text) {}
+    @Override
+    public void onLogText(String text, Player... playerFormat) {}
+    @Override
+    public void addTroopCountPanel(ATroopCountPanel troopCountPanel) {}
+    @Override
+    public void replaceTroopCountPanel(ATroopCountPanel troopCountPanel) {}
+    @Override
+    public void removeTroopCountPanel() {}
+    @Override
+    public Window getGameWindow() {
+        return null;
+    }
+    @Override
+    public void onUpdateJokerButton(boolean visible, AJoker nextJoker) {}
+}
@@ -0,0 +1,386 @@
+package de.teast.asimulation;
+
+import de.teast.aai.AAIBattleOdds;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo tree search over the decisions of one turn on an {@link ABoardState}. A decision is either the castle,
+ * on which all remaining troops are placed, or an attack with all but one troop of a castle, or the end of the turn.
+ * The tree is open loop: the dice are rolled again in every iteration, so a node stands for a sequence of decisions
+ * and not for a board. After the tree the turn and the following rounds of all players are played by a fast random
+ * policy, the reward is the share of castles and troops of the player at the end.
+ *
+ * Every thread searches its own tree on its own fork of the board (root parallelization), the visits of the decisions
+ * at the root are summed up afterwards.
+ * @author Alexander Muth
+ */
+public class AMonteCarloTreeSearch {
+    public static final int END_TURN = -1;
+
+    private static final double EXPLORATION = 0.7;
+    private static final int ROLLOUT_ROUNDS = 2;
+    private static final int ROLLOUT_ATTACKS = 8; // maximum attacks of a player in one turn of a rollout
+    private static final int TIME_CHECK_INTERVAL = 16;
+    private static final double MIN_WIN_PROBABILITY = 0.1; // attacks with a lower win probability aren't searched
+    private static final double ROLLOUT_WIN_PROBABILITY = 0.5; // the rollout policy only makes attacks, which are likely won
+
+    private final ABoardTopology topology;
+    private final int player;
+    private int threads = 1;
+    private long iterations;
+
+    /**
+     * @param topology the topology of the board
+     * @param player the id of the player to search the decisions for
+     */
+    public AMonteCarloTreeSearch(ABoardTopology topology, int player){
+        this.topology = topology;
+        this.player = player;
+    }
+
+    /**
+     * @param threads the count of trees searched in parallel
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @return the count of iterations of all threads of the last search
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @param action an attack decision
+     * @return the id of the attacking castle
+     */
+    public int getSource(int action) {
+        return action / topology.getCastleCount();
+    }
+
+    /**
+     * @param action a placement or attack decision
+     * @return the id of the castle the troops are placed on or the attacked castle
+     */
+    public int getTarget(int action) {
+        return action % topology.getCastleCount();
+    }
+
+    /**
+     * Searches the best next decision. If the player has remaining troops, the decision is a placement (the castle id),
+     * otherwise an attack (see {@link #getSource(int)} and {@link #getTarget(int)}) or {@link #END_TURN}.
+     * @param state the current board, it isn't changed
+     * @param timeBudget the maximum time of the search in nanoseconds
+     * @param maxIterations the maximum iterations per thread or 0 for no limit, a limit makes the search deterministic
+     * @param seed the seed for the dice of the rollouts
+     * @return the decision with the most visits
+     */
+    public int search(ABoardState state, long timeBudget, long maxIterations, long seed){
+        long deadline = System.nanoTime() + timeBudget;
+        List<Callable<Worker>> workers = new ArrayList<>(threads);
+        for(int i = 0; i < threads; i++){
+            Worker worker = new Worker(state.fork(), new Random(seed + i * 0x9e3779b97f4a7c15L));
+            workers.add(() -> worker.run(deadline, maxIterations));
+        }
+
+        Map<Integer, Integer> visits = new HashMap<>();
+        iterations = 0;
+        try {
+            if(threads == 1){
+                merge(workers.get(0).call(), visits);
+            } else {
+                for(Future<Worker> future : ForkJoinPool.commonPool().invokeAll(workers))
+                    merge(future.get(), visits);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        int best = END_TURN, bestVisits = -1;
+        for(Map.Entry<Integer, Integer> entry : visits.entrySet()){
+            if(entry.getValue() > bestVisits || (entry.getValue() == bestVisits && entry.getKey() < best)){
+                best = entry.getKey();
+                bestVisits = entry.getValue();
+            }
+        }
+        if(bestVisits < 0){ // not even one iteration, take the first legal decision
+            int[] actions = new int[getMaxActionCount()];
+            if(legalActions(state, actions) > 0)
+                best = actions[0];
+        }
+        return best;
+    }
+
+    private void merge(Worker worker, Map<Integer, Integer> visits){
+        iterations += worker.iterations;
+        if(worker.root.children == null)
+            return;
+        for(TreeNode child : worker.root.children)
+            visits.merge(child.action, child.visits, Integer::sum);
+    }
+
+    /**
+     * A node of the tree, the decision leading to it and its statistics
+     */
+    private static class TreeNode {
+        final int action;
+        int visits;
+        double value;
+        List<TreeNode> children;
+
+        TreeNode(int action){
+            this.action = action;
+        }
+
+        TreeNode getChild(int action){
+            if(children != null){
+                for(TreeNode child : children){
+                    if(child.action == action)
+                        return child;
+                }
+            }
+            return null;
+        }
+
+        TreeNode addChild(int action){
+            if(children == null)
+                children = new ArrayList<>(8);
+            TreeNode child = new TreeNode(action);
+            children.add(child);
+            return child;
+        }
+    }
+
+    /**
+     * The tree and board of one thread
+     */
+    private class Worker {
+        final ABoardState state;
+        final Random random;
+        final TreeNode root = new TreeNode(END_TURN);
+        final int[] actions;
+        final List<TreeNode> path = new ArrayList<>();
+        long iterations;
+
+        Worker(ABoardState state, Random random){
+            this.state = state;
+            this.random = random;
+            this.actions = new int[getMaxActionCount()];
+        }
+
+        Worker run(long deadline, long maxIterations){
+            while(maxIterations <= 0 || iterations < maxIterations){
+                if(maxIterations <= 0 && iterations % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline)
+                    break;
+                iterate();
+                iterations++;
+            }
+            return this;
+        }
+
+        private void iterate(){
+            int mark = state.mark();
+            path.clear();
+            path.add(root);
+            TreeNode node = root;
+            boolean turnEnded = false;
+
+            // selection and expansion
+            while(true){
+                int count = legalActions(state, actions);
+                if(count == 0){
+                    turnEnded = true;
+                    break;
+                }
+                TreeNode next = null;
+                for(int i = 0; i < count && next == null; i++){
+                    if(node.getChild(actions[i]) == null)
+                        next = node.addChild(actions[i]);
+                }
+                boolean expanded = next != null;
+                if(!expanded)
+                    next = select(node, count);
+                apply(state, next.action, random);
+                path.add(next);
+                node = next;
+                if(next.action == END_TURN){
+                    turnEnded = true;
+                    break;
+                }
+                if(expanded)
+                    break;
+            }
+
+            // rollout
+            if(!turnEnded)
+                playTurn(state, player, false, random);
+            int playerCount = topology.getPlayerCount();
+            for(int round = 0; round < ROLLOUT_ROUNDS && state.getAlivePlayerCount() > 1; round++){
+                for(int i = 1; i <= playerCount; i++){
+                    int current = (player + i) % playerCount;
+                    if(state.getCastleCount(current) > 0)
+                        playTurn(state, current, true, random);
+                }
+            }
+
+            double reward = evaluate(state);
+            for(TreeNode visited : path){
+                visited.visits++;
+                visited.value += reward;
+            }
+            state.undo(mark);
+        }
+
+        /**
+         * @return the child with the highest upper confidence bound among the legal decisions
+         */
+        private TreeNode select(TreeNode node, int count){
+            TreeNode best = null;
+            double bestValue = Double.NEGATIVE_INFINITY, logVisits = Math.log(Math.max(1, node.visits));
+            for(int i = 0; i < count; i++){
+                TreeNode child = node.getChild(actions[i]);
+                double value = child.value / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if(value > bestValue){
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * @return the maximum count of legal decisions: one placement per castle or one attack per direction of every edge
+     * and the end of the turn
+     */
+    private int getMaxActionCount(){
+        int castleCount = topology.getCastleCount();
+        return Math.max(castleCount, 1 + (castleCount == 0 ? 0 : topology.getNeighbourEnd(castleCount - 1)));
+    }
+
+    /**
+     * Writes the legal decisions into the array. Attacks with a win probability below {@link #MIN_WIN_PROBABILITY}
+     * aren't considered.
+     * @return the count of decisions
+     */
+    private int legalActions(ABoardState state, int[] actions){
+        int count = 0, castleCount = topology.getCastleCount();
+        if(state.getReserve(player) > 0){
+            for(int castle = 0; castle < castleCount; castle++){
+                if(state.getOwner(castle) == player && isBorder(state, castle, player))
+                    actions[count++] = castle;
+            }
+            if(count == 0){
+                for(int castle = 0; castle < castleCount; castle++){
+                    if(state.getOwner(castle) == player)
+                        actions[count++] = castle;
+                }
+            }
+            return count;
+        }
+
+        actions[count++] = END_TURN;
+        for(int source = 0; source < castleCount; source++){
+            if(state.getOwner(source) != player || state.getTroops(source) < 2)
+                continue;
+            for(int i = topology.getNeighbourStart(source); i < topology.getNeighbourEnd(source); i++){
+                int target = topology.getNeighbour(i);
+                int owner = state.getOwner(target);
+                if(owner != player && owner != ABoardState.NO_OWNER
+                        && AAIBattleOdds.getWinProbability(state.getTroops(source) - 1, state.getTroops(target), false) >= MIN_WIN_PROBABILITY)
+                    actions[count++] = source * castleCount + target;
+            }
+        }
+        return count;
+    }
+
+    private void apply(ABoardState state, int action, Random random){
+        if(action == END_TURN)
+            return;
+        if(state.getReserve(player) > 0){
+            state.addTroops(player, action, state.getReserve(player));
+        } else {
+            int source = getSource(action), target = getTarget(action);
+            state.attack(source, target, state.getTroops(source) - 1, false, random);
+        }
+    }
+
+    /**
+     * The rollout policy: all troops on a random border castle, then attacks, which are likely won, starting at a
+     * random castle
+     * @param newTurn if the reinforcements of a new turn have to be added first
+     */
+    private void playTurn(ABoardState state, int current, boolean newTurn, Random random){
+        int castleCount = topology.getCastleCount();
+        if(newTurn)
+            state.startTurn(current);
+        if(state.getReserve(current) > 0){
+            int chosen = -1, seen = 0;
+            for(int castle = 0; castle < castleCount; castle++){
+                if(state.getOwner(castle) == current && isBorder(state, castle, current) && random.nextInt(++seen) == 0)
+                    chosen = castle;
+            }
+            if(chosen >= 0)
+                state.addTroops(current, chosen, state.getReserve(current));
+        }
+
+        for(int attack = 0; attack < ROLLOUT_ATTACKS; attack++){
+            int start = random.nextInt(castleCount), source = -1, target = -1;
+            for(int j = 0; j < castleCount && source < 0; j++){
+                int castle = (start + j) % castleCount;
+                if(state.getOwner(castle) != current || state.getTroops(castle) < 3)
+                    continue;
+                for(int i = topology.getNeighbourStart(castle); i < topology.getNeighbourEnd(castle); i++){
+                    int neighbour = topology.getNeighbour(i);
+                    int owner = state.getOwner(neighbour);
+                    if(owner != current && owner != ABoardState.NO_OWNER && AAIBattleOdds.getWinProbability(
+                            state.getTroops(castle) - 1, state.getTroops(neighbour), false) >= ROLLOUT_WIN_PROBABILITY){
+                        source = castle;
+                        target = neighbour;
+                        break;
+                    }
+                }
+            }
+            if(source < 0)
+                break;
+            state.attack(source, target, state.getTroops(source) - 1, false, random);
+        }
+    }
+
+    /**
+     * @return the reward of the board between 0 and 1: the mean of the castle share and the troop share of the player
+     */
+    private double evaluate(ABoardState state){
+        if(state.getCastleCount(player) == 0)
+            return 0;
+        if(state.getAlivePlayerCount() == 1)
+            return 1;
+        int castleCount = topology.getCastleCount(), troops = 0, allTroops = 0;
+        for(int castle = 0; castle < castleCount; castle++){
+            allTroops += state.getTroops(castle);
+            if(state.getOwner(castle) == player)
+                troops += state.getTroops(castle);
+        }
+        double castleShare = state.getCastleCount(player) / (double) castleCount;
+        return 0.5 * castleShare + 0.5 * (allTroops == 0 ? castleShare : troops / (double) allTroops);
+    }
+
+    private boolean isBorder(ABoardState state, int castle, int owner){
+        for(int i = topology.getNeighbourStart(castle); i < topology.getNeighbourEnd(castle); i++){
+            if(state.getOwner(topology.getNeighbour(i)) != owner)
+                return true;
+        }
+        return false;
+    }
+}
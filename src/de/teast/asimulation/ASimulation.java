@@ -0,0 +1,154 @@
+package de.teast.asimulation;
+
+import de.teast.autils.ARandomSource;
+import game.Game;
+import game.GameConstants;
+import game.Goal;
+import game.Player;
+import game.map.AEdgeMode;
+import game.map.AMapGenerationException;
+import game.map.MapSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Plays complete games with AI players headless and synchronously in the calling thread
+ * (see {@link Game#setHeadless(boolean)}). One object can play any number of games, but only one at a time.
+ * @author Alexander Muth
+ */
+public class ASimulation {
+    /**
+     * The outcome of one simulated game
+     */
+    public static class Result {
+        /**
+         * the index of the winner in the player types or -1 if the game ended without a winner
+         */
+        public final int winnerIndex;
+        /**
+         * the count of played rounds
+         */
+        public final int rounds;
+        /**
+         * false if the game stopped, because no AI could continue it (e.g. a human player or a failed map generation)
+         */
+        public final boolean completed;
+        /**
+         * the players of the game in the order of the player types
+         */
+        public final List<Player> players;
+
+        Result(int winnerIndex, int rounds, boolean completed, List<Player> players){
+            this.winnerIndex = winnerIndex;
+            this.rounds = rounds;
+            this.completed = completed;
+            this.players = players;
+        }
+    }
+
+    public static final int DEFAULT_ROUND_LIMIT = 200;
+
+    private final List<Class<?>> playerTypes;
+    private final Supplier<Goal> goalSupplier;
+    private MapSize mapSize = MapSize.SMALL;
+    private int roundLimit = DEFAULT_ROUND_LIMIT;
+    private AEdgeMode edgeMode = AEdgeMode.NEAREST;
+
+    /**
+     * @param goalSupplier creates a new goal for every game, because a goal belongs to one game
+     * @param playerTypes the AI classes of the players
+     */
+    public ASimulation(Supplier<Goal> goalSupplier, Class<?>... playerTypes){
+        if(playerTypes.length < 2 || playerTypes.length > GameConstants.MAX_PLAYERS)
+            throw new IllegalArgumentException("Invalid player count: " + playerTypes.length);
+        this.goalSupplier = goalSupplier;
+        this.playerTypes = new ArrayList<>(Arrays.asList(playerTypes));
+    }
+
+    public void setMapSize(MapSize mapSize) {
+        this.mapSize = mapSize;
+    }
+    public MapSize getMapSize() {
+        return mapSize;
+    }
+
+    /**
+     * @param roundLimit the count of rounds after which a game ends without a winner or 0 for no limit
+     */
+    public void setRoundLimit(int roundLimit) {
+        this.roundLimit = roundLimit;
+    }
+    public int getRoundLimit() {
+        return roundLimit;
+    }
+
+    /**
+     * @param edgeMode the way the edges of the maps are generated
+     */
+    public void setEdgeMode(AEdgeMode edgeMode) {
+        this.edgeMode = edgeMode;
+    }
+    public AEdgeMode getEdgeMode() {
+        return edgeMode;
+    }
+
+    /**
+     * @return a new, not yet started game with new players and a new goal
+     */
+    public Game createGame(){
+        Game game = new Game();
+        for(int i = 0; i < playerTypes.size(); i++){
+            game.addPlayer(Player.createPlayer(playerTypes.get(i), "Player " + (i + 1), GameConstants.PLAYER_COLORS[i]));
+        }
+        game.setGoal(goalSupplier.get());
+        game.setMapSize(mapSize);
+        game.setHeadless(true);
+        game.setRoundLimit(roundLimit);
+        game.setEdgeMode(edgeMode);
+        return game;
+    }
+
+    /**
+     * Plays a new game created by {@link #createGame()}
+     * @param seed the seed of all random numbers of the game, see {@link Game#setRandomSource}
+     * @return the outcome of the game
+     */
+    public Result play(long seed){
+        return play(createGame(), seed);
+    }
+
+    /**
+     * Plays a game, which has been created by {@link #createGame()} and may have been modified before
+     * @param game the game to play
+     * @param seed the seed of all random numbers of the game, the same seed replays the same game
+     * @return the outcome of the game
+     */
+    public Result play(Game game, long seed){
+        return play(game, new ARandomSource(seed));
+    }
+
+    /**
+     * Plays a game, which has been created by {@link #createGame()} and may have been modified before
+     * @param game the game to play
+     * @param randomSource the source of all random numbers of the game, e.g. split from the source of a series of games
+     *                     ({@link ARandomSource#split(long)})
+     * @return the outcome of the game
+     */
+    public Result play(Game game, ARandomSource randomSource){
+        game.setRandomSource(randomSource);
+        AHeadlessGameInterface gameInterface = new AHeadlessGameInterface(game.getRandom(ARandomSource.Stream.DICE));
+        boolean completed;
+        try {
+            game.start(gameInterface);
+            completed = gameInterface.isGameOver();
+        } catch (AMapGenerationException e) {
+            completed = false; // no game was played, any other exception is a bug and must not be counted
+        }
+        List<Player> players = game.getPlayers();
+        int winnerIndex = gameInterface.getWinner() == null ? -1 : players.indexOf(gameInterface.getWinner());
+        return new Result(winnerIndex, game.getRound(), completed, players);
+    }
+}
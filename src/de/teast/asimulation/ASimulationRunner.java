@@ -0,0 +1,54 @@
+package de.teast.asimulation;
+
+import de.teast.autils.ARandomSource;
+import game.goals.ConquerGoal;
+import game.map.MapSize;
+import game.players.ABasicAI;
+import game.players.BasicAI;
+import gui.Resources;
+
+import java.util.Arrays;
+
+/**
+ * Command line program, which plays games with {@link ASimulation} in one thread and reports the games per second.
+ * Usage: {@code ASimulationRunner [games] [SMALL|MEDIUM|LARGE] [seed]}
+ * @author Alexander Muth
+ */
+public class ASimulationRunner {
+    private static final int WARMUP_GAMES = 50;
+
+    public static void main(String[] args){
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        MapSize mapSize = args.length > 1 ? MapSize.valueOf(args[1]) : MapSize.SMALL;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        Resources.getInstance(); // loads the castle names before the first game
+        ASimulation simulation = new ASimulation(ConquerGoal::new, ABasicAI.class, BasicAI.class);
+        simulation.setMapSize(mapSize);
+
+        ARandomSource randomSource = new ARandomSource(seed);
+        for(int i = 0; i < WARMUP_GAMES; i++){
+            simulation.play(simulation.createGame(), randomSource.split(-i - 1));
+        }
+
+        int[] wins = new int[2];
+        int draws = 0, aborted = 0;
+        long rounds = 0;
+        long start = System.nanoTime();
+        for(int i = 0; i < games; i++){
+            ASimulation.Result result = simulation.play(simulation.createGame(), randomSource.split(i));
+            if(!result.completed)
+                aborted++;
+            else if(result.winnerIndex < 0)
+                draws++;
+            else
+                wins[result.winnerIndex]++;
+            rounds += result.rounds;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games on a %s map in %.2f s: %.1f games/s, %.1f rounds/game%n",
+                games, mapSize.name(), seconds, games / seconds, rounds / (double) games);
+        System.out.println("wins (ABasicAI, BasicAI): " + Arrays.toString(wins) + ", draws: " + draws + ", aborted: " + aborted);
+    }
+}
@@ -0,0 +1,232 @@
+package de.teast.asimulation;
+
+import de.teast.aai.AAIConstants;
+import de.teast.autils.ARandomSource;
+import game.Game;
+import game.Goal;
+import game.Player;
+import game.goals.ConquerGoal;
+import game.map.MapSize;
+import game.players.ABasicAI;
+import game.players.BasicAI;
+import gui.Resources;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays headless games ({@link ASimulation}) for a list of {@link AAIConstants} candidates in parallel on a
+ * {@link ForkJoinPool} and ranks the candidates by their win rate. Every candidate controls an {@link ABasicAI} in the
+ * first seat against the given opponents. Every game gets its own game, goal, players and copy of the constants, so the
+ * games share no state and scale with the count of cores.
+ * Usage: {@code ATournament [candidates] [gamesPerCandidate] [threads] [SMALL|MEDIUM|LARGE] [seed]}
+ * @author Alexander Muth
+ */
+public class ATournament {
+    /**
+     * The aggregated games of one candidate
+     */
+    public static class Standing {
+        public final int candidate;
+        public final double[] values;
+        public int wins, draws, aborted, games;
+
+        Standing(int candidate, double[] values){
+            this.candidate = candidate;
+            this.values = values;
+        }
+
+        /**
+         * @return the share of won games of all completed games (aborted games aren't counted)
+         */
+        public double getWinRate(){
+            int completed = games - aborted;
+            return completed == 0 ? 0 : wins / (double) completed;
+        }
+
+        /**
+         * @return a new constants object with the values of this candidate
+         */
+        public AAIConstants getConstants(){
+            return new AAIConstants(values);
+        }
+    }
+
+    /**
+     * Plays the games {@code from} (inclusive) to {@code to} (exclusive), the counts of all games are merged
+     * after the subtasks have finished, so the games need no synchronization.
+     */
+    private static class GamesTask extends RecursiveTask<int[][]> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ATournament tournament;
+        private final int from, to;
+
+        GamesTask(ATournament tournament, int from, int to){
+            this.tournament = tournament;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[][] compute() {
+            if(to - from <= GAMES_PER_TASK)
+                return tournament.playGames(from, to);
+            int middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(tournament, from, middle);
+            left.fork();
+            int[][] right = new GamesTask(tournament, middle, to).compute();
+            int[][] counts = left.join();
+            for(int i = 0; i < counts.length; i++){
+                for(int j = 0; j < counts[i].length; j++)
+                    counts[i][j] += right[i][j];
+            }
+            return counts;
+        }
+    }
+
+    private static final int GAMES_PER_TASK = 4;
+    // indices of the counts of a candidate
+    private static final int WINS = 0, DRAWS = 1, ABORTED = 2, GAMES = 3;
+
+    private final List<double[]> candidates;
+    private final int gamesPerCandidate;
+    private final ASimulation simulation;
+    private double[] opponentConstants;
+    private long seed;
+
+    /**
+     * @param candidates the constant vectors ({@link AAIConstants#save()}) to compare
+     * @param gamesPerCandidate the count of games of every candidate
+     * @param goalSupplier creates a new goal for every game
+     * @param opponentTypes the AI classes of the opponents
+     */
+    public ATournament(List<double[]> candidates, int gamesPerCandidate, Supplier<Goal> goalSupplier, Class<?>... opponentTypes){
+        this.candidates = new ArrayList<>(candidates);
+        this.gamesPerCandidate = gamesPerCandidate;
+        Class<?>[] playerTypes = new Class<?>[opponentTypes.length + 1];
+        playerTypes[0] = ABasicAI.class;
+        System.arraycopy(opponentTypes, 0, playerTypes, 1, opponentTypes.length);
+        this.simulation = new ASimulation(goalSupplier, playerTypes);
+    }
+
+    /**
+     * @return the simulation used to create and play the games, to change the map size or the round limit
+     */
+    public ASimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * @param opponentConstants the constant vector of opponents of the type {@link ABasicAI} or null for their default constants
+     */
+    public void setOpponentConstants(double[] opponentConstants) {
+        this.opponentConstants = opponentConstants;
+    }
+
+    /**
+     * @param seed the seed of the games, game {@code i} of every candidate uses the random source split from the seed
+     *              with the index {@code i} ({@link ARandomSource#split(long)}). All candidates play with the same random
+     *              sources, so their win rates are comparable.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Plays all games
+     * @param pool the pool to play the games in
+     * @return the standings of all candidates sorted by their win rate (best first)
+     */
+    public List<Standing> run(ForkJoinPool pool){
+        Resources.getInstance(); // loads the resources once, before games in different threads need them
+
+        int[][] counts = pool.invoke(new GamesTask(this, 0, candidates.size() * gamesPerCandidate));
+        List<Standing> standings = new ArrayList<>(candidates.size());
+        for(int i = 0; i < candidates.size(); i++){
+            Standing standing = new Standing(i, candidates.get(i));
+            standing.wins = counts[i][WINS];
+            standing.draws = counts[i][DRAWS];
+            standing.aborted = counts[i][ABORTED];
+            standing.games = counts[i][GAMES];
+            standings.add(standing);
+        }
+        standings.sort(Comparator.comparingDouble(Standing::getWinRate).reversed());
+        return standings;
+    }
+
+    private int[][] playGames(int from, int to){
+        int[][] counts = new int[candidates.size()][4];
+        for(int i = from; i < to; i++){
+            int candidate = i / gamesPerCandidate;
+            Game game = simulation.createGame();
+            List<Player> players = game.getPlayers();
+            ((ABasicAI) players.get(0)).constants = new AAIConstants(candidates.get(candidate));
+            for(int j = 1; j < players.size(); j++){
+                if(opponentConstants != null && players.get(j) instanceof ABasicAI)
+                    ((ABasicAI) players.get(j)).constants = new AAIConstants(opponentConstants);
+            }
+
+            ASimulation.Result result = simulation.play(game, new ARandomSource(seed).split(i % gamesPerCandidate));
+            if(!result.completed)
+                counts[candidate][ABORTED]++;
+            else if(result.winnerIndex == 0)
+                counts[candidate][WINS]++;
+            else if(result.winnerIndex < 0)
+                counts[candidate][DRAWS]++;
+            counts[candidate][GAMES]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Writes the values of the best candidates to the files {@code best0.txt}, {@code best1.txt}, ...
+     * (the files read by {@link gui.views.GameViewTraining})
+     * @param standings the standings returned by {@link #run(ForkJoinPool)}
+     * @param count the count of candidates to write
+     * @throws IOException if a file couldn't be written
+     */
+    public static void writeBest(List<Standing> standings, int count) throws IOException {
+        for(int i = 0; i < Math.min(count, standings.size()); i++){
+            standings.get(i).getConstants().write("best" + i + ".txt");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int candidateCount = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int gamesPerCandidate = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        MapSize mapSize = args.length > 3 ? MapSize.valueOf(args[3]) : MapSize.SMALL;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+        Random random = new ARandomSource(seed).create(ARandomSource.Stream.CONSTANTS);
+
+        List<double[]> candidates = new ArrayList<>(candidateCount);
+        candidates.add(new AAIConstants(mapSize).save()); // the hardcoded values as reference
+        while(candidates.size() < candidateCount)
+            candidates.add(new AAIConstants(random).save());
+
+        ATournament tournament = new ATournament(candidates, gamesPerCandidate, ConquerGoal::new, BasicAI.class);
+        tournament.getSimulation().setMapSize(mapSize);
+        tournament.setSeed(seed);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Standing> standings = tournament.run(pool);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        int games = candidateCount * gamesPerCandidate;
+        System.out.printf("%d games in %d threads in %.2f s: %.1f games/s%n", games, threads, seconds, games / seconds);
+        for(Standing standing : standings){
+            System.out.printf("candidate %3d%s: %5.1f%% wins, %d draws, %d aborted%n", standing.candidate,
+                    standing.candidate == 0 ? " (hardcoded)" : "", standing.getWinRate() * 100, standing.draws, standing.aborted);
+        }
+        writeBest(standings, 1);
+    }
+}
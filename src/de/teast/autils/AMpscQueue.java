@@ -0,0 +1,61 @@
+package de.teast.autils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free queue for many producer threads and one consumer thread. A producer appends its node with a
+ * single atomic swap and never waits for another thread. The consumer must be one thread at a time, e.g. the event
+ * dispatch thread.
+ * @author Alexander Muth
+ */
+public class AMpscQueue<T> {
+    private static class Node<T> {
+        private T value;
+        private volatile Node<T> next;
+
+        private Node(T value) {
+            this.value = value;
+        }
+    }
+
+    private final AtomicReference<Node<T>> last; // the last node, which was appended by a producer
+    private Node<T> first; // the node before the next value, only used by the consumer
+
+    public AMpscQueue() {
+        first = new Node<>(null);
+        last = new AtomicReference<>(first);
+    }
+
+    /**
+     * Appends a value, can be called by any thread
+     * @param value the value, not null
+     */
+    public void offer(T value) {
+        if(value == null)
+            throw new NullPointerException();
+        Node<T> node = new Node<>(value);
+        last.getAndSet(node).next = node;
+    }
+
+    /**
+     * Removes the first value, must only be called by the consumer
+     * @return the first value or null, if the queue is empty or the first producer hasn't linked its node yet
+     */
+    public T poll() {
+        Node<T> next = first.next;
+        if(next == null)
+            return null;
+        T value = next.value;
+        next.value = null;
+        first = next;
+        return value;
+    }
+
+    /**
+     * Must only be called by the consumer
+     * @return if no value was appended, which the consumer hasn't removed yet
+     */
+    public boolean isEmpty() {
+        return last.get() == first;
+    }
+}
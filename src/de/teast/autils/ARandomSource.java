@@ -0,0 +1,86 @@
+package de.teast.autils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeded source of all random numbers of a game. Every subsystem ({@link Stream}) gets its own {@link Random}, which
+ * is derived from the seed of the source and the stream, so the subsystems don't influence each other: e.g. an AI,
+ * which draws more numbers, doesn't change the dices. A source can be split into independent sources for many games
+ * ({@link #split(long)}), so a benchmark or simulation with the same seed is replayed exactly.
+ * @author Alexander Muth
+ */
+public class ARandomSource {
+    /**
+     * The subsystems, which use random numbers
+     */
+    public enum Stream {
+        PLAYER_ORDER,
+        NOISE,
+        CASTLES,
+        CASTLE_NAMES,
+        KINGDOMS,
+        EDGES,
+        BASES,
+        PATHS,
+        AI,
+        DICE,
+        CONSTANTS
+    }
+
+    private static final AtomicLong unseededCount = new AtomicLong();
+
+    private final long seed;
+
+    /**
+     * @param seed the seed, from which all random numbers are derived
+     */
+    public ARandomSource(long seed){
+        this.seed = seed;
+    }
+
+    /**
+     * @return a source with a different seed on every call, for games which don't need to be replayed
+     */
+    public static ARandomSource createUnseeded(){
+        return new ARandomSource(mix(System.nanoTime() + unseededCount.incrementAndGet()));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param index the index of e.g. a game
+     * @return an independent source for the index, which is the same for the same seed and index
+     */
+    public ARandomSource split(long index){
+        return new ARandomSource(mix(seed ^ mix(index + 1)));
+    }
+
+    /**
+     * @param stream the subsystem
+     * @return a new random number generator for the subsystem, which always returns the same numbers for the same seed
+     */
+    public Random create(Stream stream){
+        return create(stream, 0);
+    }
+
+    /**
+     * @param stream the subsystem
+     * @param index the index within the subsystem, e.g. the index of a player
+     * @return a new random number generator for the subsystem and index, which always returns the same numbers for the same seed
+     */
+    public Random create(Stream stream, int index){
+        return new Random(mix(seed + mix(((long) stream.ordinal() << 32) + index + 1)));
+    }
+
+    /**
+     * The finalizer of SplitMix64, which spreads similar values (e.g. consecutive seeds) over all bits
+     */
+    private static long mix(long value){
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,132 @@
+package game;
+
+import game.map.Castle;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * An attack of one castle on another, which is rolled in rounds until the castle is conquered or the attacker has
+ * used its troops (see {@link Game#doAttack}). An animated attack runs on the {@link ATimeline} with pauses between
+ * the rolls, so the players can follow the dices. An instant attack is resolved completely in the calling thread by
+ * {@link #run()}, without pauses and without creating a thread.
+ * @author Alexander Muth
+ */
+public class AAttack implements Runnable {
+
+    private Castle attackerCastle, defenderCastle;
+    private Player attacker, defender;
+    private int troopAttackCount;
+    private Game game;
+    private volatile boolean fastForward;
+    private final boolean instant;
+    private volatile Player winner;
+    private List<Player> doubleDices;
+    private final ATimeline.Track track;
+    private Future<?> future;
+
+    /**
+     * @param game the game
+     * @param doubleDices the players, which roll twice as many dices
+     * @param attackerCastle the attacking castle
+     * @param defenderCastle the attacked castle
+     * @param troopAttackCount the count of troops to attack with
+     * @param instant if the attack is resolved without pauses
+     */
+    public AAttack(Game game, List<Player> doubleDices, Castle attackerCastle, Castle defenderCastle, int troopAttackCount, boolean instant) {
+        this.attackerCastle = attackerCastle;
+        this.defenderCastle = defenderCastle;
+        this.attacker = attackerCastle.getOwner();
+        this.defender = defenderCastle.getOwner();
+        this.winner = defender;
+        this.troopAttackCount = troopAttackCount;
+        this.game = game;
+        this.instant = instant;
+        this.fastForward = instant;
+        this.doubleDices = new LinkedList<>(doubleDices);
+        this.track = ATimeline.get().newTrack();
+        if(instant)
+            track.fastForward();
+    }
+
+    /**
+     * Starts the animated attack on a worker thread of the {@link ATimeline}
+     */
+    void start() {
+        future = ATimeline.get().execute(this);
+    }
+
+    /**
+     * Skips the remaining pauses of an animated attack
+     */
+    public void fastForward() {
+        fastForward = true;
+        track.fastForward();
+    }
+
+    /**
+     * @return if the attack is resolved without pauses in the calling thread
+     */
+    public boolean isInstant() {
+        return instant;
+    }
+
+    /**
+     * Waits until the attack is over. An instant attack is already over, when {@link Game#startAttack} returns.
+     * @throws InterruptedException if the waiting thread has been interrupted
+     */
+    public void join() throws InterruptedException {
+        if(future == null)
+            return;
+        try {
+            future.get();
+        } catch(ExecutionException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public void run() {
+
+        int attackUntil = Math.max(1, attackerCastle.getTroopCount() - troopAttackCount);
+        Player useDoubleDices = null;
+
+        try {
+            track.sleep(1500);
+
+            while(attackerCastle.getTroopCount() > attackUntil) {
+
+                // Attacker dices: at maximum 3 and not more than actual troop count
+                int attackerCount =  Math.min(troopAttackCount, Math.min(attackerCastle.getTroopCount() - 1, 3));
+                if(doubleDices.contains(attacker))
+                    attackerCount *= 2;
+                int[] attackerDice = game.roll(attacker, attackerCount, fastForward);
+
+                track.sleep(1500);
+
+                // Defender dices: at maximum 2
+                int defenderCount = Math.min(2, defenderCastle.getTroopCount());
+                int[] defenderDice = game.roll(defender, defenderCount, fastForward);
+
+                game.doAttack(attackerCastle, defenderCastle, attackerDice, defenderDice);
+                if(defenderCastle.getOwner() == attacker || (game.isFlagEmpireGoal() && game.flagEmpireGoal().isFlagSet(defenderCastle) && defenderCastle.getTroopCount() <= 0)) {
+                    winner = attacker;
+                    break;
+                }
+
+                track.sleep(1500);
+            }
+        } catch(InterruptedException ex) {
+            ex.printStackTrace();
+            useDoubleDices = null;
+        }
+
+        game.stopAttack(useDoubleDices);
+    }
+
+    public Player getWinner() {
+        return winner;
+    }
+}
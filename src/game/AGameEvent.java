@@ -0,0 +1,226 @@
+package game;
+
+import de.teast.aextensions.ajoker.AJoker;
+import de.teast.agui.ATroopCountPanel;
+import game.map.Castle;
+
+/**
+ * An immutable event of a game, which is published on the {@link AGameEventBus} instead of calling the
+ * {@link GameInterface} directly. Every {@link Type} matches one callback of the {@link GameInterface} and only uses
+ * the fields of its parameters.
+ * @author Alexander Muth
+ */
+public final class AGameEvent {
+    public enum Type {
+        ATTACK_STOPPED,
+        ATTACK_STARTED, // castle, target, count (troops)
+        CASTLE_CHOSEN, // castle, player
+        NEXT_TURN(true), // player, count (troops), human
+        NEW_ROUND, // count (round)
+        GAME_OVER(true), // player (winner or null)
+        GAME_STARTED(true), // game
+        CONQUER, // castle, player
+        UPDATE,
+        ADD_SCORE, // player, count (score)
+        LOG_TEXT, // text, players
+        ADD_TROOP_COUNT_PANEL, // troopCountPanel
+        REPLACE_TROOP_COUNT_PANEL, // troopCountPanel
+        REMOVE_TROOP_COUNT_PANEL,
+        UPDATE_JOKER_BUTTON; // human (visible), joker
+
+        private final boolean lifecycle;
+
+        Type() {
+            this(false);
+        }
+
+        Type(boolean lifecycle) {
+            this.lifecycle = lifecycle;
+        }
+
+        /**
+         * @return if the event starts or ends a game or a turn, so its publisher waits until it is handled, see
+         * {@link AGameEventBus}
+         */
+        public boolean isLifecycle() {
+            return lifecycle;
+        }
+    }
+
+    private static final Player[] NO_PLAYERS = new Player[0];
+    private static final AGameEvent ATTACK_STOPPED = new AGameEvent(Type.ATTACK_STOPPED);
+    private static final AGameEvent UPDATE = new AGameEvent(Type.UPDATE);
+    private static final AGameEvent REMOVE_TROOP_COUNT_PANEL = new AGameEvent(Type.REMOVE_TROOP_COUNT_PANEL);
+
+    private final Type type;
+    private final Castle castle, target;
+    private final Player player;
+    private final Player[] players;
+    private final int count;
+    private final boolean human;
+    private final String text;
+    private final Game game;
+    private final ATroopCountPanel troopCountPanel;
+    private final AJoker joker;
+
+    private AGameEvent(Type type) {
+        this(type, null, null, null, 0, false);
+    }
+
+    private AGameEvent(Type type, Castle castle, Castle target, Player player, int count, boolean human) {
+        this(type, castle, target, player, NO_PLAYERS, count, human, null, null, null, null);
+    }
+
+    private AGameEvent(Type type, Castle castle, Castle target, Player player, Player[] players, int count,
+                       boolean human, String text, Game game, ATroopCountPanel troopCountPanel, AJoker joker) {
+        this.type = type;
+        this.castle = castle;
+        this.target = target;
+        this.player = player;
+        this.players = players;
+        this.count = count;
+        this.human = human;
+        this.text = text;
+        this.game = game;
+        this.troopCountPanel = troopCountPanel;
+        this.joker = joker;
+    }
+
+    public static AGameEvent attackStopped() {
+        return ATTACK_STOPPED;
+    }
+    public static AGameEvent attackStarted(Castle source, Castle target, int troopCount) {
+        return new AGameEvent(Type.ATTACK_STARTED, source, target, null, troopCount, false);
+    }
+    public static AGameEvent castleChosen(Castle castle, Player player) {
+        return new AGameEvent(Type.CASTLE_CHOSEN, castle, null, player, 0, false);
+    }
+    public static AGameEvent nextTurn(Player currentPlayer, int troopsGot, boolean human) {
+        return new AGameEvent(Type.NEXT_TURN, null, null, currentPlayer, troopsGot, human);
+    }
+    public static AGameEvent newRound(int round) {
+        return new AGameEvent(Type.NEW_ROUND, null, null, null, round, false);
+    }
+    public static AGameEvent gameOver(Player winner) {
+        return new AGameEvent(Type.GAME_OVER, null, null, winner, 0, false);
+    }
+    public static AGameEvent gameStarted(Game game) {
+        return new AGameEvent(Type.GAME_STARTED, null, null, null, NO_PLAYERS, 0, false, null, game, null, null);
+    }
+    public static AGameEvent conquer(Castle castle, Player player) {
+        return new AGameEvent(Type.CONQUER, castle, null, player, 0, false);
+    }
+    public static AGameEvent update() {
+        return UPDATE;
+    }
+    public static AGameEvent addScore(Player player, int score) {
+        return new AGameEvent(Type.ADD_SCORE, null, null, player, score, false);
+    }
+    public static AGameEvent logText(String text, Player... playerFormat) {
+        Player[] players = playerFormat != null && playerFormat.length > 0 ? playerFormat.clone() : NO_PLAYERS;
+        return new AGameEvent(Type.LOG_TEXT, null, null, null, players, 0, false, text, null, null, null);
+    }
+    public static AGameEvent addTroopCountPanel(ATroopCountPanel troopCountPanel) {
+        return new AGameEvent(Type.ADD_TROOP_COUNT_PANEL, null, null, null, NO_PLAYERS, 0, false, null, null, troopCountPanel, null);
+    }
+    public static AGameEvent replaceTroopCountPanel(ATroopCountPanel troopCountPanel) {
+        return new AGameEvent(Type.REPLACE_TROOP_COUNT_PANEL, null, null, null, NO_PLAYERS, 0, false, null, null, troopCountPanel, null);
+    }
+    public static AGameEvent removeTroopCountPanel() {
+        return REMOVE_TROOP_COUNT_PANEL;
+    }
+    public static AGameEvent updateJokerButton(boolean visible, AJoker nextJoker) {
+        return new AGameEvent(Type.UPDATE_JOKER_BUTTON, null, null, null, NO_PLAYERS, 0, visible, null, null, null, nextJoker);
+    }
+
+    /**
+     * Calls the matching callback of the game interface
+     * @param gameInterface the game interface
+     */
+    public void dispatch(GameInterface gameInterface) {
+        switch(type) {
+            case ATTACK_STOPPED: gameInterface.onAttackStopped(); break;
+            case ATTACK_STARTED: gameInterface.onAttackStarted(castle, target, count); break;
+            case CASTLE_CHOSEN: gameInterface.onCastleChosen(castle, player); break;
+            case NEXT_TURN: gameInterface.onNextTurn(player, count, human); break;
+            case NEW_ROUND: gameInterface.onNewRound(count); break;
+            case GAME_OVER: gameInterface.onGameOver(player); break;
+            case GAME_STARTED: gameInterface.onGameStarted(game); break;
+            case CONQUER: gameInterface.onConquer(castle, player); break;
+            case UPDATE: gameInterface.onUpdate(); break;
+            case ADD_SCORE: gameInterface.onAddScore(player, count); break;
+            case LOG_TEXT:
+                if(players.length == 0)
+                    gameInterface.onLogText(text);
+                else
+                    gameInterface.onLogText(text, players.clone());
+                break;
+            case ADD_TROOP_COUNT_PANEL: gameInterface.addTroopCountPanel(troopCountPanel); break;
+            case REPLACE_TROOP_COUNT_PANEL: gameInterface.replaceTroopCountPanel(troopCountPanel); break;
+            case REMOVE_TROOP_COUNT_PANEL: gameInterface.removeTroopCountPanel(); break;
+            case UPDATE_JOKER_BUTTON: gameInterface.onUpdateJokerButton(human, joker); break;
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the castle of the event or the attacking castle
+     */
+    public Castle getCastle() {
+        return castle;
+    }
+
+    /**
+     * @return the attacked castle
+     */
+    public Castle getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the player of the event, the current player or the winner
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return the players, which are formatted into the log text
+     */
+    public Player[] getPlayers() {
+        return players.clone();
+    }
+
+    /**
+     * @return the count of troops, the round or the score
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return if the current player is human or if the joker button is visible
+     */
+    public boolean isHuman() {
+        return human;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public ATroopCountPanel getTroopCountPanel() {
+        return troopCountPanel;
+    }
+
+    public AJoker getJoker() {
+        return joker;
+    }
+}
@@ -0,0 +1,233 @@
+package game;
+
+import de.teast.aextensions.ajoker.AJoker;
+import de.teast.agui.ATroopCountPanel;
+import de.teast.autils.AMpscQueue;
+import game.map.Castle;
+
+import javax.swing.*;
+import java.awt.*;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decouples a {@link Game} from its user interface: the game calls the callbacks of this {@link GameInterface}, which
+ * publish {@link AGameEvent}s to the subscribers. A subscriber is either called synchronously in the publishing thread
+ * (e.g. the {@link de.teast.asimulation.AHeadlessGameInterface} or statistics of a simulation) or gets its events on
+ * the event dispatch thread of Swing. The events of an event dispatch thread subscriber are appended to a lock-free
+ * {@link AMpscQueue} and handled in batches, so the publishing thread doesn't wait for the user interface. Repeated
+ * {@link AGameEvent.Type#UPDATE} events of a batch are handled once at its end or before a lifecycle event (see
+ * {@link AGameEvent.Type#isLifecycle()}). Only a lifecycle event makes the publishing thread wait, until it and all
+ * events before it are handled on the event dispatch thread, so e.g. a game interface is set up for a new game before
+ * its first turn.
+ *
+ * {@link #onRoll} and {@link #getGameWindow()} return a value and are forwarded to the game interface of the game.
+ * @author Alexander Muth
+ */
+public class AGameEventBus implements GameInterface {
+    private final GameInterface gameInterface;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a bus, to which the game interface is subscribed. A Swing component gets its events on the event dispatch
+     * thread, any other game interface synchronously.
+     * @param gameInterface the game interface of the game
+     */
+    public AGameEventBus(GameInterface gameInterface) {
+        this.gameInterface = gameInterface;
+        subscribe(event -> event.dispatch(gameInterface), gameInterface instanceof Component);
+    }
+
+    /**
+     * @param listener the listener
+     * @param eventDispatchThread if the listener is called on the event dispatch thread instead of the publishing
+     *                            thread
+     */
+    public void subscribe(AGameEventListener listener, boolean eventDispatchThread) {
+        subscribers.add(eventDispatchThread ? new QueuedSubscriber(listener) : new Subscriber(listener));
+    }
+
+    /**
+     * @param listener the listener, which receives no further events
+     */
+    public void unsubscribe(AGameEventListener listener) {
+        subscribers.removeIf(subscriber -> subscriber.listener == listener);
+    }
+
+    /**
+     * @return the game interface of the game
+     */
+    public GameInterface getGameInterface() {
+        return gameInterface;
+    }
+
+    /**
+     * Publishes the event to all subscribers
+     * @param event the event
+     */
+    public void publish(AGameEvent event) {
+        for(Subscriber subscriber : subscribers)
+            subscriber.publish(event);
+    }
+
+    @Override
+    public void onAttackStopped() {
+        publish(AGameEvent.attackStopped());
+    }
+    @Override
+    public void onAttackStarted(Castle source, Castle target, int troopCount) {
+        publish(AGameEvent.attackStarted(source, target, troopCount));
+    }
+    @Override
+    public void onCastleChosen(Castle castle, Player player) {
+        publish(AGameEvent.castleChosen(castle, player));
+    }
+    @Override
+    public void onNextTurn(Player currentPlayer, int troopsGot, boolean human) {
+        publish(AGameEvent.nextTurn(currentPlayer, troopsGot, human));
+    }
+    @Override
+    public void onNewRound(int round) {
+        publish(AGameEvent.newRound(round));
+    }
+    @Override
+    public void onGameOver(Player winner) {
+        publish(AGameEvent.gameOver(winner));
+    }
+    @Override
+    public void onGameStarted(Game game) {
+        publish(AGameEvent.gameStarted(game));
+    }
+    @Override
+    public void onConquer(Castle castle, Player player) {
+        publish(AGameEvent.conquer(castle, player));
+    }
+    @Override
+    public void onUpdate() {
+        publish(AGameEvent.update());
+    }
+    @Override
+    public void onAddScore(Player player, int score) {
+        publish(AGameEvent.addScore(player, score));
+    }
+    @Override
+    public void onLogText(String text) {
+        publish(AGameEvent.logText(text));
+    }
+    @Override
+    public void onLogText(String text, Player... playerFormat) {
+        publish(AGameEvent.logText(text, playerFormat));
+    }
+    @Override
+    public int[] onRoll(Player player, int dices, boolean fastForward) {
+        return gameInterface.onRoll(player, dices, fastForward);
+    }
+    @Override
+    public void addTroopCountPanel(ATroopCountPanel troopCountPanel) {
+        publish(AGameEvent.addTroopCountPanel(troopCountPanel));
+    }
+    @Override
+    public void replaceTroopCountPanel(ATroopCountPanel troopCountPanel) {
+        publish(AGameEvent.replaceTroopCountPanel(troopCountPanel));
+    }
+    @Override
+    public void removeTroopCountPanel() {
+        publish(AGameEvent.removeTroopCountPanel());
+    }
+    @Override
+    public Window getGameWindow() {
+        return gameInterface.getGameWindow();
+    }
+    @Override
+    public void onUpdateJokerButton(boolean visible, AJoker nextJoker) {
+        publish(AGameEvent.updateJokerButton(visible, nextJoker));
+    }
+
+    /**
+     * Calls its listener in the publishing thread
+     */
+    private static class Subscriber {
+        protected final AGameEventListener listener;
+
+        private Subscriber(AGameEventListener listener) {
+            this.listener = listener;
+        }
+
+        protected void publish(AGameEvent event) {
+            listener.onEvent(event);
+        }
+    }
+
+    /**
+     * Calls its listener on the event dispatch thread
+     */
+    private static class QueuedSubscriber extends Subscriber {
+        private final AMpscQueue<AGameEvent> queue = new AMpscQueue<>(); // only polled on the event dispatch thread
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private QueuedSubscriber(AGameEventListener listener) {
+            super(listener);
+        }
+
+        @Override
+        protected void publish(AGameEvent event) {
+            queue.offer(event);
+            if(event.getType().isLifecycle()) {
+                // the publisher waits, until the lifecycle event and all events before it are handled
+                if(SwingUtilities.isEventDispatchThread())
+                    handleQueue();
+                else
+                    invokeAndWait(this::handleQueue);
+            } else if(scheduled.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(this::handleEvents);
+            }
+        }
+
+        private void handleEvents() {
+            try {
+                handleQueue();
+            } finally {
+                scheduled.set(false);
+                // an event may have been appended after the last poll, while this batch was still scheduled
+                if(!queue.isEmpty() && scheduled.compareAndSet(false, true))
+                    SwingUtilities.invokeLater(this::handleEvents);
+            }
+        }
+
+        private static void invokeAndWait(Runnable runnable) {
+            try {
+                SwingUtilities.invokeAndWait(runnable);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // the events are still handled, but the publisher doesn't wait
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if(cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if(cause instanceof Error)
+                    throw (Error) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        private void handleQueue() {
+            boolean update = false;
+            AGameEvent event;
+            while((event = queue.poll()) != null) {
+                if(event.getType() == AGameEvent.Type.UPDATE) {
+                    update = true;
+                    continue;
+                }
+                if(update && event.getType().isLifecycle()) {
+                    // the update belongs to the previous turn or game
+                    listener.onEvent(AGameEvent.update());
+                    update = false;
+                }
+                listener.onEvent(event);
+            }
+            if(update)
+                listener.onEvent(AGameEvent.update());
+        }
+    }
+}
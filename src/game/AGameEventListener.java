@@ -0,0 +1,13 @@
+package game;
+
+/**
+ * Listener for the events of a game, see {@link AGameEventBus#subscribe(AGameEventListener, boolean)}
+ * @author Alexander Muth
+ */
+@FunctionalInterface
+public interface AGameEventListener {
+    /**
+     * @param event the event
+     */
+    void onEvent(AGameEvent event);
+}
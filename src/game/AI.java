@@ -5,68 +5,97 @@ import java.util.Random;
 
 public abstract class AI extends Player {
 
-    private AIThread aiThread;
+    private volatile boolean turnRunning;
     private Random random;
-    protected boolean fastForward;
+    private final ATimeline.Track track;
+    protected volatile boolean fastForward;
 
     public AI(String name, Color color) {
         super(name, color);
         this.random = new Random();
+        this.track = ATimeline.get().newTrack();
     }
 
     protected Random getRandom() {
         return this.random;
     }
 
+    /**
+     * @param random the random number generator of this AI in the game it is playing, see {@link Game#setRandomSource}
+     */
+    void setRandom(Random random) {
+        this.random = random;
+    }
+
     protected abstract void actions(Game game) throws InterruptedException;
 
+    /**
+     * Plays the turn on the {@link ATimeline}, or in the calling thread if the game is headless
+     */
     public void doNextTurn(Game game) {
-        if(aiThread != null)
+        if(turnRunning)
+            return;
+
+        if(game.isHeadless()) {
+            doHeadlessTurn(game);
             return;
+        }
 
         fastForward = false;
-        aiThread = new AIThread(game);
-        aiThread.start();
+        track.reset();
+        turnRunning = true;
+        ATimeline.get().execute(() -> {
+            try {
+                actions(game);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            } finally {
+                // also after an exception, which is reported by the timeline, otherwise the game would hang
+                finishTurn(game);
+            }
+        });
     }
 
-    public void fastForward() {
-        if(aiThread != null)
-            fastForward = true;
-    }
+    private void finishTurn(Game game) {
+        turnRunning = false;
+        fastForward = false;
+        track.reset();
 
-    protected void sleep(int ms) throws InterruptedException {
-        long end = System.currentTimeMillis() + ms;
-        while(System.currentTimeMillis() < end && !fastForward) {
-            Thread.sleep(10);
-        }
+        // Trigger next round, if not automatically
+        if(game.getRound() > 1 && game.getCurrentPlayer() == this)
+            game.nextTurn();
     }
 
-    private class AIThread extends Thread {
-
-        private Game game;
-
-        private AIThread(Game game) {
-            this.game = game;
+    /**
+     * Plays the turn in the calling thread without any delays
+     * @see Game#setHeadless(boolean)
+     */
+    private void doHeadlessTurn(Game game) {
+        fastForward = true;
+        try {
+            actions(game);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
         }
+        fastForward = false;
 
-        private void finishTurn() {
-            aiThread = null;
-            fastForward = false;
+        // Trigger next round, if not automatically
+        if(game.getRound() > 1 && game.getCurrentPlayer() == this && !game.isOver())
+            game.nextTurn();
+    }
 
-            // Trigger next round, if not automatically
-            if(game.getRound() > 1 && game.getCurrentPlayer() == AI.this)
-                game.nextTurn();
+    public void fastForward() {
+        if(turnRunning) {
+            fastForward = true;
+            track.fastForward();
         }
+    }
 
-        @Override
-        public void run() {
-            try {
-                actions(game);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-
-            finishTurn();
-        }
+    /**
+     * Pauses the turn, the pause ends at once if the turn is fast-forwarded
+     */
+    protected void sleep(int ms) throws InterruptedException {
+        if(!fastForward)
+            track.sleep(ms);
     }
 }
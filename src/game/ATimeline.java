@@ -0,0 +1,137 @@
+package game;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The timeline of the running games: the turns of the AIs and the animated attacks run on a shared pool of worker
+ * threads, which are reused for the whole session, and all pauses and animations are delayed steps of one scheduler
+ * thread. A {@link Track} is the sequence of pauses of one turn or attack. A pause blocks until its step is due or the
+ * track is fast-forwarded, which cancels the pending step and wakes the track at once, without polling.
+ * @author Alexander Muth
+ */
+public class ATimeline {
+    private static final ATimeline instance = new ATimeline();
+
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService workers;
+
+    private ATimeline() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("Timeline"));
+        workers = Executors.newCachedThreadPool(daemonThreads("TimelineWorker"));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @return the timeline shared by all games
+     */
+    public static ATimeline get() {
+        return instance;
+    }
+
+    /**
+     * Runs a task, which may pause, on a worker thread. An exception of the task is passed to the uncaught exception
+     * handler of the worker thread, even if the future is never queried, and rethrown by {@link Future#get()}.
+     * @param task e.g. the turn of an AI or an animated attack
+     * @return the future of the task
+     */
+    public Future<?> execute(Runnable task) {
+        return workers.submit(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Schedules a short step, e.g. a frame of an animation, which must not block the scheduler thread
+     * @param step the step
+     * @param delay the delay in milliseconds
+     * @return the future of the step, which can be cancelled
+     */
+    public ScheduledFuture<?> schedule(Runnable step, long delay) {
+        return scheduler.schedule(step, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return a new track, which is not fast-forwarded
+     */
+    public Track newTrack() {
+        return new Track();
+    }
+
+    /**
+     * The pauses of one turn or attack. Only one thread pauses on a track at a time.
+     */
+    public class Track {
+        private boolean fastForward;
+        private long step, wokenStep; // the last scheduled step and the last step, which was due
+        private ScheduledFuture<?> pending;
+
+        private Track() {
+        }
+
+        /**
+         * Pauses the calling thread for the given time or until the track is fast-forwarded
+         * @param ms the duration in milliseconds
+         * @throws InterruptedException if the thread has been interrupted while pausing
+         */
+        public synchronized void sleep(long ms) throws InterruptedException {
+            if(fastForward || ms <= 0)
+                return;
+            long current = ++step;
+            pending = schedule(() -> wake(current), ms);
+            try {
+                while(!fastForward && wokenStep < current)
+                    wait();
+            } finally {
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+
+        private synchronized void wake(long step) {
+            wokenStep = Math.max(wokenStep, step);
+            notifyAll();
+        }
+
+        /**
+         * Ends the current pause at once and skips all further pauses until {@link #reset()}
+         */
+        public synchronized void fastForward() {
+            fastForward = true;
+            if(pending != null)
+                pending.cancel(false);
+            notifyAll();
+        }
+
+        public synchronized boolean isFastForward() {
+            return fastForward;
+        }
+
+        /**
+         * Pauses are no longer skipped
+         */
+        public synchronized void reset() {
+            fastForward = false;
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package game;
 
 import de.teast.AConstants;
+import de.teast.autils.ARandomSource;
 import game.goals.ACaptureTheFlagGoal;
 import game.goals.AClashOfArmiesGoal;
 import game.goals.AFlagEmpireGoal;
+import game.map.AEdgeMode;
 import game.map.Castle;
 import game.map.GameMap;
 import game.map.Kingdom;
 import game.map.MapSize;
-import gui.AttackThread;
 import gui.Resources;
 
 import java.util.*;
@@ -26,7 +27,14 @@ public class Game {
     protected Player startingPlayer;
     protected Player currentPlayer;
     protected GameInterface gameInterface;
-    protected AttackThread attackThread;
+    protected AGameEventBus eventBus;
+    protected AAttack attack;
+    protected boolean headless;
+    protected int roundLimit;
+    protected AEdgeMode edgeMode = AEdgeMode.NEAREST;
+    protected ARandomSource randomSource;
+    private final Map<ARandomSource.Stream, Random> randoms = new EnumMap<>(ARandomSource.Stream.class);
+    private boolean turnRunning, turnPending;
 
     public List<Player> nextAttackDoubleDices;
 
@@ -38,6 +46,7 @@ public class Game {
         this.mapSize = MapSize.MEDIUM;
         this.players = new LinkedList<>();
         this.nextAttackDoubleDices = new LinkedList<>();
+        this.randomSource = ARandomSource.createUnseeded();
     }
 
     public void addPlayer(Player p) {
@@ -66,6 +75,70 @@ public class Game {
         return mapSize;
     }
 
+    /**
+     * In a headless game every turn of an AI and every attack is played synchronously in the calling thread, without
+     * any delays, threads or score entries. A game with only AI players is then completely played by {@link #start(GameInterface)}.
+     * @param headless if the game should be played headless
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+    /**
+     * @return if the game is played headless
+     * @see #setHeadless(boolean)
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Sets the source of all random numbers of this game (map, player order, AIs and dices), so a game with the same
+     * seed, players and goal is played exactly the same. It must be set before the game starts.
+     * @param randomSource the new source
+     */
+    public void setRandomSource(ARandomSource randomSource) {
+        this.randomSource = randomSource;
+        synchronized (randoms) {
+            randoms.clear();
+        }
+    }
+    public ARandomSource getRandomSource() {
+        return randomSource;
+    }
+
+    /**
+     * @param stream the subsystem
+     * @return the random number generator of the subsystem in this game, every call returns the same object
+     */
+    public Random getRandom(ARandomSource.Stream stream) {
+        synchronized (randoms) {
+            return randoms.computeIfAbsent(stream, randomSource::create);
+        }
+    }
+
+    /**
+     * @param roundLimit the count of rounds after which the game ends without a winner or 0 for no limit
+     */
+    public void setRoundLimit(int roundLimit) {
+        this.roundLimit = roundLimit;
+    }
+    /**
+     * @return the count of rounds after which the game ends without a winner or 0 for no limit
+     */
+    public int getRoundLimit() {
+        return roundLimit;
+    }
+
+    /**
+     * @param edgeMode the way the edges of the map are generated
+     */
+    public void setEdgeMode(AEdgeMode edgeMode) {
+        this.edgeMode = edgeMode;
+    }
+    public AEdgeMode getEdgeMode() {
+        return edgeMode;
+    }
+
     /**
      * @return an independent copy of this game object
      */
@@ -75,6 +148,7 @@ public class Game {
             copy.addPlayer(Player.createPlayer(player.getClass(), player.getName(), player.getColor()));
         }
         copy.setMapSize(getMapSize());
+        copy.setEdgeMode(getEdgeMode());
         try {
             Goal goal = this.goal.getClass().getConstructor().newInstance();
             copy.setGoal(goal);
@@ -85,7 +159,7 @@ public class Game {
         return copy;
     }
 
-    private void generateMap() {
+    protected void generateMap() {
         int mapSizeMultiplier = this.mapSize.ordinal() + 1;
         int playerCount = players.size();
         int numRegions = playerCount * GameConstants.CASTLES_NUMBER_MULTIPLIER * mapSizeMultiplier;
@@ -123,14 +197,20 @@ public class Game {
 
         // Create random player order
         startingPlayer = null;
-        this.gameInterface = gameInterface;
+        this.eventBus = new AGameEventBus(gameInterface);
+        this.gameInterface = eventBus;
+        for(int i = 0; i < players.size(); i++) {
+            if(players.get(i) instanceof AI)
+                ((AI) players.get(i)).setRandom(randomSource.create(ARandomSource.Stream.AI, i));
+        }
+        Random random = getRandom(ARandomSource.Stream.PLAYER_ORDER);
         List<Player> tempList = new ArrayList<>(players);
         playerQueue = new ArrayDeque<>();
         Player p = getPlayerWithFewestCastles();
         tempList.remove(p);
         playerQueue.add(p);
         while(!tempList.isEmpty()) {
-            Player player = tempList.remove((int) (Math.random() * tempList.size()));
+            Player player = tempList.remove(random.nextInt(tempList.size()));
             player.reset();
             playerQueue.add(player);
         }
@@ -159,20 +239,35 @@ public class Game {
         return minPlayer;
     }
 
-    public AttackThread startAttack(Castle source, Castle target, int troopCount) {
+    public AAttack startAttack(Castle source, Castle target, int troopCount) {
         return startAttack(source, target, troopCount, false);
     }
-    public AttackThread startAttack(Castle source, Castle target, int troopCount, boolean fastForward) {
-        if(attackThread != null)
-            return attackThread;
+    /**
+     * Starts an attack. In a headless game, a game with only AI players or with fast forward the attack is resolved
+     * instantly in the calling thread, so it is over when this method returns. Otherwise it is animated in its own thread.
+     * @param source the attacking castle
+     * @param target the attacked castle
+     * @param troopCount the count of troops to attack with
+     * @param fastForward if the attack should be resolved instantly
+     * @return the attack, the running attack if there already is one or null if the attack isn't possible
+     */
+    public AAttack startAttack(Castle source, Castle target, int troopCount, boolean fastForward) {
+        if(attack != null)
+            return attack;
 
         if(source.getOwner() == target.getOwner() || troopCount < 1)
             return null;
 
-        attackThread = new AttackThread(this, nextAttackDoubleDices, source, target, troopCount, fastForward);
-        attackThread.start();
+        boolean instant = fastForward || headless || players.stream().allMatch(p -> p instanceof AI);
+        AAttack attack = new AAttack(this, nextAttackDoubleDices, source, target, troopCount, instant);
+        this.attack = attack;
         gameInterface.onAttackStarted(source, target, troopCount);
-        return attackThread;
+        if(instant) {
+            attack.run();
+        } else {
+            attack.start();
+        }
+        return attack;
     }
 
     public void doAttack(Castle attackerCastle, Castle defenderCastle, int[] rollAttacker, int[] rollDefender) {
@@ -229,7 +324,7 @@ public class Game {
     public void stopAttack(Player doubleDicesPlayer) {
         if(doubleDicesPlayer != null)
             nextAttackDoubleDices.remove(doubleDicesPlayer);
-        this.attackThread = null;
+        this.attack = null;
         this.gameInterface.onAttackStopped();
     }
 
@@ -241,8 +336,8 @@ public class Game {
         return gameMap.getCastles().stream().noneMatch(c -> c.getOwner() == null);
     }
 
-    public AttackThread getAttackThread() {
-        return this.attackThread;
+    public AAttack getAttack() {
+        return this.attack;
     }
 
     public void chooseCastle(Castle castle, Player player) {
@@ -286,7 +381,7 @@ public class Game {
             addScore(goal.getWinner(), 150);
 
         Resources resources = Resources.getInstance();
-        if(!training) {
+        if(!training && !headless) {
             for (Player player : players) {
                 resources.addScoreEntry(new ScoreEntry(player, goal));
             }
@@ -296,6 +391,26 @@ public class Game {
     }
 
     public void nextTurn() {
+        if(!headless) {
+            doNextTurn();
+            return;
+        }
+        // an AI calls this method at the end of its synchronous turn, so the turns are played in a loop instead of recursively
+        turnPending = true;
+        if(turnRunning)
+            return;
+        turnRunning = true;
+        try {
+            while(turnPending && !isOver) {
+                turnPending = false;
+                doNextTurn();
+            }
+        } finally {
+            turnRunning = false;
+        }
+    }
+
+    private void doNextTurn() {
 
         if(goal.isCompleted()) {
             endGame();
@@ -331,6 +446,12 @@ public class Game {
             gameInterface.onNewRound(round);
         }
 
+        if(roundLimit > 0 && round > roundLimit) {
+            isOver = true;
+            gameInterface.onGameOver(null);
+            return;
+        }
+
         int numRegions = currentPlayer.getNumRegions(this);
 
         int addTroops = 0;
@@ -439,7 +560,17 @@ public class Game {
         return this.isOver;
     }
 
+    /**
+     * @return the game interface, whose callbacks publish events on the {@link #getEventBus() event bus}
+     */
     public GameInterface getGameInterface(){
         return gameInterface;
     }
+
+    /**
+     * @return the event bus of the game, to which further listeners can subscribe, or null before the start
+     */
+    public AGameEventBus getEventBus(){
+        return eventBus;
+    }
 }
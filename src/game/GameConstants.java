@@ -5,6 +5,7 @@ import game.goals.AClashOfArmiesGoal;
 import game.goals.AFlagEmpireGoal;
 import game.goals.ConquerGoal;
 import game.players.ABasicAI;
+import game.players.AMCTSAI;
 import game.players.BasicAI;
 import game.players.Human;
 
@@ -43,7 +44,8 @@ public class GameConstants {
     public static final Class<?>[] PLAYER_TYPES = {
         Human.class,
         BasicAI.class,
-        ABasicAI.class
+        ABasicAI.class,
+        AMCTSAI.class
     };
 
     public static final int MAX_EDGE_COUNT_CASTLES = 4;
@@ -5,13 +5,13 @@ import de.teast.AClustering;
 import de.teast.AConstants;
 import de.teast.APath;
 import de.teast.ARangePathFinding;
-import de.teast.aai.AAIMethods;
 import de.teast.aextensions.ajoker.AJoker;
 import de.teast.agui.ATroopBuyPanel;
 import de.teast.agui.ATroopCountPanel;
 import de.teast.agui.ATroopMovePanel;
 import de.teast.atroops.ATroop;
 import de.teast.atroops.ATroops;
+import de.teast.autils.ARandomSource;
 import de.teast.autils.ATriplet;
 import game.Goal;
 import game.Player;
@@ -24,7 +24,6 @@ import javafx.util.Pair;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -107,9 +106,11 @@ public class AClashOfArmiesGoal extends Goal {
      * @param destination the destination castle
      */
     public void generatePath(Castle source, Castle destination){
-        int stopCount = ThreadLocalRandom.current().nextInt((int)(AConstants.MIN_STOP_COUNT * (AConstants.STOP_COUNT_PLAYER_MULTIPLIER * getGame().getPlayers().size())),
-                                                            (int)((AConstants.MAX_STOP_COUNT + 1) * (AConstants.STOP_COUNT_PLAYER_MULTIPLIER * getGame().getPlayers().size())));
-        getPath().generateStops(source, destination, stopCount,getGame().getMap().getScale());
+        Random random = getGame().getRandom(ARandomSource.Stream.PATHS);
+        int minStopCount = (int)(AConstants.MIN_STOP_COUNT * (AConstants.STOP_COUNT_PLAYER_MULTIPLIER * getGame().getPlayers().size()));
+        int maxStopCount = (int)((AConstants.MAX_STOP_COUNT + 1) * (AConstants.STOP_COUNT_PLAYER_MULTIPLIER * getGame().getPlayers().size()));
+        int stopCount = minStopCount + random.nextInt(maxStopCount - minStopCount);
+        getPath().generateStops(source, destination, stopCount,getGame().getMap().getScale(), random);
     }
     /**
      * generate all paths between the castles
@@ -127,8 +128,8 @@ public class AClashOfArmiesGoal extends Goal {
         int pathCount;
         List<ATriplet<Castle, Castle, Integer>> pairCount = new LinkedList<>();
         for(Pair<Castle, Castle> pair : pairs){
-            pathCount = ThreadLocalRandom.current().nextInt(AConstants.MIN_PATH_COUNT_PER_CASTLES,
-                                                            AConstants.MAX_PATH_COUNT_PER_CASTLES + 1);
+            pathCount = AConstants.MIN_PATH_COUNT_PER_CASTLES
+                    + getGame().getRandom(ARandomSource.Stream.PATHS).nextInt(AConstants.MAX_PATH_COUNT_PER_CASTLES - AConstants.MIN_PATH_COUNT_PER_CASTLES + 1);
             pairCount.add(new ATriplet<>(pair.getKey(), pair.getValue(), pathCount));
         }
 
@@ -186,7 +187,7 @@ public class AClashOfArmiesGoal extends Goal {
         List<Kingdom> kingdomList = new LinkedList<>();
         Kingdom kingdom;
         int i=0;
-        for(Castle base : AClustering.generateBases(getGame().getPlayers(), getGame().getMap().getSize())){
+        for(Castle base : AClustering.generateBases(getGame().getPlayers(), getGame().getMap().getSize(), getGame().getRandom(ARandomSource.Stream.BASES))){
             if(base.getKingdom() != null) {
                 kingdom = base.getKingdom();
             }else {
@@ -652,7 +653,7 @@ public class AClashOfArmiesGoal extends Goal {
         if(castle.getOwner() == null)
             return null;
         List<Castle> returnList = new LinkedList<>();
-        for(Castle c : getCastlesInRange(castle, range)){
+        for(Castle c : getPath().getHopDistances().getCastlesInRange(castle, range)){
             if(c.getOwner() != castle.getOwner() && c.getOwner() != null){
                 returnList.add(c);
             }
@@ -662,36 +663,10 @@ public class AClashOfArmiesGoal extends Goal {
     /**
      * @param castle the castle from where te range starts
      * @param range the range castles must be in
-     * @return all castles which are in range
+     * @return all castles which are in range, ordered by range
      */
     public Set<Castle> getCastlesInRange(Castle castle, int range){
-        if(range <= 0)
-            return new HashSet<>();
-        Set<Castle> castleSet = getCastlesInRangeHelper(castle, range, new HashSet<>());
-        castleSet.remove(castle);
-        return castleSet;
-    }
-    /**
-     * helper method for {@link #getCastlesInRange(Castle, int)}
-     * @param currentCastle the current castle
-     * @param rangeLeft the range which is left
-     * @param castleSet the passed castles
-     * @return the passed castles
-     *
-     * @see #getCastlesInRange(Castle, int)
-     */
-    private Set<Castle> getCastlesInRangeHelper(Castle currentCastle, int rangeLeft, Set<Castle> castleSet){
-        if(rangeLeft == 0) {
-            castleSet.add(currentCastle);
-        }else if(rangeLeft > 0) {
-            castleSet.add(currentCastle);
-            for(Castle neighbour : AAIMethods.getAllNeighbours(getGame().getMap().getGraph(), currentCastle)){
-                if(!castleSet.contains(neighbour)){
-                    getCastlesInRangeHelper(neighbour, rangeLeft-1, castleSet);
-                }
-            }
-        }
-        return castleSet;
+        return new LinkedHashSet<>(getPath().getHopDistances().getCastlesInRange(castle, range));
     }
 
     /**
@@ -10,6 +10,7 @@ import game.map.MapSize;
 import game.players.Human;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +18,7 @@ import java.util.stream.Collectors;
  */
 public class AFlagEmpireGoal extends Goal {
     Map<Castle, Player> flags = new HashMap<>();
+    private List<Consumer<Castle>> flagListeners = new LinkedList<>();
 
     public AFlagEmpireGoal(){
         super("Flaggen Imperium", "Der Spieler, welcher am Ende die meisten Flaggen hat gewinnt. Sollten 2 oder mehr Spieler die gleiche Anzahl an Flaggen haben, gewinnt der Spieler mit mehr Punkten");
@@ -139,9 +141,24 @@ public class AFlagEmpireGoal extends Goal {
         if(isFlagSet(castle) || player.getPoints() < AConstants.FLAG_POINTS)
             return false;
         flags.put(castle, player);
+        for(Consumer<Castle> listener : flagListeners)
+            listener.accept(castle);
         player.addPoints(-AConstants.FLAG_POINTS);
         getGame().getGameInterface().onLogText("%PLAYER% platziert eine Flagge auf " + castle.getName() + " für " + AConstants.FLAG_POINTS + " Punkte.", player);
         getGame().getGameInterface().onUpdate();
         return true;
     }
+
+    /**
+     * @param listener gets called with the castle every time a flag was set
+     */
+    public void addFlagListener(Consumer<Castle> listener){
+        flagListeners.add(listener);
+    }
+    /**
+     * @param listener the listener to remove
+     */
+    public void removeFlagListener(Consumer<Castle> listener){
+        flagListeners.remove(listener);
+    }
 }
@@ -0,0 +1,127 @@
+package game.map;
+
+import base.Graph;
+import base.Node;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The distances between all castles of a map, indexed by {@link Node#getIndex()}. Up to {@link #MATRIX_CASTLES}
+ * castles every distance is computed on its first use and stored in a packed {@code double[]} triangle matrix. On larger
+ * maps only the rows of the castles, whose nearest castles are searched, are stored, the other distances are computed
+ * on every use. The distances are stored as doubles, so they are equal to {@link Castle#distance(Castle)}.
+ *
+ * The distances aren't synchronized, like the {@link ARegionIndex}: they are only used by the thread, which generates
+ * the map, and then by the thread of the current turn.
+ * @author Alexander Muth
+ *
+ * @see GameMap#getDistances()
+ */
+public class ACastleDistances {
+    private static final int MATRIX_CASTLES = 2048; // a matrix of 2048 castles takes 16 MB
+
+    private final Graph<Castle> graph;
+    private final int nodeCount;
+    private final double[] matrix; // the distance of a > b at a * (a - 1) / 2 + b, NaN until computed, or null on a large map
+    private final double[][] rows; // the distances of a castle to all castles or null on a small map
+
+    /**
+     * @param graph the graph, whose castles must not move as long as this object is used
+     */
+    public ACastleDistances(Graph<Castle> graph) {
+        this.graph = graph;
+        this.nodeCount = graph.getNodes().size();
+        if (nodeCount <= MATRIX_CASTLES) {
+            matrix = new double[nodeCount * (nodeCount - 1) / 2];
+            Arrays.fill(matrix, Double.NaN);
+            rows = null;
+        } else {
+            matrix = null;
+            rows = new double[nodeCount][];
+        }
+    }
+
+    /**
+     * @return the distance between the castles, which is computed, if a castle isn't part of the graph
+     */
+    public double getDistance(Castle castleA, Castle castleB) {
+        int a = indexOf(castleA), b = indexOf(castleB);
+        if (a < 0 || b < 0)
+            return castleA.distance(castleB);
+        return getDistance(a, b);
+    }
+
+    /**
+     * @param a the index of the node of the first castle
+     * @param b the index of the node of the second castle
+     * @return the distance between the castles
+     */
+    public double getDistance(int a, int b) {
+        if (a == b)
+            return 0;
+        if (matrix == null) {
+            double[] row = rows[a];
+            return row != null ? row[b] : computeDistance(a, b);
+        }
+        int index = a > b ? a * (a - 1) / 2 + b : b * (b - 1) / 2 + a;
+        double distance = matrix[index];
+        if (Double.isNaN(distance)) {
+            distance = computeDistance(a, b);
+            matrix[index] = distance;
+        }
+        return distance;
+    }
+
+    private double computeDistance(int a, int b) {
+        List<Node<Castle>> nodes = graph.getNodes();
+        return nodes.get(a).getValue().distance(nodes.get(b).getValue());
+    }
+
+    /**
+     * Like {@link Castle#getNearest(List)}
+     * @param castle the castle
+     * @param castles the castles
+     * @return the first castle of the list with the smallest distance to castle or null if the list is empty
+     */
+    public Castle getNearest(Castle castle, List<Castle> castles) {
+        int source = indexOf(castle);
+        if (source < 0)
+            return castle.getNearest(castles);
+        double[] row = matrix == null ? getRow(source) : null;
+        Castle nearest = null;
+        double smallestDistance = Double.MAX_VALUE;
+        for (Castle other : castles) {
+            int index = indexOf(other);
+            double distance = index < 0 ? castle.distance(other) : row != null ? row[index] : getDistance(source, index);
+            if (nearest == null || distance < smallestDistance) {
+                smallestDistance = distance;
+                nearest = other;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * @return the count of castles of the graph when this object was created
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private double[] getRow(int source) {
+        double[] row = rows[source];
+        if (row == null) {
+            row = new double[nodeCount];
+            for (int i = 0; i < nodeCount; i++)
+                row[i] = computeDistance(source, i);
+            rows[source] = row;
+        }
+        return row;
+    }
+
+    private int indexOf(Castle castle) {
+        Node<Castle> node = graph.getNode(castle);
+        return (node == null || node.getIndex() >= nodeCount) ? -1 : node.getIndex();
+    }
+}
@@ -0,0 +1,247 @@
+package game.map;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Uniform grid over the locations of castles for radius and nearest neighbour queries. The castles are identified by
+ * their index in the order they were added. Among castles with the same distance the one with the smallest index is
+ * nearer, so a query returns the same castle as a linear scan over the list of castles, which keeps the first of equal
+ * distances.
+ *
+ * A nearest neighbour query scans the cells in rings around the cell of the location, until no unscanned cell can
+ * contain a nearer castle. With about one castle per cell this takes constant time for evenly distributed castles.
+ * @author Alexander Muth
+ */
+public class ACastleGrid {
+    private static final int[] EMPTY = new int[0];
+
+    private final List<Castle> castles = new ArrayList<>();
+    private final int minX, minY, columns, rows;
+    private final double cellSize;
+    private final int[] cellHeads; // the last added castle of every cell or -1
+    private int[] next = new int[16]; // the castle added before in the same cell or -1
+    private boolean[] removed = new boolean[16];
+    private int size;
+
+    /**
+     * Creates an empty grid
+     * @param bounds the area of the castles, castles outside are stored in the border cells
+     * @param cellSize the edge length of a cell, e.g. the radius of the radius queries
+     */
+    public ACastleGrid(Rectangle bounds, double cellSize) {
+        this.minX = bounds.x;
+        this.minY = bounds.y;
+        this.cellSize = Math.max(1, cellSize);
+        this.columns = Math.max(1, (int) Math.ceil(bounds.width / this.cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(bounds.height / this.cellSize));
+        this.cellHeads = new int[columns * rows];
+        Arrays.fill(cellHeads, -1);
+    }
+
+    /**
+     * Creates a grid with about one castle per cell
+     * @param castles the castles, their indices are the indices in the list
+     */
+    public ACastleGrid(List<Castle> castles) {
+        this(getBounds(castles), getCellSize(castles));
+        for(Castle castle : castles)
+            add(castle);
+    }
+
+    private static Rectangle getBounds(List<Castle> castles) {
+        if(castles.isEmpty())
+            return new Rectangle(0, 0, 1, 1);
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for(Castle castle : castles) {
+            Point location = castle.getLocationOnMap();
+            minX = Math.min(minX, location.x);
+            minY = Math.min(minY, location.y);
+            maxX = Math.max(maxX, location.x);
+            maxY = Math.max(maxY, location.y);
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    private static double getCellSize(List<Castle> castles) {
+        Rectangle bounds = getBounds(castles);
+        return Math.sqrt((double) bounds.width * bounds.height / Math.max(1, castles.size()));
+    }
+
+    /**
+     * @param castle the castle
+     * @return the index of the castle
+     */
+    public int add(Castle castle) {
+        int index = castles.size();
+        castles.add(castle);
+        if(index == next.length) {
+            next = Arrays.copyOf(next, index * 2);
+            removed = Arrays.copyOf(removed, index * 2);
+        }
+        Point location = castle.getLocationOnMap();
+        int cell = row(location.y) * columns + column(location.x);
+        next[index] = cellHeads[cell];
+        cellHeads[cell] = index;
+        size++;
+        return index;
+    }
+
+    /**
+     * Removes the castle from all further queries, its index stays the same
+     * @param index the index of the castle
+     */
+    public void remove(int index) {
+        if(!removed[index]) {
+            removed[index] = true;
+            size--;
+        }
+    }
+
+    public Castle get(int index) {
+        return castles.get(index);
+    }
+
+    /**
+     * @return the count of castles, which were not removed
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param castle the castle
+     * @param radius the radius
+     * @return if a castle of the grid has a distance smaller than the radius to the castle
+     */
+    public boolean containsWithin(Castle castle, double radius) {
+        Point location = castle.getLocationOnMap();
+        int column0 = column(location.x - radius), column1 = column(location.x + radius);
+        int row0 = row(location.y - radius), row1 = row(location.y + radius);
+        for(int row = row0; row <= row1; row++) {
+            for(int column = column0; column <= column1; column++) {
+                for(int i = cellHeads[row * columns + column]; i != -1; i = next[i]) {
+                    if(!removed[i] && castles.get(i).distance(castle) < radius)
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param area the area
+     * @return the castles, which were not removed and whose locations are inside the area
+     */
+    public List<Castle> getInside(Rectangle area) {
+        List<Castle> inside = new ArrayList<>();
+        int column0 = column(area.x), column1 = column(area.x + area.width);
+        int row0 = row(area.y), row1 = row(area.y + area.height);
+        for(int row = row0; row <= row1; row++) {
+            for(int column = column0; column <= column1; column++) {
+                for(int i = cellHeads[row * columns + column]; i != -1; i = next[i]) {
+                    if(!removed[i] && area.contains(castles.get(i).getLocationOnMap()))
+                        inside.add(castles.get(i));
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * @param castle the castle
+     * @param excluded the indices, which are skipped
+     * @return the index of the nearest castle or -1, if there is none
+     */
+    public int getNearest(Castle castle, IntPredicate excluded) {
+        int[] nearest = getNearest(castle, 1, excluded);
+        return nearest.length == 0 ? -1 : nearest[0];
+    }
+
+    /**
+     * @param castle the castle
+     * @param count the maximum count of castles
+     * @param excluded the indices, which are skipped
+     * @return the indices of the nearest castles sorted by distance, at most count
+     */
+    public int[] getNearest(Castle castle, int count, IntPredicate excluded) {
+        count = Math.min(count, size);
+        if(count <= 0)
+            return EMPTY;
+        int[] best = new int[count];
+        double[] bestDistances = new double[count];
+        int found = 0;
+
+        Point location = castle.getLocationOnMap();
+        int column = column(location.x), row = row(location.y);
+        int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+        for(int ring = 0; ring <= maxRing; ring++) {
+            for(int y = row - ring; y <= row + ring; y++) {
+                if(y < 0 || y >= rows)
+                    continue;
+                boolean edgeRow = y == row - ring || y == row + ring;
+                for(int x = column - ring; x <= column + ring; x += edgeRow ? 1 : 2 * ring) {
+                    if(x >= 0 && x < columns)
+                        found = scanCell(y * columns + x, castle, excluded, best, bestDistances, found);
+                    if(ring == 0)
+                        break;
+                }
+            }
+            if(found == count && bestDistances[count - 1] < getUnscannedDistance(location, column, row, ring))
+                break;
+        }
+        return found == count ? best : Arrays.copyOf(best, found);
+    }
+
+    /**
+     * Inserts the castles of the cell into the sorted arrays of the nearest castles
+     * @return the new count of found castles
+     */
+    private int scanCell(int cell, Castle castle, IntPredicate excluded, int[] best, double[] bestDistances, int found) {
+        for(int i = cellHeads[cell]; i != -1; i = next[i]) {
+            if(removed[i] || excluded.test(i))
+                continue;
+            double distance = castle.distance(castles.get(i));
+            int position = found;
+            while(position > 0 && (bestDistances[position - 1] > distance
+                    || (bestDistances[position - 1] == distance && best[position - 1] > i)))
+                position--;
+            if(position == best.length)
+                continue;
+            int moved = Math.min(found, best.length - 1) - position;
+            System.arraycopy(best, position, best, position + 1, moved);
+            System.arraycopy(bestDistances, position, bestDistances, position + 1, moved);
+            best[position] = i;
+            bestDistances[position] = distance;
+            found = Math.min(found + 1, best.length);
+        }
+        return found;
+    }
+
+    /**
+     * @return the smallest distance of the location to a cell outside the scanned rings
+     */
+    private double getUnscannedDistance(Point location, int column, int row, int ring) {
+        double distance = Double.POSITIVE_INFINITY;
+        if(column - ring > 0)
+            distance = Math.min(distance, location.x - (minX + (column - ring) * cellSize));
+        if(column + ring < columns - 1)
+            distance = Math.min(distance, minX + (column + ring + 1) * cellSize - location.x);
+        if(row - ring > 0)
+            distance = Math.min(distance, location.y - (minY + (row - ring) * cellSize));
+        if(row + ring < rows - 1)
+            distance = Math.min(distance, minY + (row + ring + 1) * cellSize - location.y);
+        return Math.max(0, distance);
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - minX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - minY) / cellSize)));
+    }
+}
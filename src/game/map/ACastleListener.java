@@ -0,0 +1,23 @@
+package game.map;
+
+import game.Player;
+
+/**
+ * Listener for state changes of a {@link Castle}, see {@link Castle#addListener(ACastleListener)}
+ * @author Alexander Muth
+ */
+public interface ACastleListener {
+    /**
+     * Called after the owner of the castle has changed
+     * @param castle the castle
+     * @param oldOwner the owner before the change
+     */
+    default void ownerChanged(Castle castle, Player oldOwner){}
+
+    /**
+     * Called after the troop count of the castle has changed
+     * @param castle the castle
+     * @param oldTroopCount the troop count before the change
+     */
+    default void troopCountChanged(Castle castle, int oldTroopCount){}
+}
@@ -0,0 +1,181 @@
+package game.map;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the sites of new castles. A castle can be placed at a location, if the pixel at the location plus an offset
+ * (e.g. the middle of its tile) is buildable and no other castle is nearer than the spacing.
+ *
+ * The placed castles are stored in an {@link ACastleGrid} with the spacing as cell size. A search skips all rows of a
+ * column, which are inside the circle around a nearby castle, at once. If the buildable pixels are precomputed (see
+ * {@link #precompute()}), they are stored in a bitmask column by column and a summed-area table counts the buildable
+ * pixels of the words of the bitmask, so a search jumps directly to the next buildable pixel of a column and skips an
+ * area without buildable pixels (e.g. water) in constant time. Otherwise the buildable pixels are only tested where a
+ * castle could be placed.
+ * @author Alexander Muth
+ */
+public class ACastleSites {
+    /**
+     * Decides, if a castle can be built on a pixel
+     */
+    public interface Buildable {
+        boolean isBuildable(int x, int y);
+    }
+
+    private final int width, height, offsetX, offsetY;
+    private final double spacing;
+    private final Buildable buildable;
+    private final ACastleGrid occupied;
+    private final int words; // the count of words of the bitmask per column
+    private long[] mask; // bit y % 64 of word x * words + y / 64 is set, if the pixel (x,y) is buildable
+    private int[] sums; // the count of buildable pixels in the words [0,w) of the columns [0,x) at w * (width + 1) + x
+
+    /**
+     * @param width the width of the map in pixels
+     * @param height the height of the map in pixels
+     * @param offsetX the x offset of the tested pixel to the location of a castle
+     * @param offsetY the y offset of the tested pixel to the location of a castle
+     * @param spacing the minimum distance between two castles
+     * @param buildable decides, which pixels are buildable
+     */
+    public ACastleSites(int width, int height, int offsetX, int offsetY, double spacing, Buildable buildable) {
+        this.width = width;
+        this.height = height;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.spacing = spacing;
+        this.buildable = buildable;
+        this.occupied = new ACastleGrid(new Rectangle(0, 0, width, height), spacing);
+        this.words = (height + 63) / 64;
+    }
+
+    /**
+     * Tests every pixel once in parallel and stores the result in the bitmask and the summed-area table. Should be
+     * called, if testing a pixel is expensive or most of the map is not buildable.
+     */
+    public void precompute() {
+        long[] mask = new long[width * words];
+        // blocks of 64 columns, so the pixels of a row are tested one after another
+        IntStream.range(0, (width + 63) / 64).parallel().forEach(block -> {
+            int x1 = Math.min(width, (block + 1) * 64);
+            for (int y = 0; y < height; y++) {
+                for (int x = block * 64; x < x1; x++) {
+                    if (buildable.isBuildable(x, y))
+                        mask[x * words + (y >> 6)] |= 1L << (y & 63);
+                }
+            }
+        });
+
+        int[] sums = new int[(words + 1) * (width + 1)];
+        for (int w = 0; w < words; w++) {
+            int rowSum = 0;
+            for (int x = 0; x < width; x++) {
+                rowSum += Long.bitCount(mask[x * words + w]);
+                sums[(w + 1) * (width + 1) + x + 1] = sums[w * (width + 1) + x + 1] + rowSum;
+            }
+        }
+        this.mask = mask;
+        this.sums = sums;
+    }
+
+    /**
+     * Prevents further castles nearer than the spacing to the castle
+     * @param castle the placed castle
+     */
+    public void add(Castle castle) {
+        occupied.add(castle);
+    }
+
+    /**
+     * Searches the locations of the area column by column from the right to the left and every column from the bottom
+     * to the top
+     * @return the first location in this order, where a castle can be placed, or null if there is none
+     */
+    public Point find(int x0, int y0, int x1, int y1) {
+        x0 = Math.max(x0, -offsetX);
+        y0 = Math.max(y0, -offsetY);
+        x1 = Math.min(x1, width - 1 - offsetX);
+        y1 = Math.min(y1, height - 1 - offsetY);
+        if (x0 > x1 || y0 > y1 || (mask != null && countWords(x0, y0, x1, y1) == 0))
+            return null;
+
+        int reach = (int) Math.ceil(spacing);
+        List<Castle> nearby = occupied.getInside(new Rectangle(x0 - reach, y0 - reach,
+                x1 - x0 + 2 * reach + 1, y1 - y0 + 2 * reach + 1));
+        List<Point> column = new ArrayList<>();
+        for (int x = x1; x >= x0; x--) {
+            column.clear();
+            for (Castle castle : nearby) {
+                Point location = castle.getLocationOnMap();
+                if (Math.abs(location.x - x) < spacing)
+                    column.add(location);
+            }
+            int y = findInColumn(x, y0, y1, column);
+            if (y >= y0)
+                return new Point(x, y);
+        }
+        return null;
+    }
+
+    /**
+     * @param column the locations of the castles, which may be nearer than the spacing to a location of the column
+     * @return the greatest y between y0 and y1, where a castle can be placed, or a value smaller than y0
+     */
+    private int findInColumn(int x, int y0, int y1, List<Point> column) {
+        Point point = new Point(x, y1);
+        while (point.y >= y0) {
+            Point blocking = null;
+            for (Point location : column) {
+                if (location.distance(point) < spacing) {
+                    blocking = location;
+                    break;
+                }
+            }
+            if (blocking != null) {
+                // the rows up to the top of the circle around the castle are blocked, the next row is tested again
+                double halfChord = Math.sqrt(spacing * spacing - Math.pow(blocking.x - x, 2));
+                point.y = Math.min(point.y - 1, (int) Math.ceil(blocking.y - halfChord));
+            } else if (mask != null) {
+                int y = findBuildable(x + offsetX, point.y + offsetY, y0 + offsetY) - offsetY;
+                if (y == point.y)
+                    return y;
+                point.y = y;
+            } else if (buildable.isBuildable(x + offsetX, point.y + offsetY)) {
+                return point.y;
+            } else {
+                point.y--;
+            }
+        }
+        return point.y;
+    }
+
+    /**
+     * @return the greatest y between bottom and top of a buildable pixel of the column or a value smaller than top
+     */
+    private int findBuildable(int x, int bottom, int top) {
+        for (int w = bottom >> 6; w >= top >> 6; w--) {
+            long bits = mask[x * words + w];
+            if (w == bottom >> 6)
+                bits &= -1L >>> (63 - (bottom & 63));
+            if (bits != 0) {
+                int y = (w << 6) + 63 - Long.numberOfLeadingZeros(bits);
+                return y >= top ? y : top - 1;
+            }
+        }
+        return top - 1;
+    }
+
+    /**
+     * @return the count of buildable pixels in the words of the bitmask, which contain the tested pixels of the area
+     */
+    private int countWords(int x0, int y0, int x1, int y1) {
+        int w0 = (y0 + offsetY) >> 6, w1 = ((y1 + offsetY) >> 6) + 1;
+        x0 += offsetX;
+        x1 += offsetX + 1;
+        return sums[w1 * (width + 1) + x1] - sums[w0 * (width + 1) + x1] - sums[w1 * (width + 1) + x0]
+                + sums[w0 * (width + 1) + x0];
+    }
+}
@@ -0,0 +1,18 @@
+package game.map;
+
+/**
+ * The ways to generate the edges of a map, see {@link game.Game#setEdgeMode(AEdgeMode)}
+ * @author Alexander Muth
+ */
+public enum AEdgeMode {
+    /**
+     * A line through all castles of a kingdom to the nearest remaining castle and random edges to the nearest castles,
+     * the kingdoms are connected in the same way
+     */
+    NEAREST,
+    /**
+     * The relative neighbourhood graph of a Delaunay triangulation of all castles and random further edges of the
+     * triangulation inside the kingdoms. The edges never cross and every castle is connected.
+     */
+    DELAUNAY
+}
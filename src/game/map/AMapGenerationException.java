@@ -0,0 +1,14 @@
+package game.map;
+
+/**
+ * Thrown by {@link GameMap#generateRandomMap}, if no valid map could be generated, e.g. if the castles couldn't be
+ * connected. A caller can try again with another seed.
+ * @author Alexander Muth
+ */
+public class AMapGenerationException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public AMapGenerationException(String message) {
+        super(message);
+    }
+}
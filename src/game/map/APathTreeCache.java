@@ -0,0 +1,183 @@
+package game.map;
+
+import base.Edge;
+import base.Graph;
+import game.Game;
+import game.Player;
+import game.goals.AFlagEmpireGoal;
+import gui.components.MapPanel;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Cache for finished {@link PathFinding} runs, keyed by source castle, player, {@link MapPanel.Action} and goal mode.
+ * A cached path finding holds the complete predecessor tree of its source, so a path to any target is only an array walk.
+ * The first request of a key is answered with a targeted A* query ({@link PathFinding#findPath(Castle)}), the tree is
+ * only built and cached, when the key is requested again.
+ *
+ * Entries are dropped when their input changes: an owner change affects every mode except clash of armies (where every
+ * castle is passable), a troop count dropping to or rising above zero and a newly set flag only affect flag empire paths.
+ * @author Alexander Muth
+ */
+public class APathTreeCache implements ACastleListener {
+    /**
+     * The goal dependent rules of {@link PathFinding}
+     */
+    public enum GoalMode {
+        DEFAULT,
+        CLASH_OF_ARMIES,
+        FLAG_EMPIRE
+    }
+
+    private static class Key {
+        private final Castle source;
+        private final Player player;
+        private final MapPanel.Action action;
+        private final GoalMode goalMode;
+
+        Key(Castle source, Player player, MapPanel.Action action, GoalMode goalMode){
+            this.source = source;
+            this.player = player;
+            this.action = action;
+            this.goalMode = goalMode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return source == key.source && player == key.player && action == key.action && goalMode == key.goalMode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(source), System.identityHashCode(player), action, goalMode);
+        }
+    }
+
+    private final Map<Key, PathFinding> pathTrees = new HashMap<>();
+    private final Set<Key> queried = new HashSet<>(); // keys answered by a targeted query, but without a tree
+    private final Consumer<Castle> flagListener = castle -> invalidate(GoalMode.FLAG_EMPIRE);
+    private Game game;
+    private Graph<Castle> graph;
+    private AFlagEmpireGoal flagEmpireGoal;
+    private long hits, misses;
+
+    /**
+     * @param game the game
+     * @param source the source castle
+     * @param target the target castle
+     * @param action the action, which decides the passable edges
+     * @param player the current player
+     * @return the shortest path from {@code source} to {@code target} or null if there is none
+     * @see PathFinding#getPath(Castle)
+     */
+    public synchronized List<Edge<Castle>> getPath(Game game, Castle source, Castle target, MapPanel.Action action, Player player){
+        bind(game);
+        Key key = new Key(source, player, action, getGoalMode(game));
+        PathFinding pathFinding = pathTrees.get(key);
+        if(pathFinding != null){
+            hits++;
+            return pathFinding.getPath(target);
+        }
+        misses++;
+        pathFinding = new PathFinding(graph, source, action, player);
+        pathFinding.clashOfArmiesGoal = game.isClashOfArmiesGoal();
+        pathFinding.flagEmpireGoal = game.flagEmpireGoal();
+        if(queried.add(key))
+            return pathFinding.findPath(target);
+        // the key is reused, e.g. the mouse moves over several targets, so the tree pays off
+        queried.remove(key);
+        pathFinding.run();
+        pathTrees.put(key, pathFinding);
+        return pathFinding.getPath(target);
+    }
+
+    /**
+     * @return how many requests were answered with a cached path tree
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return how many requests had to run a new path finding, targeted or for the whole tree
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Drops all cached path trees
+     */
+    public synchronized void clear(){
+        pathTrees.clear();
+        queried.clear();
+    }
+
+    @Override
+    public void ownerChanged(Castle castle, Player oldOwner) {
+        invalidate(GoalMode.DEFAULT, GoalMode.FLAG_EMPIRE);
+    }
+
+    @Override
+    public void troopCountChanged(Castle castle, int oldTroopCount) {
+        if((oldTroopCount <= 0) != (castle.getTroopCount() <= 0) && flagEmpireGoal != null && flagEmpireGoal.isFlagSet(castle))
+            invalidate(GoalMode.FLAG_EMPIRE);
+    }
+
+    private synchronized void invalidate(GoalMode... goalModes){
+        if(pathTrees.isEmpty() && queried.isEmpty())
+            return;
+        for(GoalMode goalMode : goalModes){
+            pathTrees.keySet().removeIf(key -> key.goalMode == goalMode);
+            queried.removeIf(key -> key.goalMode == goalMode);
+        }
+    }
+
+    /**
+     * Registers the cache at the castles and the goal of the game, if it isn't registered already
+     */
+    private void bind(Game game){
+        Graph<Castle> graph = game.getMap().getGraph();
+        if(this.game == game && this.graph == graph)
+            return;
+        unbind();
+        this.game = game;
+        this.graph = graph;
+        for(Castle castle : graph.getAllValues())
+            castle.addListener(this);
+        this.flagEmpireGoal = game.flagEmpireGoal();
+        if(flagEmpireGoal != null)
+            flagEmpireGoal.addFlagListener(flagListener);
+    }
+
+    private void unbind(){
+        pathTrees.clear();
+        queried.clear();
+        if(graph != null){
+            for(Castle castle : graph.getAllValues())
+                castle.removeListener(this);
+        }
+        if(flagEmpireGoal != null)
+            flagEmpireGoal.removeFlagListener(flagListener);
+        game = null;
+        graph = null;
+        flagEmpireGoal = null;
+    }
+
+    private static GoalMode getGoalMode(Game game){
+        if(game.isClashOfArmiesGoal())
+            return GoalMode.CLASH_OF_ARMIES;
+        else if(game.flagEmpireGoal() != null)
+            return GoalMode.FLAG_EMPIRE;
+        return GoalMode.DEFAULT;
+    }
+}
@@ -0,0 +1,365 @@
+package game.map;
+
+import base.Edge;
+import base.Graph;
+import base.Node;
+import game.Player;
+
+import java.util.*;
+
+/**
+ * Index of the regions of a castle graph. A region is a maximal set of connected castles with the same owner (castles
+ * without owner form regions too). The index is updated by every {@link Castle#setOwner(Player)} and troop change:
+ * the castle leaves its old region and joins the regions of its new owner, which are merged into the largest one.
+ * Only if the old region may have been split (the castle had more than one neighbour in it), the old region is flooded
+ * again, the rest of the graph is never traversed.
+ *
+ * The index of a map is owned by its {@link GameMap} ({@link GameMap#getRegionIndex()}). It isn't synchronized: the
+ * castles of a map are only changed and the index is only queried by the thread of the current turn (an attack is
+ * joined before the turn goes on).
+ * @author Alexander Muth
+ */
+public class ARegionIndex implements ACastleListener {
+
+    /**
+     * A region with its castle indices in no particular order
+     */
+    private static class Region {
+        private final Player owner;
+        private int[] members = new int[4];
+        private int size;
+        private int troopSum;
+
+        Region(Player owner){
+            this.owner = owner;
+        }
+
+        void add(int index, int troopCount){
+            if(size == members.length)
+                members = Arrays.copyOf(members, size * 2);
+            members[size++] = index;
+            troopSum += troopCount;
+        }
+
+        void remove(int index, int troopCount){
+            for(int i = 0; i < size; i++){
+                if(members[i] == index){
+                    members[i] = members[--size];
+                    troopSum -= troopCount;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return the member indices in ascending order
+         */
+        int[] getSortedMembers(){
+            int[] sorted = Arrays.copyOf(members, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private final Castle[] castles;
+    private final Map<Castle, Integer> castleIndices;
+    private final int[] neighbourStart, neighbours; // adjacency of every castle index
+    private final int edgeCount;
+    private final Region[] regionOf;
+    private final Map<Player, Set<Region>> playerRegions = new HashMap<>();
+    private final int[] visited, queue;
+    private int visitStamp;
+
+    /**
+     * Creates an index, which is updated by the castles of the graph until {@link #dispose()} is called
+     * @param graph the castle graph
+     */
+    ARegionIndex(Graph<Castle> graph){
+        this(graph, true);
+    }
+
+    private ARegionIndex(Graph<Castle> graph, boolean listening){
+        List<Node<Castle>> nodes = graph.getNodes();
+        int nodeCount = nodes.size();
+        castles = new Castle[nodeCount];
+        castleIndices = new HashMap<>(nodeCount * 2);
+        for(Node<Castle> node : nodes){
+            castles[node.getIndex()] = node.getValue();
+            castleIndices.putIfAbsent(node.getValue(), node.getIndex());
+        }
+
+        List<Edge<Castle>> edges = graph.getEdges();
+        edgeCount = edges.size();
+        neighbourStart = new int[nodeCount + 1];
+        for(Edge<Castle> edge : edges){
+            if(edge.getNodeA() != edge.getNodeB()){
+                neighbourStart[edge.getNodeA().getIndex() + 1]++;
+                neighbourStart[edge.getNodeB().getIndex() + 1]++;
+            }
+        }
+        for(int i = 0; i < nodeCount; i++)
+            neighbourStart[i + 1] += neighbourStart[i];
+        neighbours = new int[neighbourStart[nodeCount]];
+        int[] next = Arrays.copyOf(neighbourStart, nodeCount);
+        for(Edge<Castle> edge : edges){
+            int a = edge.getNodeA().getIndex(), b = edge.getNodeB().getIndex();
+            if(a != b){
+                neighbours[next[a]++] = b;
+                neighbours[next[b]++] = a;
+            }
+        }
+
+        regionOf = new Region[nodeCount];
+        visited = new int[nodeCount];
+        queue = new int[nodeCount];
+        for(int i = 0; i < nodeCount; i++){
+            if(regionOf[i] == null)
+                flood(i);
+        }
+        if(listening){
+            for(Castle castle : castles)
+                castle.addListener(this);
+        }
+    }
+
+    /**
+     * @param graph the castle graph
+     * @return an index of the current regions of the graph, which isn't updated by changes of the castles
+     */
+    public static ARegionIndex snapshot(Graph<Castle> graph){
+        return new ARegionIndex(graph, false);
+    }
+
+    /**
+     * @return if the index was built for all nodes and edges of the graph
+     */
+    boolean isComplete(Graph<Castle> graph){
+        return castles.length == graph.getNodes().size() && edgeCount == graph.getEdges().size();
+    }
+
+    /**
+     * Stops the updates by the castles
+     */
+    void dispose(){
+        for(Castle castle : castles)
+            castle.removeListener(this);
+    }
+
+    /**
+     * @param player the owner of the regions (may be null)
+     * @return all regions of the player, each with its castles in the order of the graph, the regions ordered by their
+     * first castle
+     */
+    public List<List<Castle>> getRegions(Player player){
+        Set<Region> regions = playerRegions.get(player);
+        if(regions == null)
+            return new LinkedList<>();
+        List<int[]> sortedRegions = new ArrayList<>(regions.size());
+        for(Region region : regions)
+            sortedRegions.add(region.getSortedMembers());
+        sortedRegions.sort(Comparator.comparingInt(members -> members[0]));
+        List<List<Castle>> returnList = new LinkedList<>();
+        for(int[] members : sortedRegions)
+            returnList.add(toCastles(members));
+        return returnList;
+    }
+
+    /**
+     * @param castle the castle
+     * @return the castles of the region containing the castle in the order of the graph (including the castle), an empty
+     * list if the castle isn't part of the graph
+     */
+    public List<Castle> getRegion(Castle castle){
+        Region region = getRegionOf(castle);
+        return region == null ? new LinkedList<>() : toCastles(region.getSortedMembers());
+    }
+
+    /**
+     * @param castle the castle
+     * @return the count of castles in the region of the castle or 0 if the castle isn't part of the graph
+     */
+    public int getRegionSize(Castle castle){
+        Region region = getRegionOf(castle);
+        return region == null ? 0 : region.size;
+    }
+
+    /**
+     * @param castle the castle
+     * @return the sum of the troops in the region of the castle or 0 if the castle isn't part of the graph
+     */
+    public int getRegionTroopSum(Castle castle){
+        Region region = getRegionOf(castle);
+        return region == null ? 0 : region.troopSum;
+    }
+
+    /**
+     * @param castleA the first castle
+     * @param castleB the second castle
+     * @return if both castles are part of the graph and in the same region
+     */
+    public boolean isSameRegion(Castle castleA, Castle castleB){
+        Region region = getRegionOf(castleA);
+        return region != null && region == getRegionOf(castleB);
+    }
+
+    /**
+     * @param player the owner of the regions (may be null)
+     * @return the count of regions of the player
+     */
+    public int getRegionCount(Player player){
+        Set<Region> regions = playerRegions.get(player);
+        return regions == null ? 0 : regions.size();
+    }
+
+    @Override
+    public void ownerChanged(Castle castle, Player oldOwner) {
+        Integer index = castleIndices.get(castle);
+        if(index == null || castles[index] != castle)
+            return;
+        leave(index);
+        join(index);
+    }
+
+    @Override
+    public void troopCountChanged(Castle castle, int oldTroopCount) {
+        Region region = getRegionOf(castle);
+        if(region != null)
+            region.troopSum += castle.getTroopCount() - oldTroopCount;
+    }
+
+    private Region getRegionOf(Castle castle){
+        Integer index = castleIndices.get(castle);
+        return index == null || castles[index] != castle ? null : regionOf[index];
+    }
+
+    /**
+     * Removes the castle from its region and floods the rest of the region again, if it may have been split
+     */
+    private void leave(int index){
+        Region region = regionOf[index];
+        region.remove(index, castles[index].getTroopCount());
+        regionOf[index] = null;
+        if(region.size == 0){
+            removeRegion(region);
+            return;
+        }
+
+        int first = -1;
+        boolean split = false;
+        for(int i = neighbourStart[index]; i < neighbourStart[index + 1]; i++){
+            int neighbour = neighbours[i];
+            if(regionOf[neighbour] == region && neighbour != first){
+                if(first >= 0){
+                    split = true;
+                    break;
+                }
+                first = neighbour;
+            }
+        }
+        if(!split || countReachable(first, region) == region.size)
+            return;
+
+        removeRegion(region);
+        int[] members = region.getSortedMembers();
+        for(int member : members)
+            regionOf[member] = null;
+        for(int member : members){
+            if(regionOf[member] == null)
+                flood(member);
+        }
+    }
+
+    /**
+     * Adds the castle to the regions of its new owner, which are merged into the largest of them
+     */
+    private void join(int index){
+        Player owner = castles[index].getOwner();
+        Region largest = null;
+        for(int i = neighbourStart[index]; i < neighbourStart[index + 1]; i++){
+            Region region = regionOf[neighbours[i]];
+            if(region != null && region.owner == owner && (largest == null || region.size > largest.size))
+                largest = region;
+        }
+        if(largest == null){
+            largest = new Region(owner);
+            addRegion(largest);
+        }
+        largest.add(index, castles[index].getTroopCount());
+        regionOf[index] = largest;
+
+        for(int i = neighbourStart[index]; i < neighbourStart[index + 1]; i++){
+            Region region = regionOf[neighbours[i]];
+            if(region != null && region.owner == owner && region != largest){
+                removeRegion(region);
+                for(int j = 0; j < region.size; j++){
+                    int member = region.members[j];
+                    largest.add(member, castles[member].getTroopCount());
+                    regionOf[member] = largest;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the count of castles of the region, which are reachable from the start within the region
+     */
+    private int countReachable(int start, Region region){
+        int stamp = ++visitStamp, head = 0, tail = 0;
+        visited[start] = stamp;
+        queue[tail++] = start;
+        while(head < tail){
+            int current = queue[head++];
+            for(int i = neighbourStart[current]; i < neighbourStart[current + 1]; i++){
+                int neighbour = neighbours[i];
+                if(visited[neighbour] != stamp && regionOf[neighbour] == region){
+                    visited[neighbour] = stamp;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Creates a new region for all castles without region, which are connected to the start and have its owner
+     */
+    private void flood(int start){
+        Player owner = castles[start].getOwner();
+        Region newRegion = new Region(owner);
+        int head = 0, tail = 0;
+        regionOf[start] = newRegion;
+        queue[tail++] = start;
+        while(head < tail){
+            int current = queue[head++];
+            newRegion.add(current, castles[current].getTroopCount());
+            for(int i = neighbourStart[current]; i < neighbourStart[current + 1]; i++){
+                int neighbour = neighbours[i];
+                if(regionOf[neighbour] == null && castles[neighbour].getOwner() == owner){
+                    regionOf[neighbour] = newRegion;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        addRegion(newRegion);
+    }
+
+    private void addRegion(Region region){
+        playerRegions.computeIfAbsent(region.owner, p -> new LinkedHashSet<>()).add(region);
+    }
+
+    private void removeRegion(Region region){
+        Set<Region> regions = playerRegions.get(region.owner);
+        if(regions != null){
+            regions.remove(region);
+            if(regions.isEmpty())
+                playerRegions.remove(region.owner);
+        }
+    }
+
+    private List<Castle> toCastles(int[] members){
+        List<Castle> castleList = new LinkedList<>();
+        for(int member : members)
+            castleList.add(castles[member]);
+        return castleList;
+    }
+}
@@ -4,6 +4,7 @@ import game.Player;
 
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Diese Klasse representiert eine Burg.
@@ -18,6 +19,8 @@ public class Castle {
     private Kingdom kingdom;
     private Point location;
     private String name;
+    private final CopyOnWriteArrayList<ACastleListener> listeners = new CopyOnWriteArrayList<>(); // notified in several threads
+    private final int hashCode;
 
     /**
      * Eine neue Burg erstellen
@@ -30,6 +33,14 @@ public class Castle {
         this.owner = null;
         this.kingdom = null;
         this.name = name;
+        // Burgen sind nur mit sich selbst gleich, der Hashwert hängt aber nicht von der Speicheradresse ab,
+        // damit HashSets und HashMaps von Burgen bei gleichem Seed in der gleichen Reihenfolge iteriert werden
+        this.hashCode = 31 * location.hashCode() + (name == null ? 0 : name.hashCode());
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 
     public Castle copy() {
@@ -70,6 +81,8 @@ public class Castle {
 
         this.troopCount -= troops;
         target.troopCount += troops;
+        this.fireTroopCountChanged(this.troopCount + troops);
+        target.fireTroopCountChanged(target.troopCount - troops);
     }
 
     public Point getLocationOnMap() {
@@ -119,7 +132,12 @@ public class Castle {
     }
 
     public void setOwner(Player player) {
+        Player oldOwner = this.owner;
         this.owner = player;
+        if(oldOwner != player) {
+            for(ACastleListener listener : listeners)
+                listener.ownerChanged(this, oldOwner);
+        }
     }
 
     public void addTroops(int i) {
@@ -127,6 +145,7 @@ public class Castle {
             return;
 
         this.troopCount += i;
+        fireTroopCountChanged(this.troopCount - i);
     }
 
     public String getName() {
@@ -134,7 +153,32 @@ public class Castle {
     }
 
     public void removeTroops(int i) {
+        int oldTroopCount = this.troopCount;
         this.troopCount = Math.max(0, this.troopCount - i);
+        fireTroopCountChanged(oldTroopCount);
+    }
+
+    /**
+     * Registers a listener, which gets informed about owner and troop changes of this castle.
+     * Listeners are not copied by {@link #copy()}.
+     * @param listener the listener
+     */
+    public void addListener(ACastleListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    /**
+     * @param listener the listener to remove
+     */
+    public void removeListener(ACastleListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireTroopCountChanged(int oldTroopCount) {
+        if(oldTroopCount != this.troopCount) {
+            for(ACastleListener listener : listeners)
+                listener.troopCountChanged(this, oldTroopCount);
+        }
     }
 
     /**
@@ -2,92 +2,218 @@ package game.map;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * Diese Klasse teilt Burgen in Königreiche auf
  */
 public class Clustering {
+    private static final int MAX_ITERATIONS = 100;
+    private static final double TOLERANCE = 0.5; // ends the iterations, if no center moves farther (in pixels)
+    private static final int PARALLEL_CASTLES = 2048; // the count of castles, from which they are assigned in parallel
 
     private Random random;
     private final List<Castle> allCastles;
     private final int kingdomCount;
-    private final GameMap gameMap;
 
     /**
      * Ein neues Clustering-Objekt erzeugen.
-     * @param gameMap Die zu generierende map
      * @param castles Die Liste von Burgen, die aufgeteilt werden sollen
      * @param kingdomCount Die Anzahl von Königreichen die generiert werden sollen
      */
-    public Clustering(GameMap gameMap, List<Castle> castles, int kingdomCount) {
+    public Clustering(List<Castle> castles, int kingdomCount) {
+        this(castles, kingdomCount, new Random());
+    }
+
+    /**
+     * Ein neues Clustering-Objekt mit einem vorgegebenen Zufallsgenerator erzeugen.
+     * @param castles Die Liste von Burgen, die aufgeteilt werden sollen
+     * @param kingdomCount Die Anzahl von Königreichen die generiert werden sollen
+     * @param random Der Zufallsgenerator für die Startpositionen der Königreiche
+     */
+    public Clustering(List<Castle> castles, int kingdomCount, Random random) {
         if (kingdomCount < 2)
             throw new IllegalArgumentException("Ungültige Anzahl an Königreichen");
 
-        this.random = new Random();
+        this.random = random;
         this.kingdomCount = kingdomCount;
         this.allCastles = Collections.unmodifiableList(castles);
-        this.gameMap = gameMap;
     }
 
     /**
      * Gibt eine Liste von Königreichen zurück.
      * Jedes Königreich sollte dabei einen Index im Bereich 0-5 bekommen, damit die Burg richtig angezeigt werden kann.
      * Siehe auch {@link Kingdom#getType()}
+     *
+     * Die Startpositionen werden mit k-means++ gewählt. Die Iterationen überspringen mit den Schranken von Hamerly die
+     * meisten Distanzberechnungen und enden spätestens nach {@link #MAX_ITERATIONS} Iterationen.
      */
     public List<Kingdom> getPointsClusters() {
+        int n = allCastles.size();
+        double[] xs = new double[n], ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            Point location = allCastles.get(i).getLocationOnMap();
+            xs[i] = location.x;
+            ys[i] = location.y;
+        }
+
+        double[] centerXs = new double[kingdomCount], centerYs = new double[kingdomCount];
+        seedCenters(xs, ys, centerXs, centerYs);
+
+        int[] assignments = new int[n];
+        double[] upper = new double[n], lower = new double[n];
+        Arrays.fill(upper, Double.POSITIVE_INFINITY); // forces a full scan in the first iteration
+        double[] halfSeparations = new double[kingdomCount], shifts = new double[kingdomCount];
+        double[] sumXs = new double[kingdomCount], sumYs = new double[kingdomCount];
+        int[] counts = new int[kingdomCount];
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            computeHalfSeparations(centerXs, centerYs, halfSeparations);
+            IntStream indices = IntStream.range(0, n);
+            if (n >= PARALLEL_CASTLES)
+                indices = indices.parallel();
+            int changed = indices.map(i ->
+                    assign(i, xs, ys, centerXs, centerYs, halfSeparations, assignments, upper, lower) ? 1 : 0).sum();
+            if (changed == 0 && iteration > 0)
+                break;
+
+            // move the centers to the mean of their castles, empty kingdoms keep their center
+            Arrays.fill(sumXs, 0);
+            Arrays.fill(sumYs, 0);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                sumXs[assignments[i]] += xs[i];
+                sumYs[assignments[i]] += ys[i];
+                counts[assignments[i]]++;
+            }
+            int farthest = 0;
+            for (int c = 0; c < kingdomCount; c++) {
+                shifts[c] = 0;
+                if (counts[c] > 0) {
+                    double x = sumXs[c] / counts[c], y = sumYs[c] / counts[c];
+                    shifts[c] = distance(x, y, centerXs[c], centerYs[c]);
+                    centerXs[c] = x;
+                    centerYs[c] = y;
+                }
+                if (shifts[c] > shifts[farthest])
+                    farthest = c;
+            }
+            double secondShift = 0;
+            for (int c = 0; c < kingdomCount; c++) {
+                if (c != farthest)
+                    secondShift = Math.max(secondShift, shifts[c]);
+            }
+            if (shifts[farthest] <= TOLERANCE)
+                break;
+
+            // a center can move the distance to a castle by at most its shift
+            for (int i = 0; i < n; i++) {
+                upper[i] += shifts[assignments[i]];
+                lower[i] -= assignments[i] == farthest ? secondShift : shifts[farthest];
+            }
+        }
+
         List<Kingdom> kingdoms = new ArrayList<>(kingdomCount);
-        for(int i=0; i<kingdomCount; i++){
-            Kingdom kingdom = new Kingdom(i%6); // id's from 1 to 5 dependent on the index (if more than 5 kingdoms, same id multiple times)
-            kingdom.setLocation(random.nextInt(gameMap.getWidth() + 1), random.nextInt(gameMap.getHeight() + 1)); // +1 because bounds are exclusive
+        for (int c = 0; c < kingdomCount; c++) {
+            Kingdom kingdom = new Kingdom(c % 6); // id's from 1 to 5 dependent on the index (if more than 5 kingdoms, same id multiple times)
+            kingdom.setLocation((int) centerXs[c], (int) centerYs[c]);
             kingdoms.add(kingdom);
         }
+        for (int i = 0; i < n; i++)
+            allCastles.get(i).replaceKingdom(kingdoms.get(assignments[i]));
+        return kingdoms;
+    }
 
-        boolean changed = true;
-        while(changed) {
-            changed = false;
-            Kingdom tempKingdom;
-            for (Castle castle : allCastles) {
-                Kingdom kingdom = getNearest(kingdoms, castle);
-                tempKingdom = castle.getKingdom();
-                if (kingdom != tempKingdom) {
-                    castle.replaceKingdom(kingdom);
-                    changed = true;
-                }
+    /**
+     * Chooses the first center uniformly from the castles and every further center from the castles with a
+     * probability proportional to the squared distance to the nearest chosen center (k-means++)
+     */
+    private void seedCenters(double[] xs, double[] ys, double[] centerXs, double[] centerYs) {
+        int n = xs.length;
+        double[] distances = new double[n]; // the squared distance to the nearest center
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        int chosen = random.nextInt(n);
+        for (int c = 0; c < kingdomCount; c++) {
+            centerXs[c] = xs[chosen];
+            centerYs[c] = ys[chosen];
+            if (c == kingdomCount - 1)
+                break;
+
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                double dx = xs[i] - centerXs[c], dy = ys[i] - centerYs[c];
+                distances[i] = Math.min(distances[i], dx * dx + dy * dy);
+                sum += distances[i];
+            }
+            if (sum == 0) { // fewer different locations than kingdoms
+                chosen = random.nextInt(n);
+                continue;
             }
-            Point oldLocation, newLocation;
-            for (Kingdom kingdom : kingdoms) {
-                oldLocation = kingdom.getLocation();
-                int x = kingdom.getCastles().stream().mapToInt(castle -> castle.getLocationOnMap().x).sum();
-                int y = kingdom.getCastles().stream().mapToInt(castle -> castle.getLocationOnMap().y).sum();
-                if (!kingdom.getCastles().isEmpty()) {
-                    newLocation = new Point(x / kingdom.getCastles().size(), y / kingdom.getCastles().size());
-                    if (!newLocation.equals(oldLocation)) {
-                        kingdom.setLocation(newLocation);
-                        changed = true;
-                    }
+            double target = random.nextDouble() * sum;
+            chosen = n - 1;
+            for (int i = 0; i < n; i++) {
+                target -= distances[i];
+                if (target < 0 && distances[i] > 0) {
+                    chosen = i;
+                    break;
                 }
             }
         }
-        return kingdoms;
     }
+
+    /**
+     * Stores the half distance of every center to its nearest other center, a castle nearer than this to its center
+     * cannot be nearer to another center
+     */
+    private void computeHalfSeparations(double[] centerXs, double[] centerYs, double[] halfSeparations) {
+        Arrays.fill(halfSeparations, Double.POSITIVE_INFINITY);
+        for (int c = 0; c < kingdomCount; c++) {
+            for (int d = c + 1; d < kingdomCount; d++) {
+                double half = distance(centerXs[c], centerYs[c], centerXs[d], centerYs[d]) / 2;
+                halfSeparations[c] = Math.min(halfSeparations[c], half);
+                halfSeparations[d] = Math.min(halfSeparations[d], half);
+            }
+        }
+    }
+
     /**
-     * @param kingdoms list of kingdoms to get the nearest from
-     * @param castle castle to get the nearest kingdom
-     * @return the nearest kingdom
+     * Assigns the castle to its nearest center. The distances are only computed, if the upper bound of the distance
+     * to its center is not smaller than the lower bound of the distance to every other center.
+     * @return if the castle changed its center
      */
-    private Kingdom getNearest(List<Kingdom> kingdoms, Castle castle){
-        Kingdom nearest = null;
-        double dist, nearestDist = Double.MAX_VALUE;
-        for (Kingdom kingdom : kingdoms) {
-            dist = castle.distance(kingdom.getLocation());
-            if(dist < nearestDist){
-                nearest = kingdom;
-                nearestDist = dist;
+    private boolean assign(int i, double[] xs, double[] ys, double[] centerXs, double[] centerYs,
+                           double[] halfSeparations, int[] assignments, double[] upper, double[] lower) {
+        int assigned = assignments[i];
+        double bound = Math.max(halfSeparations[assigned], lower[i]);
+        if (upper[i] <= bound)
+            return false;
+        upper[i] = distance(xs[i], ys[i], centerXs[assigned], centerYs[assigned]);
+        if (upper[i] <= bound)
+            return false;
+
+        int nearest = 0;
+        double nearestDistance = Double.POSITIVE_INFINITY, secondDistance = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < kingdomCount; c++) {
+            double distance = distance(xs[i], ys[i], centerXs[c], centerYs[c]);
+            if (distance < nearestDistance) {
+                secondDistance = nearestDistance;
+                nearestDistance = distance;
+                nearest = c;
+            } else if (distance < secondDistance) {
+                secondDistance = distance;
             }
         }
-        return  nearest;
+        assignments[i] = nearest;
+        upper[i] = nearestDistance;
+        lower[i] = secondDistance;
+        return nearest != assigned;
+    }
+
+    private static double distance(double x0, double y0, double x1, double y1) {
+        return Math.sqrt((x1 - x0) * (x1 - x0) + (y1 - y0) * (y1 - y0));
     }
 }
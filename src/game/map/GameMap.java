@@ -1,10 +1,12 @@
 package game.map;
 
+import base.ADelaunayTriangulation;
 import base.Edge;
 import base.Graph;
 import base.Node;
 import base.PerlinNoise;
 import de.teast.APath;
+import de.teast.autils.ARandomSource;
 import game.Game;
 import game.GameConstants;
 import gui.Resources;
@@ -12,9 +14,14 @@ import javafx.util.Pair;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.util.List;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Diese Klasse representiert das Spielfeld. Sie beinhaltet das Hintergrundbild, welches mit Perlin noise erzeugt wurde,
@@ -24,12 +31,23 @@ import java.util.stream.Collectors;
  */
 public class GameMap {
 
+    // Geländeklassen der Pixel, Burgen werden nur auf hohem Gras (Noise-Wert >= 0.6) gebaut
+    private static final byte TERRAIN_WATER = 0, TERRAIN_SAND = 1, TERRAIN_GRASS = 2, TERRAIN_HIGH_GRASS = 3,
+            TERRAIN_STONE = 4, TERRAIN_SNOW = 5;
+    private static final IndexColorModel TERRAIN_COLORS = createTerrainColors(GameConstants.COLOR_WATER,
+            GameConstants.COLOR_SAND, GameConstants.COLOR_GRASS, GameConstants.COLOR_GRASS, GameConstants.COLOR_STONE,
+            GameConstants.COLOR_SNOW);
+    private static final int TILE_ROWS = 64; // rows of pixels rendered by one task
+
     private BufferedImage backgroundImage;
     private Graph<Castle> castleGraph;
+    private ACastleDistances distances; // see getDistances()
+    private ARegionIndex regionIndex; // see getRegionIndex()
     private List<Kingdom> kingdoms;
 
     // Map Generation
-    private double[][] noiseValues;
+    private PerlinNoise perlinNoise;
+    private byte[] terrain; // the terrain class of every pixel row by row, the raster of the background image
     private int width, height, scale;
     private Game game;
 
@@ -41,47 +59,90 @@ public class GameMap {
      * @param scale der Skalierungsfaktor
      */
     private GameMap(int width, int height, int scale) {
-        this.castleGraph = new Graph<>();
+        this.castleGraph = new Graph<>(Castle::distance);
         this.width = width;
         this.height = height;
         this.scale = scale;
     }
 
     /**
-     * Wandelt einen Noise-Wert in eine Farbe um. Die Methode kann nach belieben angepasst werden
+     * @param colors the color of every terrain class
+     * @return the palette of the background image
+     */
+    private static IndexColorModel createTerrainColors(Color... colors) {
+        byte[] r = new byte[colors.length], g = new byte[colors.length], b = new byte[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            r[i] = (byte) colors[i].getRed();
+            g[i] = (byte) colors[i].getGreen();
+            b[i] = (byte) colors[i].getBlue();
+        }
+        return new IndexColorModel(8, colors.length, r, g, b);
+    }
+
+    /**
+     * Wandelt einen Noise-Wert in eine Geländeklasse um, deren Farbe in {@link #TERRAIN_COLORS} steht.
+     * Die Methode kann nach belieben angepasst werden
      * @param value der Perlin-Noise-Wert
-     * @return die resultierende Farbe
+     * @return die resultierende Geländeklasse
      */
-    private Color doubleToColor(double value) {
+    private static byte doubleToTerrain(double value) {
         if (value <= 0.40)
-            return GameConstants.COLOR_WATER;
+            return TERRAIN_WATER;
         else if (value <= 0.5)
-            return GameConstants.COLOR_SAND;
+            return TERRAIN_SAND;
+        else if (value < 0.6)
+            return TERRAIN_GRASS;
         else if (value <= 0.7)
-            return GameConstants.COLOR_GRASS;
+            return TERRAIN_HIGH_GRASS;
         else if (value <= 0.8)
-            return GameConstants.COLOR_STONE;
+            return TERRAIN_STONE;
         else
-            return GameConstants.COLOR_SNOW;
+            return TERRAIN_SNOW;
     }
 
     /**
      * Hier wird das Hintergrund-Bild mittels Perlin-Noise erzeugt.
      * Siehe auch: {@link PerlinNoise}
+     * @param render false, wenn das Bild erst beim ersten Aufruf von {@link #getBackgroundImage()} gezeichnet werden soll.
+     *               Die Noise-Werte werden dann nur für die Punkte berechnet, die bei der Generierung abgefragt werden.
      */
-    private void generateBackground() {
-        PerlinNoise perlinNoise = new PerlinNoise(width, height, scale);
-        Dimension realSize = perlinNoise.getRealSize();
+    private void generateBackground(boolean render) {
+        perlinNoise = new PerlinNoise(width, height, scale, game.getRandom(ARandomSource.Stream.NOISE));
+        if(render)
+            renderBackground();
+    }
 
-        noiseValues = new double[realSize.width][realSize.height];
-        backgroundImage = new BufferedImage(realSize.width, realSize.height, BufferedImage.TYPE_INT_RGB);
-        for (int x = 0; x < realSize.width; x++) {
-            for (int y = 0; y < realSize.height; y++) {
-                double noiseValue = perlinNoise.getNoise(x, y);
-                noiseValues[x][y] = noiseValue;
-                backgroundImage.setRGB(x, y, doubleToColor(noiseValue).getRGB());
+    /**
+     * Computes the terrain class of every pixel in parallel tiles of rows and writes it directly into the byte raster
+     * of the background image, which uses the palette {@link #TERRAIN_COLORS}. A pixel takes one byte.
+     */
+    private void renderBackground() {
+        Dimension realSize = perlinNoise.getRealSize();
+        int imageWidth = realSize.width, imageHeight = realSize.height;
+
+        byte[] terrain = new byte[imageWidth * imageHeight];
+        IntStream.range(0, (imageHeight + TILE_ROWS - 1) / TILE_ROWS).parallel().forEach(tile -> {
+            double[] row = new double[imageWidth];
+            for (int y = tile * TILE_ROWS; y < Math.min(imageHeight, (tile + 1) * TILE_ROWS); y++) {
+                perlinNoise.getNoiseRow(y, row);
+                for (int x = 0, i = y * imageWidth; x < imageWidth; x++, i++)
+                    terrain[i] = doubleToTerrain(row[x]);
             }
-        }
+        });
+
+        DataBufferByte buffer = new DataBufferByte(terrain, terrain.length);
+        WritableRaster raster = Raster.createInterleavedRaster(buffer, imageWidth, imageHeight, imageWidth, 1, new int[]{0}, null);
+        this.backgroundImage = new BufferedImage(TERRAIN_COLORS, raster, false, null);
+        this.terrain = terrain;
+    }
+
+    /**
+     * @return ob auf dem Pixel eine Burg gebaut werden kann
+     */
+    private boolean isBuildable(int x, int y) {
+        if (terrain != null)
+            return terrain[x + y * width * scale] >= TERRAIN_HIGH_GRASS;
+        return perlinNoise.getNoise(x, y) >= 0.6;
     }
 
     /**
@@ -112,44 +173,31 @@ public class GameMap {
             }
         }
 
-        // Generate castles
+        // Generate castles, a castle is placed on the first site of a tile in the order of the columns from the right
+        // to the left and the rows from the bottom to the top, where the middle of the tile is buildable
+        int offsetX = (int) (0.5 * tileW), offsetY = (int) (0.5 * tileH);
+        ACastleSites sites = new ACastleSites(width * scale, height * scale, offsetX, offsetY, Math.max(tileW, tileH), this::isBuildable);
+        if (terrain != null)
+            sites.precompute();
+        for (Castle castle : castleGraph.getAllValues())
+            sites.add(castle);
         List<String> possibleNames = generateCastleNames();
+        Random random = game.getRandom(ARandomSource.Stream.CASTLES);
         int castlesGenerated = 0;
         while (possibleFields.size() > 0 && castlesGenerated < castleCount) {
-            Point randomField = possibleFields.remove((int) (Math.random() * possibleFields.size()));
+            Point randomField = possibleFields.remove(random.nextInt(possibleFields.size()));
             int x0 = (int) ((randomField.x + 0.5) * tileW);
             int y0 = (int) ((randomField.y + 0.5) * tileH);
 
-            for (int x = (int) (0.5 * tileW); x >= 0; x--) {
-                boolean positionFound = false;
-                for (int y = (int) (0.5 * tileH); y >= 0; y--) {
-                    int x_mid = (int) (x0 + x + 0.5 * tileW);
-                    int y_mid = (int) (y0 + y + 0.5 * tileH);
-                    if (noiseValues[x_mid][y_mid] >= 0.6) {
-                        String name = possibleNames.isEmpty() ? "Burg " + (castlesGenerated + 1) :
-                            possibleNames.get((int) (Math.random() * possibleNames.size()));
-                        Castle newCastle = new Castle(new Point(x0 + x, y0 + y), name);
-                        boolean doesIntersect = false;
-
-                        for (Castle r : castleGraph.getAllValues()) {
-                            if (r.distance(newCastle) < Math.max(tileW, tileH)) {
-                                doesIntersect = true;
-                                break;
-                            }
-                        }
-
-                        if (!doesIntersect) {
-                            possibleNames.remove(name);
-                            castleGraph.addNode(newCastle);
-                            castlesGenerated++;
-                            positionFound = true;
-                            break;
-                        }
-                    }
-                }
-
-                if (positionFound)
-                    break;
+            Point site = sites.find(x0, y0, x0 + offsetX, y0 + offsetY);
+            if (site != null) {
+                String name = possibleNames.isEmpty() ? "Burg " + (castlesGenerated + 1) :
+                    possibleNames.get(random.nextInt(possibleNames.size()));
+                Castle newCastle = new Castle(site, name);
+                possibleNames.remove(name);
+                castleGraph.addNode(newCastle);
+                sites.add(newCastle);
+                castlesGenerated++;
             }
         }
     }
@@ -157,55 +205,65 @@ public class GameMap {
     /**
      * Hier werden die Kanten erzeugt. Dazu werden zunächst alle Burgen durch eine Linie verbunden und anschließend
      * jede Burg mit allen anderen in einem bestimmten Radius nochmals verbunden
-     * Wrapper für {@link GameMap#generateEdges(List, Graph, int)}
+     * Wrapper für {@link GameMap#generateEdges(List, Graph, int, Random)}
      */
     private void generateEdges() {
-        generateEdges(castleGraph.getNodes(), castleGraph, GameConstants.MAX_EDGE_COUNT_CASTLES);
+        generateEdges(castleGraph.getNodes(), castleGraph, GameConstants.MAX_EDGE_COUNT_CASTLES, game.getRandom(ARandomSource.Stream.EDGES));
     }
     /**
-     * Generates the edges for the given nodes in the given graph
+     * Generates the edges for the given nodes in the given graph. The nearest nodes are found with an
+     * {@link ACastleGrid}, the indices of the grids are the indices in nodes.
      * @param nodes The nodes to generate edges for
      * @param graph The graph to generate edges in
      * @param maxEdgeCount maximum edge count for one castle
+     * @param random the random number generator for the edge counts
      */
-    private static void generateEdges(List<Node<Castle>> nodes, Graph<Castle> graph, int maxEdgeCount) {
+    private static void generateEdges(List<Node<Castle>> nodes, Graph<Castle> graph, int maxEdgeCount, Random random) {
         if(nodes.isEmpty())
             return;
-        List<Node<Castle>> tempNodes1 = new LinkedList<>(nodes), tempNodes2;
-        if(tempNodes1.isEmpty())
-            return;
-        Node<Castle> currentNode = tempNodes1.get(0), nextNode;
-        tempNodes1.remove(0);
-        while(!tempNodes1.isEmpty()){
-            nextNode = getNearestNode(currentNode, tempNodes1);
-            tempNodes1.remove(nextNode);
-            if(tempNodes1.isEmpty()){
-                tempNodes2 = new LinkedList<>(nodes);
-                tempNodes2.remove(nextNode);
-                currentNode = getNearestNode(nextNode, tempNodes2);
-            }
-            graph.addEdge(currentNode, nextNode);
+        nodes = new ArrayList<>(nodes);
+        List<Castle> castles = new ArrayList<>(nodes.size());
+        Map<Node<Castle>, Integer> indices = new HashMap<>();
+        for(Node<Castle> node : nodes){
+            indices.put(node, castles.size());
+            castles.add(node.getValue());
+        }
+        ACastleGrid allNodes = new ACastleGrid(castles), remainingNodes = new ACastleGrid(castles);
+
+        // connect all nodes by a line, every node is connected with the nearest remaining node
+        int currentNode = 0;
+        remainingNodes.remove(currentNode);
+        while(remainingNodes.size() > 0){
+            int nextNode = remainingNodes.getNearest(castles.get(currentNode), i -> false);
+            remainingNodes.remove(nextNode);
+            if(remainingNodes.size() == 0)
+                currentNode = allNodes.getNearest(castles.get(nextNode), i -> i == nextNode);
+            graph.addEdge(nodes.get(currentNode), nodes.get(nextNode));
             currentNode = nextNode;
         }
 
-        tempNodes1 = nodes;
-        List<Edge<Castle>> edges;
-        int edgeCount;
-        Random random = new Random();
-        for(Node<Castle> node : tempNodes1){
-            tempNodes2 = new LinkedList<>(tempNodes1);
-            tempNodes2.remove(node); // remove current edge
-            edges = graph.getEdges(node);
-            edgeCount = random.nextInt(maxEdgeCount + 1) - edges.size(); // random edge count
-            while(!edges.isEmpty()){
-                tempNodes2.remove(edges.remove(0).getOtherNode(node)); // remove nodes with existing edges
-            }
-            while(edgeCount-- > 0){
-                nextNode = getNearestNode(node, tempNodes2); // edge to nearest other node
-                tempNodes2.remove(nextNode); // remove other node
-                if(nextNode != null)
-                    graph.addEdge(node, nextNode); // add edge
-            }
+        boolean[] excluded = new boolean[nodes.size()];
+        for(int node = 0; node < nodes.size(); node++){
+            List<Edge<Castle>> edges = graph.getEdges(nodes.get(node));
+            int edgeCount = random.nextInt(maxEdgeCount + 1) - edges.size(); // random edge count
+            if(edgeCount <= 0)
+                continue;
+            setExcluded(excluded, nodes.get(node), edges, indices, true); // exclude the node and the nodes with existing edges
+            for(int nextNode : allNodes.getNearest(castles.get(node), edgeCount, i -> excluded[i]))
+                graph.addEdge(nodes.get(node), nodes.get(nextNode)); // edge to nearest other node
+            setExcluded(excluded, nodes.get(node), edges, indices, false);
+        }
+    }
+    /**
+     * Marks the node and the other nodes of its edges, which are in the index map
+     */
+    private static void setExcluded(boolean[] excluded, Node<Castle> node, List<Edge<Castle>> edges,
+                                    Map<Node<Castle>, Integer> indices, boolean value){
+        excluded[indices.get(node)] = value;
+        for(Edge<Castle> edge : edges){
+            Integer other = indices.get(edge.getOtherNode(node));
+            if(other != null)
+                excluded[other] = value;
         }
     }
     /**
@@ -222,13 +280,14 @@ public class GameMap {
             return;
         }
 
+        Random random = game.getRandom(ARandomSource.Stream.EDGES);
         List<Kingdom> nonEmptyKingdoms = kingdoms.stream()
                 .filter(k -> !k.getCastles().isEmpty())
                 .collect(Collectors.toList());
 
         for(Kingdom kingdom : nonEmptyKingdoms) {
             if(!kingdom.getCastles().isEmpty()){
-                generateEdges(castleGraph.getNodes(kingdom.getCastles()), castleGraph, GameConstants.MAX_EDGE_COUNT_CASTLES); // Generate edges inside the kingdoms
+                generateEdges(castleGraph.getNodes(kingdom.getCastles()), castleGraph, GameConstants.MAX_EDGE_COUNT_CASTLES, random); // Generate edges inside the kingdoms
             }
         }
 
@@ -258,10 +317,12 @@ public class GameMap {
         List<Castle> kingdomCastles, otherKingdomCastles;
         HashSet<Castle> kingdomCastlesSet;
         HashSet<Pair<Castle, Castle>> castleRelation = new HashSet<>();
+        Map<Kingdom, ACastleGrid> kingdomGrids = new HashMap<>();
+        for(Kingdom kingdom : tempKingdoms1)
+            kingdomGrids.put(kingdom, new ACastleGrid(kingdom.getCastles()));
         Kingdom otherKingdom;
         Castle kingdomCastle, otherCastle;
         int rand, i = 0, m;
-        Random random = new Random();
         for(Kingdom kingdom : tempKingdoms1){
             kingdomCastles = kingdom.getCastles();
             kingdomCastlesSet = new HashSet<>(kingdomCastles);
@@ -280,10 +341,10 @@ public class GameMap {
                 kingdomCastle = kingdomCastles.get(random.nextInt(kingdomCastles.size())); // random castle
                 rand = random.nextInt(tempKingdoms1.size()); // random other kingdom
                 otherKingdom = tempKingdoms1.get(rand != i ? rand : (rand+1)%tempKingdoms1.size()); // other kingdom not this kingdom
-                otherKingdomCastles = getNearestCastles(kingdomCastle, otherKingdom.getCastles(), 3);
+                otherKingdomCastles = getNearestCastles(kingdomCastle, kingdomGrids.get(otherKingdom), 3);
                 while(!otherKingdomCastles.isEmpty()){
                     otherCastle = otherKingdomCastles.get(0);
-                    kingdomCastle = getNearestCastle(otherCastle, kingdomCastles);
+                    kingdomCastle = kingdomCastles.get(kingdomGrids.get(kingdom).getNearest(otherCastle, c -> false));
                     if(castleRelation.contains(new Pair<>(kingdomCastle, otherCastle))
                             || castleRelation.contains(new Pair<>(otherCastle, kingdomCastle))){
                         otherKingdomCastles.remove(0);
@@ -300,23 +361,97 @@ public class GameMap {
     }
 
     /**
-     * finds the node from nodes containing the castle with the smallest distance to the castle of node
-     * @param node One node of edge
-     * @param nodes Available nodes (mustn't contain node)
-     * @return the node with the smallest distance
+     * Generates the edges from a Delaunay triangulation of all castles ({@link AEdgeMode#DELAUNAY}). First every edge
+     * of the relative neighbourhood graph is added: two castles are connected, if no third castle is nearer to both of
+     * them. It contains the minimum spanning tree, so every castle is connected. Then every castle gets edges of the
+     * triangulation to the nearest castles of its kingdom up to a random edge count. All edges are edges of the
+     * triangulation, so they never cross.
      */
-    private static Node<Castle> getNearestNode(Node<Castle> node, List<Node<Castle>> nodes){
-        Node<Castle> bestNode = null;
-        double smallestDistance = Double.MAX_VALUE, currentDistance;
-        for(Node<Castle> n : nodes){
-            currentDistance = node.getValue().distance(n.getValue());
-            if(currentDistance < smallestDistance || bestNode == null){
-                smallestDistance = currentDistance;
-                bestNode = n;
+    public void generateDelaunayEdges() {
+        List<Node<Castle>> nodes = castleGraph.getNodes();
+        int n = nodes.size();
+        if(n < 2)
+            return;
+        double[] xs = new double[n], ys = new double[n];
+        for(int i = 0; i < n; i++){
+            Point location = nodes.get(i).getValue().getLocationOnMap();
+            xs[i] = location.x;
+            ys[i] = location.y;
+        }
+        int[] edges = new ADelaunayTriangulation(xs, ys).getEdges();
+        ACastleDistances distances = getDistances();
+
+        // neighbours of every castle in the triangulation, the neighbours of i are neighbours[start[i]] to neighbours[start[i + 1] - 1]
+        int[] start = new int[n + 1], neighbours = new int[edges.length], position = new int[n];
+        for(int point : edges)
+            start[point + 1]++;
+        for(int i = 0; i < n; i++){
+            start[i + 1] += start[i];
+            position[i] = start[i];
+        }
+        for(int k = 0; k < edges.length; k += 2){
+            neighbours[position[edges[k]]++] = edges[k + 1];
+            neighbours[position[edges[k + 1]]++] = edges[k];
+        }
+
+        // relative neighbourhood graph, a castle nearer to both ends is always a neighbour of one end in the triangulation
+        for(int k = 0; k < edges.length; k += 2){
+            int a = edges[k], b = edges[k + 1];
+            if(isRelativeNeighbour(distances, a, b, start, neighbours) && isRelativeNeighbour(distances, b, a, start, neighbours))
+                castleGraph.addEdge(nodes.get(a), nodes.get(b));
+        }
+
+        Random random = game.getRandom(ARandomSource.Stream.EDGES);
+        for(int i = 0; i < n; i++){
+            Node<Castle> node = nodes.get(i);
+            int edgeCount = random.nextInt(GameConstants.MAX_EDGE_COUNT_CASTLES + 1) - castleGraph.getEdges(node).size();
+            if(edgeCount <= 0)
+                continue;
+            Castle castle = node.getValue();
+            List<Node<Castle>> candidates = new ArrayList<>(start[i + 1] - start[i]);
+            for(int k = start[i]; k < start[i + 1]; k++){
+                Node<Castle> other = nodes.get(neighbours[k]);
+                if(other.getValue().getKingdom() == castle.getKingdom() && castleGraph.getEdge(node, other) == null)
+                    candidates.add(other);
             }
+            candidates.sort(Comparator.comparingDouble(other -> distances.getDistance(node.getIndex(), other.getIndex())));
+            for(int k = 0; k < edgeCount && k < candidates.size(); k++)
+                castleGraph.addEdge(node, candidates.get(k));
+        }
+    }
+    /**
+     * @return if no neighbour of castle a in the triangulation is nearer to a and b than the distance of a and b
+     */
+    private static boolean isRelativeNeighbour(ACastleDistances distances, int a, int b, int[] start, int[] neighbours){
+        double distance = distances.getDistance(a, b);
+        for(int k = start[a]; k < start[a + 1]; k++){
+            if(neighbours[k] != b && Math.max(distances.getDistance(a, neighbours[k]), distances.getDistance(b, neighbours[k])) < distance)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Connects every component of the castle graph with the nearest castle of the already connected castles, starting
+     * with the largest component, so a disconnected map doesn't have to be generated again.
+     */
+    private void connectComponents() {
+        List<List<Node<Castle>>> components = castleGraph.getComponents().getComponents();
+        if(components.size() <= 1)
+            return;
+        List<Castle> connectedCastles = new ArrayList<>(castleGraph.getNodes().size());
+        for(Node<Castle> node : components.get(0))
+            connectedCastles.add(node.getValue());
+        for(int i = 1; i < components.size(); i++){
+            List<Castle> componentCastles = new ArrayList<>(components.get(i).size());
+            for(Node<Castle> node : components.get(i))
+                componentCastles.add(node.getValue());
+            Pair<Castle, Castle> nextCastles = getNearestCastles(connectedCastles, componentCastles);
+            castleGraph.addEdge(castleGraph.getNode(nextCastles.getKey()), castleGraph.getNode(nextCastles.getValue()));
+            connectedCastles.addAll(componentCastles);
         }
-        return bestNode;
     }
+
     /**
      * finds the kingdom from kingdoms with the smallest distance to kingdom
      * @param kingdom Kingdom to get the Kingdom from kingdoms with the smallest distance
@@ -359,16 +494,16 @@ public class GameMap {
     private static Pair<Castle, Castle> getNearestCastles(List<Castle> castles1, List<Castle> castles2){
         if(castles1 == null || castles2 == null || castles1.isEmpty() || castles2.isEmpty())
             return null;
+        ACastleGrid grid = new ACastleGrid(castles2);
         Castle bestCastle1 = null, bestCastle2 = null;
         double smallestDistance = Double.MAX_VALUE, currentDistance;
         for(Castle castle1 : castles1){
-            for(Castle castle2 : castles2){
-                currentDistance = castle1.distance(castle2);
-                if(currentDistance < smallestDistance){
-                    smallestDistance = currentDistance;
-                    bestCastle1 = castle1;
-                    bestCastle2 = castle2;
-                }
+            Castle castle2 = grid.get(grid.getNearest(castle1, c -> false));
+            currentDistance = castle1.distance(castle2);
+            if(currentDistance < smallestDistance){
+                smallestDistance = currentDistance;
+                bestCastle1 = castle1;
+                bestCastle2 = castle2;
             }
         }
         return new Pair<>(bestCastle1, bestCastle2);
@@ -376,33 +511,15 @@ public class GameMap {
     /**
      * Searches the number of castles with the smallest distance to the passed castle
      * @param castle Castle to get the distance to
-     * @param castles Castles to get the Castles with the smallest distance from
+     * @param grid Grid of the castles to get the Castles with the smallest distance from
      * @param count number of castles in return list
-     * @return a List of Castles with the smallest distance to castle and the size count or castles.size
+     * @return a List of Castles with the smallest distance to castle and the size count or the size of the grid
      */
-    private static List<Castle> getNearestCastles(Castle castle, List<Castle> castles, int count){
-        return castles.stream().
-                sorted(Comparator.comparingDouble(castle::distance)).
-                collect(Collectors.toList()).
-                subList(0, count <= castles.size() ? count : castles.size());
-    }
-    /**
-     * finds the castle from castles with the smallest distance to castle
-     * @param castle Castle to get the one with the smallest distance for
-     * @param castles Castles to get the one with the smallest distance for
-     * @return Castle from castles with the smallest distance to castle
-     */
-    private static Castle getNearestCastle(Castle castle, List<Castle> castles){
-        Castle bestCastle = null;
-        double smallestDistance = Double.MAX_VALUE, currentDistance;
-        for(Castle c : castles){
-            currentDistance = castle.distance(c);
-            if(currentDistance < smallestDistance || bestCastle == null){
-                smallestDistance = currentDistance;
-                bestCastle = c;
-            }
-        }
-        return bestCastle;
+    private static List<Castle> getNearestCastles(Castle castle, ACastleGrid grid, int count){
+        List<Castle> castles = new ArrayList<>(count);
+        for(int index : grid.getNearest(castle, count, c -> false))
+            castles.add(grid.get(index));
+        return castles;
     }
 
     /**
@@ -411,7 +528,7 @@ public class GameMap {
      */
     private void generateKingdoms(int kingdomCount) {
         if(kingdomCount > 0 && kingdomCount < castleGraph.getAllValues().size()) {
-            Clustering clustering = new Clustering(this, castleGraph.getAllValues(), kingdomCount);
+            Clustering clustering = new Clustering(castleGraph.getAllValues(), kingdomCount, game.getRandom(ARandomSource.Stream.KINGDOMS));
             kingdoms = clustering.getPointsClusters();
         } else {
             kingdoms = new ArrayList<>();
@@ -423,8 +540,9 @@ public class GameMap {
      * Dazu werden folgende Schritte abgearbeitet:
      *   1. Das Hintergrundbild generieren
      *   2. Burgen generieren
-     *   3. Kanten hinzufügen
+     *   3. Kanten hinzufügen (je nach {@link Game#getEdgeMode()} über die nächsten Burgen oder eine Delaunay-Triangulierung)
      *   4. Burgen in Köngireiche unterteilen
+     *   5. Nicht verbundene Teile des Graphen mit der jeweils nächsten Burg verbinden
      * @param game Das Game Objekt
      * @param width die Breite des Spielfelds
      * @param height die Höhe des Spielfelds
@@ -432,6 +550,7 @@ public class GameMap {
      * @param castleCount die maximale Anzahl an Burgen
      * @param kingdomCount die Anzahl der Königreiche
      * @return eine neue GameMap-Instanz
+     * @throws AMapGenerationException wenn nicht alle Burgen verbunden werden konnten
      */
     public static GameMap generateRandomMap(Game game, int width, int height, int scale, int castleCount, int kingdomCount) {
         width = Math.max(width, 15);
@@ -440,23 +559,28 @@ public class GameMap {
         if (scale <= 0 || castleCount <= 0)
             throw new IllegalArgumentException();
 
-        if(!Game.training)
+        if(!Game.training && !game.isHeadless())
             System.out.println(String.format("Generating new map, castles=%d, width=%d, height=%d, kingdoms=%d", castleCount, width, height, kingdomCount));
         GameMap gameMap = new GameMap(width, height, scale);
-        gameMap.generateBackground();
+        gameMap.game = game;
+        gameMap.generateBackground(!game.isHeadless());
         if(game.isClashOfArmiesGoal()) {
             gameMap.castleGraph = new APath(new LinkedList<>());
         } else {
             gameMap.generateCastles(castleCount);
             gameMap.generateKingdoms(kingdomCount);
             //gameMap.generateEdges();
-            gameMap.generateKingdomEdges();
+            if(game.getEdgeMode() == AEdgeMode.DELAUNAY)
+                gameMap.generateDelaunayEdges();
+            else
+                gameMap.generateKingdomEdges();
         }
 
         if(!gameMap.getGraph().allNodesConnected()) {
-            System.out.println("Fehler bei der Verifikation: Es sind nicht alle Knoten miteinander verbunden!");
-            return null;
+            gameMap.connectComponents();
         }
+        if(!gameMap.getGraph().allNodesConnected())
+            throw new AMapGenerationException("Fehler bei der Verifikation: Es sind nicht alle Knoten miteinander verbunden!");
 
         return gameMap;
     }
@@ -470,9 +594,10 @@ public class GameMap {
         String[] prefixes = {"Schloss", "Burg", "Festung"};
         List<String> names = Resources.getInstance().getCastleNames();
         List<String> nameList = new ArrayList<>(names.size());
+        Random random = game.getRandom(ARandomSource.Stream.CASTLE_NAMES);
 
         for (String name : names) {
-            String prefix = prefixes[(int) (Math.random() * prefixes.length)];
+            String prefix = prefixes[random.nextInt(prefixes.length)];
             nameList.add(prefix + " " + name);
         }
 
@@ -480,14 +605,16 @@ public class GameMap {
     }
 
     public int getWidth() {
-        return this.backgroundImage.getWidth();
+        return this.width * this.scale;
     }
 
     public int getHeight() {
-        return this.backgroundImage.getHeight();
+        return this.height * this.scale;
     }
 
-    public BufferedImage getBackgroundImage() {
+    public synchronized BufferedImage getBackgroundImage() {
+        if(this.backgroundImage == null) // the map of a headless game
+            renderBackground();
         return this.backgroundImage;
     }
 
@@ -507,6 +634,28 @@ public class GameMap {
         return this.castleGraph;
     }
 
+    /**
+     * @return the distances between the castles, which get computed on the first call after a castle was added
+     */
+    public synchronized ACastleDistances getDistances() {
+        if (distances == null || distances.getNodeCount() != castleGraph.getNodes().size())
+            distances = new ACastleDistances(castleGraph);
+        return distances;
+    }
+
+    /**
+     * @return the index of the regions of the graph, which is created on the first call and again after a castle or an
+     * edge was added
+     */
+    public synchronized ARegionIndex getRegionIndex() {
+        if (regionIndex == null || !regionIndex.isComplete(castleGraph)) {
+            if (regionIndex != null)
+                regionIndex.dispose();
+            regionIndex = new ARegionIndex(castleGraph);
+        }
+        return regionIndex;
+    }
+
     public List<Edge<Castle>> getEdges() {
         return this.castleGraph.getEdges();
     }
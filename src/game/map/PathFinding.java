@@ -17,6 +17,7 @@ public class PathFinding extends GraphAlgorithm<Castle> {
 
     public boolean clashOfArmiesGoal = false;
     public AFlagEmpireGoal flagEmpireGoal;
+    public boolean aStar = true; // use the weight of a direct edge to the target as heuristic in targeted queries
 
     public PathFinding(Graph<Castle> graph, Castle sourceCastle, MapPanel.Action action, Player currentPlayer) {
         super(graph, graph.getNode(sourceCastle));
@@ -26,9 +27,8 @@ public class PathFinding extends GraphAlgorithm<Castle> {
 
     @Override
     protected double getValue(Edge<Castle> edge) {
-        Castle castleA = edge.getNodeA().getValue();
-        Castle castleB = edge.getNodeB().getValue();
-        return castleA.distance(castleB);
+        // the distance between the castles, computed once when the edge was created
+        return edge.getWeight();
     }
 
     @Override
@@ -79,10 +79,33 @@ public class PathFinding extends GraphAlgorithm<Castle> {
         return node.getValue().getOwner() == currentPlayer;
     }
 
+    @Override
+    protected double getHeuristic(Node<Castle> node, Node<Castle> destination) {
+        // the weight of a direct edge (the distance between the castles) never overestimates, as long as the weights
+        // fulfil the triangle inequality, on an unweighted graph every edge has the same value, so there is no estimate
+        Graph<Castle> graph = getGraph();
+        return aStar && graph.isWeighted() ? graph.getWeight(node.getValue(), destination.getValue()) : 0;
+    }
+
     public List<Edge<Castle>> getPath(Castle targetCastle) {
         if(action == MapPanel.Action.MOVING && flagEmpireGoal != null && targetCastle.getOwner() != sourceNode.getValue().getOwner()){
             return null;
         }
         return this.getPath(getGraph().getNode(targetCastle));
     }
+
+    /**
+     * Searches only the path to the given castle. The search stops as soon as the path is known,
+     * so the effort depends on the length of the path and not on the size of the map.
+     * Afterwards {@link #getPath(Castle)} is only valid for this target.
+     * @param targetCastle the target castle
+     * @return the shortest path to the target or null if there is none
+     */
+    public List<Edge<Castle>> findPath(Castle targetCastle) {
+        Node<Castle> targetNode = getGraph().getNode(targetCastle);
+        if(targetNode == null)
+            return null;
+        run(targetNode);
+        return getPath(targetCastle);
+    }
 }
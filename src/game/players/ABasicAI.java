@@ -2,9 +2,10 @@ package game.players;
 
 import base.Graph;
 import de.teast.aai.*;
+import game.AAttack;
 import game.Game;
 import game.map.Castle;
-import gui.AttackThread;
+import game.map.GameMap;
 import javafx.util.Pair;
 
 import java.awt.*;
@@ -17,6 +18,7 @@ import java.util.List;
 public class ABasicAI extends BasicAI {
     public AAIConstants constants = new AAIConstants();
     private static final int timeout = 1000;
+    private static final double SAFE_WIN_PROBABILITY = 0.7; // attacks with at least this win probability are always made
 
     public ABasicAI(String name, Color color) {
         super(name, color);
@@ -26,12 +28,17 @@ public class ABasicAI extends BasicAI {
     protected void actions(Game game) throws InterruptedException {
         if(constants == null)
             constants = new AAIConstants(game.getMapSize());
-        AAIDefenseEvalMethods.constants = constants;
-        AAIDistributeTroopsMethods.constants = constants;
-        AAIDistributionEvalMethods.constants = constants;
-        AAIKingdomEvalMethods.constants = constants;
-        AAITargetEvalMethods.constants = constants;
+        AAIConstants previousConstants = AAIConstants.setCurrent(constants);
+        GameMap previousMap = AAIMethods.setCurrentMap(game.getMap());
+        try {
+            doActions(game);
+        } finally {
+            AAIMethods.setCurrentMap(previousMap);
+            AAIConstants.setCurrent(previousConstants);
+        }
+    }
 
+    private void doActions(Game game) throws InterruptedException {
         Graph<Castle> castleGraph = game.getMap().getGraph();
         if(game.getRound() == 1){
             useJoker();
@@ -51,28 +58,29 @@ public class ABasicAI extends BasicAI {
             boolean attackWon;
             int attackTroopCount, targetTroopCount;
             double percentage, worstPercentage = -1;
+            boolean doubleDice = game.nextAttackDoubleDices.contains(this);
             for(Pair<List<Castle>, Castle> pair : targets){
                 attackTroopCount = AAIMethods.getAttackTroopCount(pair.getKey());
                 targetTroopCount = pair.getValue().getTroopCount();
-                percentage = attackTroopCount / ((double)(attackTroopCount + targetTroopCount));
+                percentage = AAIBattleOdds.getWinProbability(attackTroopCount, targetTroopCount, doubleDice);
                 if((worstPercentage >= 0 && percentage > worstPercentage)
                         || (worstPercentage < 0
                             && AAIMethods.getAttackTroopCount(pair.getKey()) > (pair.getValue().getTroopCount() * constants.TROOP_DIFFERENCE_MULTIPLIER))
                         || targets.size() <= 1
-                        || attackTroopCount > targetTroopCount * 1.5){
-                    attacker = pair.getValue().getNearest(pair.getKey());
+                        || percentage >= SAFE_WIN_PROBABILITY){
+                    attacker = game.getMap().getDistances().getNearest(pair.getValue(), pair.getKey());
                     if(pair.getValue() == null || attacker == null){
                         continue;
                     }
                     AAIDistributeTroopsMethods.makeMoves(game, AAIDistributeTroopsMethods.generateCollectMoves(castleGraph, attacker));
 
-                    AttackThread attackThread = game.startAttack(attacker, pair.getValue(), attackTroopCount, fastForward);
-                    if(attackThread == null)
+                    AAttack attack = game.startAttack(attacker, pair.getValue(), attackTroopCount, fastForward);
+                    if(attack == null)
                         continue;
                     if(fastForward)
-                        attackThread.fastForward();
-                    attackThread.join();
-                    attackWon = attackThread.getWinner() == this;
+                        attack.fastForward();
+                    attack.join();
+                    attackWon = attack.getWinner() == this;
                     if(!attackWon){
                         worstPercentage = percentage;
                     }
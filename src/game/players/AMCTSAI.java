@@ -0,0 +1,132 @@
+package game.players;
+
+import de.teast.aai.AAIConstants;
+import de.teast.aai.AAIDefenseEvalMethods;
+import de.teast.aai.AAIDistributeTroopsMethods;
+import de.teast.aai.AAIMethods;
+import de.teast.asimulation.ABoardState;
+import de.teast.asimulation.ABoardTopology;
+import de.teast.asimulation.AMonteCarloTreeSearch;
+import game.AAttack;
+import game.Game;
+import game.goals.ConquerGoal;
+import game.map.Castle;
+import game.map.GameMap;
+import javafx.util.Pair;
+
+import java.awt.*;
+
+/**
+ * AI for {@link ConquerGoal}, which chooses the placement of its troops and its attacks with a
+ * {@link AMonteCarloTreeSearch} on an {@link ABoardState}. Every decision is searched again on the real board, so the
+ * outcome of the previous attack is known. The castles of the first round and the troop moves at the end of the turn
+ * are chosen like {@link ABasicAI}. Once the time budget of a turn is used up, nothing is searched anymore: the
+ * remaining troops are placed like {@link ABasicAI} places them and the turn ends without further attacks.
+ * @author Alexander Muth
+ */
+public class AMCTSAI extends ABasicAI {
+    public static final long DEFAULT_TIME_BUDGET = 1000; // milliseconds per turn
+    private static final int MAX_DECISIONS = 100;
+    private static final int timeout = 1000;
+
+    private long timeBudget = DEFAULT_TIME_BUDGET;
+    private long iterations;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private ABoardTopology topology;
+    private GameMap topologyMap; // the map of the topology
+
+    public AMCTSAI(String name, Color color) {
+        super(name, color);
+    }
+
+    /**
+     * @param timeBudget the time of all searches of one turn in milliseconds
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * @param iterations the iterations of every thread per decision instead of the time budget, which makes the
+     *                   decisions reproducible, or 0 to use the time budget
+     */
+    public void setIterations(long iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * @param threads the count of threads searching in parallel
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    protected void actions(Game game) throws InterruptedException {
+        if(game.getRound() == 1 || !(game.getGoal() instanceof ConquerGoal)){
+            super.actions(game);
+            return;
+        }
+        if(constants == null)
+            constants = new AAIConstants(game.getMapSize());
+        AAIConstants previousConstants = AAIConstants.setCurrent(constants);
+        GameMap previousMap = AAIMethods.setCurrentMap(game.getMap());
+        try {
+            doActions(game);
+        } finally {
+            AAIMethods.setCurrentMap(previousMap);
+            AAIConstants.setCurrent(previousConstants);
+        }
+    }
+
+    private void doActions(Game game) throws InterruptedException {
+        if(topologyMap != game.getMap()){
+            topology = new ABoardTopology(game.getMap(), game.getPlayers());
+            topologyMap = game.getMap();
+        }
+        int player = topology.getPlayerId(this);
+        AMonteCarloTreeSearch search = new AMonteCarloTreeSearch(topology, player);
+        search.setThreads(threads);
+        long deadline = System.nanoTime() + timeBudget * 1_000_000L;
+
+        for(int decision = 0; decision < MAX_DECISIONS && !game.isOver(); decision++){
+            long remaining = deadline - System.nanoTime();
+            if(iterations <= 0 && remaining <= 0){
+                // the time budget is used up, the remaining troops are placed like ABasicAI places them
+                placeRemainingTroops(game);
+                break;
+            }
+            ABoardState state = new ABoardState(topology);
+            // every decision gets a third of the remaining time, the later decisions have fewer alternatives
+            int action = search.search(state, remaining / 3, iterations, getRandom().nextLong());
+            if(action == AMonteCarloTreeSearch.END_TURN)
+                break;
+
+            if(state.getReserve(player) > 0){
+                sleep((timeout / 3) + 10);
+                game.addTroops(this, topology.getCastle(action), getRemainingTroops());
+            } else {
+                Castle source = topology.getCastle(search.getSource(action));
+                AAttack attack = game.startAttack(source, topology.getCastle(search.getTarget(action)),
+                        source.getTroopCount() - 1, fastForward);
+                if(attack == null)
+                    break;
+                if(fastForward)
+                    attack.fastForward();
+                attack.join();
+            }
+        }
+
+        game.getGameInterface().onUpdate();
+        AAIDefenseEvalMethods.moveDefenseTroops(game, this);
+    }
+
+    private void placeRemainingTroops(Game game) throws InterruptedException {
+        if(getRemainingTroops() <= 0)
+            return;
+        for(Pair<Castle, Integer> pair : AAIDistributeTroopsMethods.distributeTroops(game.getMap().getGraph(), this, getRemainingTroops())){
+            sleep((timeout / 3) + 10);
+            game.addTroops(this, pair.getKey(), pair.getValue());
+        }
+    }
+}
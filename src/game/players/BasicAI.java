@@ -3,10 +3,10 @@ package game.players;
 import base.Edge;
 import base.Graph;
 import base.Node;
+import game.AAttack;
 import game.AI;
 import game.Game;
 import game.map.Castle;
-import gui.AttackThread;
 
 import java.awt.*;
 import java.util.ArrayList;
@@ -85,12 +85,12 @@ public class BasicAI extends AI {
                     for (Edge<Castle> edge : graph.getEdges(node)) {
                         Castle otherCastle = edge.getOtherNode(node).getValue();
                         if (otherCastle.getOwner() != this && castle.getTroopCount() >= otherCastle.getTroopCount()) {
-                            AttackThread attackThread = game.startAttack(castle, otherCastle, castle.getTroopCount());
+                            AAttack attack = game.startAttack(castle, otherCastle, castle.getTroopCount());
                             if(fastForward)
-                                attackThread.fastForward();
+                                attack.fastForward();
 
-                            attackThread.join();
-                            attackWon = attackThread.getWinner() == this;
+                            attack.join();
+                            attackWon = attack.getWinner() == this;
                             break;
                         }
                     }
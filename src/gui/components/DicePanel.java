@@ -1,10 +1,12 @@
 package gui.components;
 
+import game.ATimeline;
 import gui.Resources;
 
 import javax.swing.*;
 import java.awt.*;
 import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
 import java.util.stream.IntStream;
 
 public class DicePanel extends JPanel {
@@ -13,15 +15,24 @@ public class DicePanel extends JPanel {
     private Random random;
     private Resources resources;
     private int numDices;
+    private final ATimeline.Track track;
 
     public DicePanel(Resources resources) {
         this.diceValues = new int[6];
         this.resources = resources;
         this.random = new Random();
+        this.track = ATimeline.get().newTrack();
         this.generateRandom(3);
     }
 
-    public int[] generateRandom(int numDices) {
+    /**
+     * @param random the random number generator for the dices, e.g. {@link game.Game#getRandom}
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    public synchronized int[] generateRandom(int numDices) {
         this.numDices = numDices;
         int[] result = new int[Math.min(numDices, 3)];
 
@@ -34,29 +45,67 @@ public class DicePanel extends JPanel {
         return result;
     }
 
+    /**
+     * Rolls the dices, an animation shows changing values for 1,5 seconds before, unless it is fast-forwarded
+     * @see #fastForward()
+     */
     public int[] generateRandom(int numDices, boolean animate) throws InterruptedException {
         if(animate) {
-            long duration = 1500;
-            long start = System.currentTimeMillis();
-            long end = start + duration;
-            long lastTick = 0;
-
-            while(System.currentTimeMillis() < end) {
-                long tick = System.currentTimeMillis() - start;
-                double progress = (double)tick / (double) duration;
-                long waitTime = (long) (200 * Math.pow(progress, 3) - 800 * Math.pow(progress, 2) + 850 * progress + 20);
-                if(lastTick == 0 || (waitTime > 0 && (tick - lastTick) >= waitTime)) {
-                    lastTick = tick;
-                    generateRandom(numDices);
-                } else {
-                    Thread.sleep(10);
-                }
+            track.reset();
+            Animation animation = new Animation(numDices, 1500);
+            try {
+                track.sleep(animation.duration);
+            } finally {
+                animation.stop();
             }
         }
 
         return generateRandom(numDices);
     }
 
+    /**
+     * Ends the current animation at once
+     */
+    public void fastForward() {
+        track.fastForward();
+    }
+
+    /**
+     * Shows new values in slowing down steps of the {@link ATimeline}
+     */
+    private class Animation implements Runnable {
+        private final int numDices;
+        private final long duration, start;
+        private boolean stopped;
+        private ScheduledFuture<?> next;
+
+        private Animation(int numDices, long duration) {
+            this.numDices = numDices;
+            this.duration = duration;
+            this.start = System.currentTimeMillis();
+            run();
+        }
+
+        @Override
+        public void run() {
+            synchronized(DicePanel.this) {
+                if(stopped)
+                    return;
+                generateRandom(numDices);
+                double progress = (double)(System.currentTimeMillis() - start) / (double) duration;
+                long waitTime = (long) (200 * Math.pow(progress, 3) - 800 * Math.pow(progress, 2) + 850 * progress + 20);
+                next = ATimeline.get().schedule(this, Math.max(10, waitTime));
+            }
+        }
+
+        private void stop() {
+            synchronized(DicePanel.this) {
+                stopped = true;
+                next.cancel(false);
+            }
+        }
+    }
+
     @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -7,7 +7,7 @@ import game.Game;
 import game.Player;
 import game.map.Castle;
 import game.map.GameMap;
-import game.map.PathFinding;
+import game.map.APathTreeCache;
 import game.players.Human;
 import gui.Resources;
 import gui.View;
@@ -44,7 +44,7 @@ public class MapPanel extends JScrollPane {
     private Resources resources;
     private Game game;
     private Action currentAction;
-    private PathFinding pathFinding;
+    private final APathTreeCache pathTrees = new APathTreeCache();
     private List<Edge<Castle>> highlightedEdges;
     private Castle targetCastle;
 
@@ -98,7 +98,7 @@ public class MapPanel extends JScrollPane {
         if(game.isOver())
             return false;
 
-        return game.getAttackThread() == null;
+        return game.getAttack() == null;
     }
 
     private MouseAdapter onMouseInput = new MouseAdapter() {
@@ -154,7 +154,6 @@ public class MapPanel extends JScrollPane {
                 Point mousePos = cursorToMapLocation(e.getPoint());
                 Player currentPlayer = game.getCurrentPlayer();
                 boolean selectNew = true;
-                Action lastAction = currentAction;
 
                 if (selectedCastle != null && canPerformAction()) {
                     Point castlePos = selectedCastle.getLocationOnMap();
@@ -222,13 +221,6 @@ public class MapPanel extends JScrollPane {
                     }
 
                     if(currentAction != Action.NONE) {
-                        if(lastAction != currentAction) {
-                            pathFinding = new PathFinding(game.getMap().getGraph(), selectedCastle, currentAction, currentPlayer);
-                            pathFinding.clashOfArmiesGoal = game.isClashOfArmiesGoal();
-                            pathFinding.flagEmpireGoal = game.flagEmpireGoal();
-                            pathFinding.run();
-                        }
-
                         setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
                     }
                 }
@@ -242,13 +234,13 @@ public class MapPanel extends JScrollPane {
                         }
                         selectedCastle = nextCastle;
                         setCursor(Cursor.getDefaultCursor());
-                    }else if(game.isClashOfArmiesGoal() && currentAction == Action.MOVING && game.clashOfArmiesGoal().tryMove(selectedCastle, nextCastle, pathFinding.getPath(nextCastle)) != null) {
-                        game.clashOfArmiesGoal().move(selectedCastle, nextCastle, pathFinding.getPath(nextCastle));
+                    }else if(game.isClashOfArmiesGoal() && currentAction == Action.MOVING && game.clashOfArmiesGoal().tryMove(selectedCastle, nextCastle, getPath(nextCastle)) != null) {
+                        game.clashOfArmiesGoal().move(selectedCastle, nextCastle, getPath(nextCastle));
                         currentAction = Action.NONE;
                         highlightedEdges = null;
                         targetCastle = null;
                         setCursor(Cursor.getDefaultCursor());
-                    }else if(!game.isClashOfArmiesGoal() && currentAction == Action.MOVING && pathFinding.getPath(nextCastle) != null) {
+                    }else if(!game.isClashOfArmiesGoal() && currentAction == Action.MOVING && getPath(nextCastle) != null) {
                         NumberDialog nd = new NumberDialog("Wie viele Truppen möchtest du verschieben?", 1, selectedCastle.getTroopCount() - 1, 1);
                         if(nd.showDialog(MapPanel.this)) {
                             game.moveTroops(selectedCastle, nextCastle, nd.getValue());
@@ -260,7 +252,7 @@ public class MapPanel extends JScrollPane {
                             setCursor(Cursor.getDefaultCursor());
                             gameView.updateStats();
                         }
-                    } else if(!game.isClashOfArmiesGoal() && currentAction == Action.ATTACKING && pathFinding.getPath(nextCastle) != null && nextCastle.getOwner() != selectedCastle.getOwner()
+                    } else if(!game.isClashOfArmiesGoal() && currentAction == Action.ATTACKING && getPath(nextCastle) != null && nextCastle.getOwner() != selectedCastle.getOwner()
                                 && (!game.isFlagEmpireGoal() || nextCastle.getTroopCount() > 0)) {
                         NumberDialog nd = new NumberDialog("Mit wie vielen Truppen möchtest du angreifen?", 1, selectedCastle.getTroopCount(), selectedCastle.getTroopCount()  - 1);
                         if(nd.showDialog(MapPanel.this)) {
@@ -353,11 +345,11 @@ public class MapPanel extends JScrollPane {
                     setToolTipText(null);
                     targetCastle = getRegion(mousePos);
                     if(game.isClashOfArmiesGoal() && targetCastle != null){
-                        highlightedEdges = game.clashOfArmiesGoal().tryMove(selectedCastle, targetCastle, pathFinding.getPath(targetCastle));
+                        highlightedEdges = game.clashOfArmiesGoal().tryMove(selectedCastle, targetCastle, getPath(targetCastle));
                         repaint();
                     }else if(targetCastle != null) {
                         if(currentAction != Action.ATTACKING || (targetCastle.getOwner() != selectedCastle.getOwner() && (!game.isFlagEmpireGoal() || (!game.flagEmpireGoal().isFlagSet(targetCastle)) || targetCastle.getTroopCount() > 0))) {
-                            highlightedEdges = pathFinding.getPath(targetCastle);
+                            highlightedEdges = getPath(targetCastle);
                             repaint();
                         } else {
                             targetCastle = null;
@@ -675,6 +667,21 @@ public class MapPanel extends JScrollPane {
         }
     }
 
+    /**
+     * @param target the target castle
+     * @return the path for the current action from the selected castle to {@code target} or null
+     */
+    private List<Edge<Castle>> getPath(Castle target) {
+        return pathTrees.getPath(game, selectedCastle, target, currentAction, game.getCurrentPlayer());
+    }
+
+    /**
+     * @return the cache for the paths of the current action, which provides hit and miss counters
+     */
+    public APathTreeCache getPathTreeCache() {
+        return pathTrees;
+    }
+
     public void clearSelection() {
         this.selectedCastle = null;
         currentAction = Action.NONE;
@@ -2,7 +2,9 @@ package gui.views;
 
 import de.teast.aextensions.ajoker.AJoker;
 import de.teast.agui.ATroopCountPanel;
+import de.teast.autils.ARandomSource;
 import game.AI;
+import game.ATimeline;
 import game.Game;
 import game.GameInterface;
 import game.Player;
@@ -212,8 +214,9 @@ public class GameView extends View implements GameInterface {
                     break;
 
                 case "Überspringen":
-                    if(game.getAttackThread() != null)
-                        game.getAttackThread().fastForward();
+                    dices.fastForward();
+                    if(game.getAttack() != null)
+                        game.getAttack().fastForward();
                     else if(game.getCurrentPlayer() instanceof AI) {
                         ((AI)game.getCurrentPlayer()).fastForward();
                     }
@@ -377,13 +380,15 @@ public class GameView extends View implements GameInterface {
                 }
             }
             Game newGame = game.copy();
-            newGame.start(this);
+            // the map of the new game isn't generated on the event dispatch thread
+            ATimeline.get().execute(() -> newGame.start(this));
         }
     }
 
     @Override
     public void onGameStarted(Game game) {
         this.map.setGame(game);
+        this.dices.setRandom(game.getRandom(ARandomSource.Stream.DICE));
         this.gameLog.setText("");
         this.logLine("Neues Spiel gestartet.");
         this.updateStats();
@@ -441,7 +446,8 @@ public class GameView extends View implements GameInterface {
                 rolls.append(roll[i]);
             }
 
-            logLine(rolls.toString(), player);
+            // logged through the event bus, so the line follows the events published before the roll
+            game.getGameInterface().onLogText(rolls.toString(), player);
             return roll;
         } catch(InterruptedException ex) {
             ex.printStackTrace();
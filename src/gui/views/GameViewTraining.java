@@ -1,6 +1,7 @@
 package gui.views;
 
 import de.teast.aai.AAIConstants;
+import game.ATimeline;
 import game.Game;
 import game.Player;
 import game.map.Castle;
@@ -112,7 +113,8 @@ public class GameViewTraining extends GameView {
             }
             newGame.setMapSize(game.getMapSize());
             newGame.setGoal(game.getGoal());
-            newGame.start(this);
+            // the map of the new game isn't generated on the event dispatch thread
+            ATimeline.get().execute(() -> newGame.start(this));
         }
     }
 
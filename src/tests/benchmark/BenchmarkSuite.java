@@ -0,0 +1,315 @@
+package tests.benchmark;
+
+import de.teast.aai.AAIDistributionEvalMethods;
+import de.teast.aai.AAIMethods;
+import de.teast.aai.AAITargetEvalMethods;
+import de.teast.asimulation.AHeadlessGameInterface;
+import de.teast.autils.ARandomSource;
+import game.Game;
+import game.GameConstants;
+import game.Player;
+import game.goals.ConquerGoal;
+import game.map.Castle;
+import game.map.MapSize;
+import game.map.PathFinding;
+import game.players.ABasicAI;
+import gui.Resources;
+import gui.components.MapPanel;
+
+import java.awt.*;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks of the expensive parts of a game on fixed seeded maps: the map generation per {@link MapSize}, the path
+ * finding, {@link base.Graph#allNodesConnected()}, the AI evaluations and a complete {@link ABasicAI} turn.
+ * Every benchmark is measured in warmup and measurement iterations of a fixed time, the results are printed and
+ * written as JSON in the result format of JMH (benchmark, params, mode, score, scoreError, unit), so the results of
+ * two versions can be compared with the usual JMH tools.
+ * Usage: {@code BenchmarkSuite [output.json] [filter]}
+ * @author Alexander Muth
+ */
+public class BenchmarkSuite {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURE_ITERATIONS = 10;
+    private static final long ITERATION_NANOS = 200_000_000L;
+    private static final long SEED = 42;
+
+    private static long sink;
+
+    /**
+     * The result of one benchmark
+     */
+    private static class Result {
+        final String benchmark;
+        final Map<String, String> params;
+        final double[] samples; // microseconds per operation of every measurement iteration
+
+        Result(String benchmark, Map<String, String> params, double[] samples){
+            this.benchmark = benchmark;
+            this.params = params;
+            this.samples = samples;
+        }
+
+        double getScore(){
+            double sum = 0;
+            for(double sample : samples)
+                sum += sample;
+            return sum / samples.length;
+        }
+
+        /**
+         * @return the half width of the 99.9% confidence interval (normal approximation, like a rough JMH scoreError)
+         */
+        double getScoreError(){
+            if(samples.length < 2)
+                return Double.NaN;
+            double mean = getScore(), variance = 0;
+            for(double sample : samples)
+                variance += (sample - mean) * (sample - mean);
+            variance /= samples.length - 1;
+            return 3.29 * Math.sqrt(variance / samples.length);
+        }
+    }
+
+    /**
+     * A game with a generated map in a fixed state, which isn't started, so nothing changes the state by itself
+     */
+    private static class BenchmarkGame extends Game {
+        BenchmarkGame(MapSize mapSize, int playerCount, ARandomSource randomSource){
+            for(int i = 0; i < playerCount; i++)
+                addPlayer(Player.createPlayer(ABasicAI.class, "Player " + (i + 1), GameConstants.PLAYER_COLORS[i]));
+            setGoal(new ConquerGoal());
+            setMapSize(mapSize);
+            setHeadless(true);
+            setRandomSource(randomSource);
+            gameInterface = new AHeadlessGameInterface(randomSource.create(ARandomSource.Stream.DICE));
+        }
+
+        void createMap(){
+            generateMap();
+        }
+
+        /**
+         * Gives every castle to a random player with 1 to 5 troops, like in the middle of a game
+         */
+        void distributeCastles(long seed){
+            Random random = new Random(seed);
+            for(Castle castle : getMap().getCastles()){
+                castle.setOwner(getPlayers().get(random.nextInt(getPlayers().size())));
+                castle.removeTroops(castle.getTroopCount());
+                castle.addTroops(1 + random.nextInt(5));
+            }
+        }
+    }
+
+    /**
+     * Counts the time of the turns after the castle distribution
+     */
+    public static class TimedABasicAI extends ABasicAI {
+        private long turnNanos;
+        private int turns;
+
+        public TimedABasicAI(String name, Color color) {
+            super(name, color);
+        }
+
+        @Override
+        protected void actions(Game game) throws InterruptedException {
+            long start = System.nanoTime();
+            super.actions(game);
+            if(game.getRound() > 1){
+                turnNanos += System.nanoTime() - start;
+                turns++;
+            }
+        }
+    }
+
+    private final List<Result> results = new ArrayList<>();
+    private final String filter;
+
+    private BenchmarkSuite(String filter){
+        this.filter = filter;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String output = args.length > 0 ? args[0] : "benchmark-results.json";
+        BenchmarkSuite suite = new BenchmarkSuite(args.length > 1 ? args[1] : "");
+        Resources.getInstance();
+
+        for(MapSize mapSize : MapSize.values()){
+            ARandomSource randomSource = new ARandomSource(SEED);
+            long[] index = {0};
+            suite.run("generateRandomMap", params("mapSize", mapSize.name()), () -> {
+                BenchmarkGame game = new BenchmarkGame(mapSize, GameConstants.MAX_PLAYERS, randomSource.split(index[0]++));
+                game.createMap();
+                sink += game.getMap().getBackgroundImage().getRGB(0, 0); // renders the background like a visible game
+            });
+        }
+
+        BenchmarkGame game = createGame(MapSize.LARGE);
+        game.distributeCastles(SEED);
+        List<Castle> castles = game.getMap().getCastles();
+        Player player = game.getPlayers().get(0);
+        Map<String, String> large = params("mapSize", MapSize.LARGE.name());
+        int[] next = {0};
+
+        suite.run("PathFinding.run", large, () -> {
+            Castle source = castles.get(next[0]++ % castles.size());
+            PathFinding pathFinding = new PathFinding(game.getMap().getGraph(), source, MapPanel.Action.ATTACKING, source.getOwner());
+            pathFinding.run();
+            sink += pathFinding.getPath(castles.get((next[0] * 7) % castles.size())) == null ? 0 : 1;
+        });
+        PathFinding tree = new PathFinding(game.getMap().getGraph(), castles.get(0), MapPanel.Action.ATTACKING, castles.get(0).getOwner());
+        tree.run();
+        suite.run("PathFinding.getPath", large, () -> {
+            List<?> path = tree.getPath(castles.get(next[0]++ % castles.size()));
+            sink += path == null ? 0 : path.size();
+        });
+        suite.run("Graph.allNodesConnected", large, () -> sink += game.getMap().getGraph().allNodesConnected() ? 1 : 0);
+        AAIMethods.setCurrentMap(game.getMap());
+        suite.run("AAITargetEvalMethods.getTargets", large,
+                () -> sink += AAITargetEvalMethods.getTargets(game.getMap().getGraph(), player).size());
+
+        BenchmarkGame emptyGame = createGame(MapSize.LARGE);
+        Player emptyPlayer = emptyGame.getPlayers().get(0);
+        AAIMethods.setCurrentMap(emptyGame.getMap());
+        suite.run("AAIDistributionEvalMethods.getBestCastleDistribution", large,
+                () -> sink += AAIDistributionEvalMethods.getBestCastleDistribution(emptyGame.getMap().getGraph(), emptyPlayer, GameConstants.CASTLES_AT_BEGINNING).size());
+        AAIMethods.setCurrentMap(null);
+
+        for(MapSize mapSize : MapSize.values()){
+            suite.runTurns(mapSize);
+        }
+
+        suite.write(output);
+        System.out.println("results written to " + output + " (checksum " + sink + ")");
+    }
+
+    /**
+     * @return a game with the map of {@link #SEED}
+     */
+    private static BenchmarkGame createGame(MapSize mapSize){
+        BenchmarkGame game = new BenchmarkGame(mapSize, GameConstants.MAX_PLAYERS, new ARandomSource(SEED));
+        game.createMap();
+        return game;
+    }
+
+    private static Map<String, String> params(String key, String value){
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put(key, value);
+        return params;
+    }
+
+    /**
+     * Measures the operation in iterations of {@link #ITERATION_NANOS} after the warmup iterations
+     */
+    private void run(String benchmark, Map<String, String> params, Runnable operation){
+        if(!benchmark.contains(filter))
+            return;
+        for(int i = 0; i < WARMUP_ITERATIONS; i++)
+            iteration(operation);
+        double[] samples = new double[MEASURE_ITERATIONS];
+        for(int i = 0; i < MEASURE_ITERATIONS; i++)
+            samples[i] = iteration(operation);
+        add(new Result(benchmark, params, samples));
+    }
+
+    /**
+     * @return the mean time per operation in microseconds
+     */
+    private static double iteration(Runnable operation){
+        long start = System.nanoTime(), now;
+        int operations = 0;
+        do {
+            operation.run();
+            operations++;
+            now = System.nanoTime();
+        } while(now - start < ITERATION_NANOS);
+        return (now - start) / (operations * 1000.0);
+    }
+
+    /**
+     * Measures the turns of {@link ABasicAI} in complete headless games, every iteration is one game with a fixed seed
+     */
+    private void runTurns(MapSize mapSize){
+        String benchmark = "ABasicAI.turn";
+        if(!benchmark.contains(filter))
+            return;
+        List<Double> samples = new ArrayList<>();
+        for(int i = -WARMUP_ITERATIONS; i < MEASURE_ITERATIONS; i++){
+            Game game = new Game();
+            game.addPlayer(Player.createPlayer(TimedABasicAI.class, "Player 1", GameConstants.PLAYER_COLORS[0]));
+            game.addPlayer(Player.createPlayer(TimedABasicAI.class, "Player 2", GameConstants.PLAYER_COLORS[1]));
+            game.setGoal(new ConquerGoal());
+            game.setMapSize(mapSize);
+            game.setHeadless(true);
+            game.setRoundLimit(100);
+            game.setRandomSource(new ARandomSource(SEED).split(Math.max(i, 0)));
+            game.start(new AHeadlessGameInterface(game.getRandom(ARandomSource.Stream.DICE)));
+            long nanos = 0;
+            int turns = 0;
+            for(Player player : game.getPlayers()){
+                nanos += ((TimedABasicAI) player).turnNanos;
+                turns += ((TimedABasicAI) player).turns;
+            }
+            if(i >= 0 && turns > 0)
+                samples.add(nanos / (turns * 1000.0));
+        }
+        double[] array = new double[samples.size()];
+        for(int i = 0; i < array.length; i++)
+            array[i] = samples.get(i);
+        if(array.length > 0)
+            add(new Result(benchmark, params("mapSize", mapSize.name()), array));
+    }
+
+    private void add(Result result){
+        results.add(result);
+        System.out.printf(Locale.ROOT, "%-55s %-18s %14.3f +- %10.3f us/op%n", result.benchmark, result.params.values(),
+                result.getScore(), result.getScoreError());
+    }
+
+    /**
+     * Writes the results as JSON array in the format of JMH ({@code -rf json})
+     */
+    private void write(String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println("[");
+            for(int i = 0; i < results.size(); i++){
+                Result result = results.get(i);
+                writer.println("    {");
+                writer.println("        \"benchmark\" : \"" + BenchmarkSuite.class.getName() + "." + result.benchmark + "\",");
+                writer.println("        \"mode\" : \"avgt\",");
+                writer.println("        \"warmupIterations\" : " + WARMUP_ITERATIONS + ",");
+                writer.println("        \"measurementIterations\" : " + result.samples.length + ",");
+                writer.print("        \"params\" : {");
+                int j = 0;
+                for(Map.Entry<String, String> param : result.params.entrySet())
+                    writer.print((j++ > 0 ? ", " : " ") + "\"" + param.getKey() + "\" : \"" + param.getValue() + "\"");
+                writer.println(" },");
+                writer.println("        \"primaryMetric\" : {");
+                writer.println("            \"score\" : " + number(result.getScore()) + ",");
+                writer.println("            \"scoreError\" : " + number(result.getScoreError()) + ",");
+                writer.println("            \"scoreUnit\" : \"us/op\",");
+                writer.print("            \"rawData\" : [ [");
+                for(int k = 0; k < result.samples.length; k++)
+                    writer.print((k > 0 ? ", " : " ") + number(result.samples[k]));
+                writer.println(" ] ]");
+                writer.println("        }");
+                writer.println(i + 1 < results.size() ? "    }," : "    }");
+            }
+            writer.println("]");
+        }
+    }
+
+    private static String number(double value){
+        return Double.isNaN(value) ? "\"NaN\"" : String.format(Locale.ROOT, "%.6f", value);
+    }
+}
@@ -0,0 +1,130 @@
+package tests.benchmark;
+
+import base.Edge;
+import base.Graph;
+import base.Node;
+import game.map.Castle;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the adjacency indexed lookups of {@link Graph} with the former linear scans over all nodes and edges
+ * on castle graphs with 50, 500 and 5000 castles.
+ * Every query does the lookups the game does most: getEdges(node), getNeighbours(node), getEdge(node, neighbour) and getNode(value).
+ * @author Alexander Muth
+ */
+public class GraphBenchmark {
+    private static final int[] CASTLE_COUNTS = {50, 500, 5000};
+    private static final int QUERIES = 1000;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+
+    private static long sink;
+
+    public static void main(String[] args){
+        System.out.printf("%8s %16s %16s %10s%n", "castles", "indexed ns/op", "linear ns/op", "speedup");
+        for(int castleCount : CASTLE_COUNTS){
+            Graph<Castle> graph = createCastleGraph(castleCount, 42);
+            List<Node<Castle>> queries = createQueries(graph, 7);
+            double indexed = measure(() -> runIndexed(graph, queries));
+            double linear = measure(() -> runLinear(graph, queries));
+            System.out.printf("%8d %16.1f %16.1f %9.1fx%n", castleCount, indexed, linear, linear / indexed);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * Creates a graph with randomly placed castles, where every castle is connected to its three nearest castles
+     * @param castleCount the castle count
+     * @param seed the seed for the castle positions
+     * @return the castle graph
+     */
+    public static Graph<Castle> createCastleGraph(int castleCount, long seed){
+        Random random = new Random(seed);
+        int size = (int) (Math.sqrt(castleCount) * 60);
+        Graph<Castle> graph = new Graph<>();
+        for(int i = 0; i < castleCount; i++){
+            graph.addNode(new Castle(new Point(random.nextInt(size), random.nextInt(size)), "Castle " + i));
+        }
+        List<Node<Castle>> nodes = graph.getNodes();
+        for(Node<Castle> node : nodes){
+            Castle castle = node.getValue();
+            nodes.stream()
+                    .filter(other -> other != node)
+                    .sorted(Comparator.comparingDouble(other -> castle.distance(other.getValue())))
+                    .limit(3)
+                    .forEach(other -> graph.addEdge(node, other));
+        }
+        return graph;
+    }
+
+    private static List<Node<Castle>> createQueries(Graph<Castle> graph, long seed){
+        Random random = new Random(seed);
+        List<Node<Castle>> queries = new ArrayList<>(QUERIES);
+        for(int i = 0; i < QUERIES; i++){
+            queries.add(graph.getNodes().get(random.nextInt(graph.getNodes().size())));
+        }
+        return queries;
+    }
+
+    /**
+     * @return the mean time per query in nanoseconds
+     */
+    private static double measure(Runnable run){
+        for(int i = 0; i < WARMUP_ITERATIONS; i++){
+            run.run();
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < MEASURE_ITERATIONS; i++){
+            run.run();
+        }
+        return (System.nanoTime() - start) / (double) (MEASURE_ITERATIONS * QUERIES);
+    }
+
+    private static void runIndexed(Graph<Castle> graph, List<Node<Castle>> queries){
+        for(Node<Castle> node : queries){
+            sink += graph.getEdges(node).size();
+            List<Node<Castle>> neighbours = graph.getNeighbours(node);
+            sink += graph.getEdge(node, neighbours.get(0)) != null ? 1 : 0;
+            sink += graph.getNode(node.getValue()).getIndex();
+        }
+    }
+
+    private static void runLinear(Graph<Castle> graph, List<Node<Castle>> queries){
+        for(Node<Castle> node : queries){
+            sink += linearEdges(graph, node).size();
+            List<Node<Castle>> neighbours = linearNeighbours(graph, node);
+            sink += linearEdge(graph, node, neighbours.get(0)) != null ? 1 : 0;
+            sink += linearNode(graph, node.getValue()).getIndex();
+        }
+    }
+
+    // the lookups as they were implemented before the adjacency index
+
+    private static boolean contains(Edge<Castle> edge, Node<Castle> node){
+        return edge.getNodeA() == node || edge.getNodeB() == node;
+    }
+
+    private static List<Edge<Castle>> linearEdges(Graph<Castle> graph, Node<Castle> node){
+        return graph.getEdges().stream().filter(e -> contains(e, node)).collect(Collectors.toList());
+    }
+
+    private static List<Node<Castle>> linearNeighbours(Graph<Castle> graph, Node<Castle> node){
+        List<Node<Castle>> returnList = new LinkedList<>();
+        for(Edge<Castle> edge : linearEdges(graph, node)){
+            returnList.add(edge.getOtherNode(node));
+        }
+        return returnList;
+    }
+
+    private static Edge<Castle> linearEdge(Graph<Castle> graph, Node<Castle> nodeA, Node<Castle> nodeB){
+        return graph.getEdges().stream().filter(e -> contains(e, nodeA) && contains(e, nodeB)).findFirst().orElse(null);
+    }
+
+    private static Node<Castle> linearNode(Graph<Castle> graph, Castle value){
+        return graph.getNodes().stream().filter(n -> value.equals(n.getValue())).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,143 @@
+package tests.benchmark;
+
+import base.Graph;
+import de.teast.AConstants;
+import de.teast.ARangePathFinding;
+import de.teast.aai.AAIMethods;
+import de.teast.atroops.ATroop;
+import de.teast.atroops.ATroops;
+import game.Game;
+import game.GameInterface;
+import game.Player;
+import game.goals.AClashOfArmiesGoal;
+import game.map.Castle;
+import game.map.GameMap;
+import game.players.Human;
+import gui.Resources;
+
+import java.awt.*;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Measures the range lookups of {@link AClashOfArmiesGoal#doLongRangeAttacks(Player)} before and after the
+ * precomputed hop distances: the recursive neighbour walk plus one path finding per attacker/target pair against
+ * the lookups in {@link de.teast.AHopDistances}. The attacks themselves are the same in both variants and are
+ * measured separately with the complete doLongRangeAttacks call.
+ * @author Alexander Muth
+ */
+public class LongRangeAttackBenchmark {
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURE_ITERATIONS = 100;
+    private static final int[] RANGES = {AConstants.TROOPS[3].longRangeRange, 6};
+
+    private static long sink;
+
+    /**
+     * A clash of armies game without a user interface
+     */
+    private static class BenchmarkGame extends Game {
+        BenchmarkGame(){
+            gameInterface = (GameInterface) Proxy.newProxyInstance(GameInterface.class.getClassLoader(),
+                    new Class<?>[]{GameInterface.class}, (proxy, method, args) -> null);
+            addPlayer(Player.createPlayer(Human.class, "Player 1", Color.RED));
+            addPlayer(Player.createPlayer(Human.class, "Player 2", Color.BLUE));
+            setGoal(new AClashOfArmiesGoal());
+            gameMap = GameMap.generateRandomMap(this, 48, 32, 40, 42, 4); // the dimensions of a large map for two players
+            clashOfArmiesGoal().generateBases();
+            clashOfArmiesGoal().generatePaths();
+        }
+
+        /**
+         * Gives every castle to one of the players and places long range troops on it
+         */
+        void populate(ATroop troop){
+            List<Castle> castles = getMap().getCastles();
+            for(int i = 0; i < castles.size(); i++){
+                clashOfArmiesGoal().updateTroops(getPlayers().get(i % 2), castles.get(i),
+                        new LinkedList<>(Collections.singletonList(new ATroops(troop, 5))));
+            }
+        }
+    }
+
+    public static void main(String[] args){
+        Resources.getInstance();
+        BenchmarkGame game = new BenchmarkGame();
+        AClashOfArmiesGoal goal = game.clashOfArmiesGoal();
+        Player player = game.getPlayers().get(0);
+        System.out.println("castles: " + game.getMap().getCastles().size() + ", edges: " + game.getMap().getEdges().size());
+        System.out.printf("%6s %18s %18s %10s %24s%n", "range", "before us/turn", "after us/turn", "speedup", "doLongRangeAttacks us");
+        for(int range : RANGES){
+            ATroop troop = new ATroop("bow.png", "Benchmark", 1, 1, 1, 1, range, 1, 100, 1);
+            game.populate(troop);
+            double before = measure(() -> rangeLookupsBefore(game, player, range));
+            double after = measure(() -> rangeLookupsAfter(goal, game, player, range));
+            double complete = measure(() -> {
+                game.populate(troop);
+                goal.doLongRangeAttacks(player);
+            });
+            System.out.printf("%6d %18.1f %18.1f %9.1fx %24.1f%n", range, before, after, before / after, complete);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * @return the mean time per iteration in microseconds
+     */
+    private static double measure(Runnable run){
+        for(int i = 0; i < WARMUP_ITERATIONS; i++){
+            run.run();
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < MEASURE_ITERATIONS; i++){
+            run.run();
+        }
+        return (System.nanoTime() - start) / (MEASURE_ITERATIONS * 1000.0);
+    }
+
+    private static void rangeLookupsAfter(AClashOfArmiesGoal goal, Game game, Player player, int range){
+        for(Castle attacker : player.getCastles(game.getMap().getCastles())){
+            for(Castle target : goal.getEnemyCastlesInRange(attacker, range)){
+                sink += ARangePathFinding.getRange(game.getMap().getGraph(), attacker, target);
+            }
+        }
+    }
+
+    // the range lookups as they were implemented before the hop distance matrix
+
+    private static void rangeLookupsBefore(Game game, Player player, int range){
+        Graph<Castle> graph = game.getMap().getGraph();
+        for(Castle attacker : player.getCastles(game.getMap().getCastles())){
+            for(Castle target : enemyCastlesInRangeBefore(graph, attacker, range)){
+                ARangePathFinding pathFinding = new ARangePathFinding(graph, attacker);
+                pathFinding.run();
+                sink += pathFinding.getRange(target);
+            }
+        }
+    }
+
+    private static List<Castle> enemyCastlesInRangeBefore(Graph<Castle> graph, Castle castle, int range){
+        Set<Castle> castleSet = castlesInRangeBefore(graph, castle, range, new HashSet<>());
+        castleSet.remove(castle);
+        List<Castle> returnList = new LinkedList<>();
+        for(Castle c : castleSet){
+            if(c.getOwner() != castle.getOwner() && c.getOwner() != null){
+                returnList.add(c);
+            }
+        }
+        return returnList;
+    }
+
+    private static Set<Castle> castlesInRangeBefore(Graph<Castle> graph, Castle currentCastle, int rangeLeft, Set<Castle> castleSet){
+        castleSet.add(currentCastle);
+        if(rangeLeft > 0) {
+            for(Castle neighbour : AAIMethods.getAllNeighbours(graph, currentCastle)){
+                if(!castleSet.contains(neighbour)){
+                    castlesInRangeBefore(graph, neighbour, rangeLeft - 1, castleSet);
+                }
+            }
+        }
+        return castleSet;
+    }
+}
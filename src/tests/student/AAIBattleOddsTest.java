@@ -0,0 +1,48 @@
+package tests.student;
+
+import de.teast.aai.AAIBattleOdds;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class to test the exact odds of {@link AAIBattleOdds}
+ * @author Alexander Muth
+ */
+public class AAIBattleOddsTest {
+	private static final double DELTA = 1e-12;
+
+	@Test
+	public void test_AAIBattleOdds_singleDice_shouldBeExact() {
+		// the attacker wins, if its die is higher: in 15 of 36 rolls
+		assertEquals(15 / 36.0, AAIBattleOdds.getWinProbability(1, 1, false), DELTA);
+		assertEquals(21 / 36.0, AAIBattleOdds.getExpectedAttackerLosses(1, 1, false), DELTA);
+		assertEquals(15 / 36.0, AAIBattleOdds.getExpectedDefenderLosses(1, 1, false), DELTA);
+	}
+
+	@Test
+	public void test_AAIBattleOdds_threeAgainstTwo_shouldBeExact() {
+		assertEquals(0.65595, AAIBattleOdds.getWinProbability(3, 2, false), 1e-5);
+	}
+
+	@Test
+	public void test_AAIBattleOdds_doubleDice_shouldBeExact() {
+		// the higher of two dice beats the die of the defender in 125 of 216 rolls
+		assertEquals(125 / 216.0, AAIBattleOdds.getWinProbability(1, 1, true), DELTA);
+		assertTrue(AAIBattleOdds.getWinProbability(3, 2, true) > AAIBattleOdds.getWinProbability(3, 2, false));
+	}
+
+	@Test
+	public void test_AAIBattleOdds_probabilities_shouldBeBetweenZeroAndOne() {
+		for(int variant = 0; variant < 2; variant++) {
+			for(int attackers = 1; attackers <= AAIBattleOdds.MAX_TROOPS + 50; attackers++) {
+				for(int defenders = 1; defenders <= AAIBattleOdds.MAX_TROOPS + 50; defenders++) {
+					double probability = AAIBattleOdds.getWinProbability(attackers, defenders, variant == 1);
+					assertTrue(probability >= 0 && probability <= 1, attackers + " vs " + defenders + ": " + probability);
+				}
+			}
+		}
+		assertEquals(1.0, AAIBattleOdds.getWinProbability(101, 1, false), DELTA);
+	}
+}
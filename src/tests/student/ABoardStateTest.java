@@ -0,0 +1,135 @@
+package tests.student;
+
+import de.teast.asimulation.ABoardState;
+import de.teast.asimulation.ABoardTopology;
+import de.teast.autils.ARandomSource;
+import game.Game;
+import game.Player;
+import game.map.Castle;
+import game.map.GameMap;
+import game.players.BasicAI;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class to test the copy on write arrays of {@link ABoardState#fork()} and the journal of {@link ABoardState#undo(int)}
+ * @author Alexander Muth
+ */
+public class ABoardStateTest {
+	private static final int TROOPS = 3;
+
+	@Test
+	public void test_ABoardState_fork_shouldChangeParentAndChildIndependently() {
+		ABoardState parent = createState(1);
+		ABoardState child = parent.fork();
+		int[] attack = findAttack(parent);
+		int source = attack[0], target = attack[1];
+
+		parent.applyAttack(source, target, 1, 0);
+		assertEquals(TROOPS - 1, parent.getTroops(source));
+		assertEquals(TROOPS, child.getTroops(source));
+
+		child.applyAttack(source, target, 0, 1);
+		assertEquals(TROOPS - 1, child.getTroops(target));
+		assertEquals(TROOPS, parent.getTroops(target));
+		assertEquals(TROOPS - 1, parent.getTroops(source));
+		assertEquals(TROOPS, child.getTroops(source));
+	}
+
+	@Test
+	public void test_ABoardState_undo_shouldRestoreCastleCountsAfterConquer() {
+		ABoardState state = createState(2);
+		int[] attack = findAttack(state);
+		int source = attack[0], target = attack[1];
+		int attacker = state.getOwner(source), defender = state.getOwner(target);
+		int[] before = snapshot(state);
+		int attackerCastles = state.getCastleCount(attacker), defenderCastles = state.getCastleCount(defender);
+
+		int mark = state.mark();
+		assertTrue(state.applyAttack(source, target, 0, TROOPS));
+		assertEquals(attacker, state.getOwner(target));
+		assertEquals(attackerCastles + 1, state.getCastleCount(attacker));
+		assertEquals(defenderCastles - 1, state.getCastleCount(defender));
+
+		state.undo(mark);
+		assertEquals(defender, state.getOwner(target));
+		assertEquals(attackerCastles, state.getCastleCount(attacker));
+		assertEquals(defenderCastles, state.getCastleCount(defender));
+		assertArrayEquals(before, snapshot(state));
+	}
+
+	@Test
+	public void test_ABoardState_undo_shouldNotChangeSibling() {
+		ABoardState parent = createState(3);
+		int[] attack = findAttack(parent);
+		int source = attack[0], target = attack[1];
+
+		ABoardState state = parent.fork(), sibling = parent.fork();
+		int mark = state.mark();
+		state.applyAttack(source, target, 0, TROOPS);
+		ABoardState child = state.fork(); // shares the arrays of the conquered state
+		int[] conquered = snapshot(child);
+
+		state.undo(mark);
+		assertArrayEquals(snapshot(parent), snapshot(state));
+		assertArrayEquals(snapshot(parent), snapshot(sibling));
+		assertArrayEquals(conquered, snapshot(child));
+	}
+
+	/**
+	 * @return a state of a generated map, whose castles belong alternately to two players with {@link #TROOPS} troops
+	 */
+	private static ABoardState createState(long seed) {
+		Game game = new Game();
+		game.setHeadless(true);
+		game.setRandomSource(new ARandomSource(seed));
+		game.addPlayer(Player.createPlayer(BasicAI.class, "Player 1", Color.RED));
+		game.addPlayer(Player.createPlayer(BasicAI.class, "Player 2", Color.BLUE));
+		GameMap gameMap = GameMap.generateRandomMap(game, 30, 20, 40, 20, 3);
+		List<Castle> castles = gameMap.getCastles();
+		for(int i = 0; i < castles.size(); i++) {
+			castles.get(i).setOwner(game.getPlayers().get(i % 2));
+			castles.get(i).addTroops(TROOPS);
+		}
+		return new ABoardState(new ABoardTopology(gameMap, game.getPlayers()));
+	}
+
+	/**
+	 * @return a castle and a neighbour of another player
+	 */
+	private static int[] findAttack(ABoardState state) {
+		ABoardTopology topology = state.getTopology();
+		for(int castle = 0; castle < topology.getCastleCount(); castle++) {
+			for(int i = topology.getNeighbourStart(castle); i < topology.getNeighbourEnd(castle); i++) {
+				int neighbour = topology.getNeighbour(i);
+				if(state.getOwner(neighbour) != state.getOwner(castle))
+					return new int[]{castle, neighbour};
+			}
+		}
+		throw new AssertionError("no castle with a neighbour of another player");
+	}
+
+	/**
+	 * @return the owners and troops of all castles and the castle counts and reserves of all players
+	 */
+	private static int[] snapshot(ABoardState state) {
+		ABoardTopology topology = state.getTopology();
+		int castleCount = topology.getCastleCount(), playerCount = topology.getPlayerCount();
+		int[] values = new int[2 * castleCount + 2 * playerCount];
+		for(int castle = 0; castle < castleCount; castle++) {
+			values[2 * castle] = state.getOwner(castle);
+			values[2 * castle + 1] = state.getTroops(castle);
+		}
+		for(int player = 0; player < playerCount; player++) {
+			values[2 * castleCount + 2 * player] = state.getCastleCount(player);
+			values[2 * castleCount + 2 * player + 1] = state.getReserve(player);
+		}
+		return values;
+	}
+}
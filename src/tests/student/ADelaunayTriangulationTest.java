@@ -0,0 +1,225 @@
+package tests.student;
+
+import base.ADelaunayTriangulation;
+import base.Edge;
+import base.Graph;
+import de.teast.autils.ARandomSource;
+import game.Game;
+import game.map.AEdgeMode;
+import game.map.Castle;
+import game.map.GameMap;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class to test the triangles of {@link ADelaunayTriangulation} and the edges of a map generated with
+ * {@link AEdgeMode#DELAUNAY}
+ * @author Alexander Muth
+ */
+public class ADelaunayTriangulationTest {
+	private static final long[] SEEDS = {1, 2, 3};
+
+	@Test
+	public void test_ADelaunayTriangulation_randomPoints_shouldHaveEmptyCircumcircles() {
+		for(long seed : SEEDS) {
+			Random random = new Random(seed);
+			double[] xs = new double[300], ys = new double[300];
+			for(int i = 0; i < xs.length; i++) {
+				xs[i] = random.nextDouble() * 1000;
+				ys[i] = random.nextDouble() * 1000;
+			}
+			ADelaunayTriangulation triangulation = new ADelaunayTriangulation(xs, ys);
+			assertDelaunay(triangulation, xs, ys);
+			assertConnected(triangulation, xs.length);
+		}
+	}
+
+	@Test
+	public void test_ADelaunayTriangulation_integerGrid_shouldHaveEmptyCircumcircles() {
+		int size = 10;
+		double[] xs = new double[size * size], ys = new double[size * size];
+		for(int i = 0; i < xs.length; i++) {
+			xs[i] = i % size;
+			ys[i] = i / size;
+		}
+		ADelaunayTriangulation triangulation = new ADelaunayTriangulation(xs, ys);
+		assertDelaunay(triangulation, xs, ys);
+		assertConnected(triangulation, xs.length);
+		// every cell of the grid is split into two triangles
+		assertEquals(2 * (size - 1) * (size - 1), triangulation.getTriangles().length / 3);
+	}
+
+	@Test
+	public void test_ADelaunayTriangulation_duplicatePoints_shouldBeTriangulatedOnce() {
+		for(long seed : SEEDS) {
+			Random random = new Random(seed);
+			int unique = 100;
+			double[] xs = new double[unique + 50], ys = new double[unique + 50];
+			for(int i = 0; i < unique; i++) {
+				xs[i] = random.nextInt(500);
+				ys[i] = random.nextInt(500);
+			}
+			for(int i = unique; i < xs.length; i++) {
+				int original = random.nextInt(unique);
+				xs[i] = xs[original];
+				ys[i] = ys[original];
+			}
+			ADelaunayTriangulation triangulation = new ADelaunayTriangulation(xs, ys);
+			ADelaunayTriangulation withoutDuplicates = new ADelaunayTriangulation(Arrays.copyOf(xs, unique), Arrays.copyOf(ys, unique));
+			assertDelaunay(triangulation, xs, ys);
+			assertEquals(withoutDuplicates.getTriangles().length, triangulation.getTriangles().length);
+
+			int[] triangles = triangulation.getTriangles();
+			for(int t = 0; t < triangles.length; t += 3) {
+				assertTrue(orientation(xs, ys, triangles[t], triangles[t + 1], triangles[t + 2]) < 0,
+						"degenerate triangle " + t / 3);
+			}
+		}
+	}
+
+	@Test
+	public void test_ADelaunayTriangulation_collinearPoints_shouldBeConnectedAlongTheLine() {
+		for(long seed : SEEDS) {
+			Random random = new Random(seed);
+			int n = 20;
+			List<Integer> positions = new ArrayList<>();
+			for(int i = 0; i < n; i++)
+				positions.add(i);
+			Collections.shuffle(positions, random);
+			double[] xs = new double[n], ys = new double[n];
+			for(int i = 0; i < n; i++) {
+				xs[i] = 3 * positions.get(i) + 1;
+				ys[i] = 2 * positions.get(i) - 5;
+			}
+			ADelaunayTriangulation triangulation = new ADelaunayTriangulation(xs, ys);
+			assertEquals(0, triangulation.getTriangles().length);
+
+			int[] edges = triangulation.getEdges();
+			assertEquals(2 * (n - 1), edges.length);
+			for(int e = 0; e < edges.length; e += 2) {
+				// only neighbours on the line are connected
+				assertEquals(1, Math.abs(positions.get(edges[e]) - positions.get(edges[e + 1])));
+			}
+			assertConnected(triangulation, n);
+		}
+	}
+
+	@Test
+	public void test_GameMap_generateDelaunayEdges_shouldBeConnectedWithoutCrossings() {
+		for(long seed : SEEDS) {
+			Game game = new Game();
+			game.setHeadless(true);
+			game.setRandomSource(new ARandomSource(seed));
+			game.setEdgeMode(AEdgeMode.DELAUNAY);
+			GameMap gameMap = GameMap.generateRandomMap(game, 30, 20, 40, 40, 4);
+			Graph<Castle> graph = gameMap.getGraph();
+			assertTrue(graph.allNodesConnected());
+
+			List<Edge<Castle>> edges = graph.getEdges();
+			for(int i = 0; i < edges.size(); i++) {
+				for(int j = i + 1; j < edges.size(); j++) {
+					assertFalse(crosses(edges.get(i), edges.get(j)), "crossing edges " + i + " and " + j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks, that all triangles are counterclockwise (on a map, whose y axis points down) and no point is inside the
+	 * circumcircle of a triangle
+	 */
+	private static void assertDelaunay(ADelaunayTriangulation triangulation, double[] xs, double[] ys) {
+		int[] triangles = triangulation.getTriangles();
+		assertTrue(triangles.length > 0);
+		for(int t = 0; t < triangles.length; t += 3) {
+			int a = triangles[t], b = triangles[t + 1], c = triangles[t + 2];
+			assertTrue(orientation(xs, ys, a, b, c) < 0, "triangle " + t / 3 + " isn't counterclockwise");
+			for(int p = 0; p < xs.length; p++) {
+				assertFalse(isInCircumcircle(xs, ys, a, b, c, p), "point " + p + " is inside the circumcircle of triangle " + t / 3);
+			}
+		}
+	}
+
+	private static void assertConnected(ADelaunayTriangulation triangulation, int pointCount) {
+		Graph<Integer> graph = new Graph<>();
+		for(int i = 0; i < pointCount; i++)
+			graph.addNode(i);
+		int[] edges = triangulation.getEdges();
+		for(int e = 0; e < edges.length; e += 2)
+			graph.addEdge(graph.getNode(edges[e]), graph.getNode(edges[e + 1]));
+		// identical points are triangulated once, so only the points with a distinct location must be connected
+		for(int e = 0; e < edges.length; e += 2)
+			assertFalse(edges[e] == edges[e + 1]);
+		Set<Integer> connected = new HashSet<>();
+		for(int edge : edges)
+			connected.add(edge);
+		assertTrue(connected.size() > 1);
+		assertEquals(1, countComponents(graph, connected));
+	}
+
+	private static int countComponents(Graph<Integer> graph, Set<Integer> points) {
+		Set<Integer> visited = new HashSet<>();
+		int components = 0;
+		for(int start : points) {
+			if(!visited.add(start))
+				continue;
+			components++;
+			Deque<Integer> stack = new ArrayDeque<>();
+			stack.push(start);
+			while(!stack.isEmpty()) {
+				int current = stack.pop();
+				for(Edge<Integer> edge : graph.getEdges(graph.getNode(current))) {
+					int other = edge.getOtherNode(graph.getNode(current)).getValue();
+					if(visited.add(other))
+						stack.push(other);
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * @return a negative value, if the triangle is counterclockwise on a map, whose y axis points down
+	 */
+	private static double orientation(double[] xs, double[] ys, int a, int b, int c) {
+		return (xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a]);
+	}
+
+	/**
+	 * @return if p is strictly inside the circumcircle of the counterclockwise triangle (a, b, c) (see
+	 * {@link #orientation}), points on the circle (e.g. of a grid) aren't inside
+	 */
+	private static boolean isInCircumcircle(double[] xs, double[] ys, int a, int b, int c, int p) {
+		double adx = xs[a] - xs[p], ady = ys[a] - ys[p];
+		double bdx = xs[b] - xs[p], bdy = ys[b] - ys[p];
+		double cdx = xs[c] - xs[p], cdy = ys[c] - ys[p];
+		double al = adx * adx + ady * ady, bl = bdx * bdx + bdy * bdy, cl = cdx * cdx + cdy * cdy;
+		double det = al * (bdx * cdy - cdx * bdy) - bl * (adx * cdy - cdx * ady) + cl * (adx * bdy - bdx * ady);
+		double magnitude = al * Math.abs(bdx * cdy - cdx * bdy) + bl * Math.abs(adx * cdy - cdx * ady)
+				+ cl * Math.abs(adx * bdy - bdx * ady);
+		return -det > 1e-9 * magnitude;
+	}
+
+	/**
+	 * @return if the edges intersect in a point, which isn't a common castle of both
+	 */
+	private static boolean crosses(Edge<Castle> edgeA, Edge<Castle> edgeB) {
+		Point a = edgeA.getNodeA().getValue().getLocationOnMap(), b = edgeA.getNodeB().getValue().getLocationOnMap();
+		Point c = edgeB.getNodeA().getValue().getLocationOnMap(), d = edgeB.getNodeB().getValue().getLocationOnMap();
+		if(a.equals(c) || a.equals(d) || b.equals(c) || b.equals(d))
+			return false;
+		return Long.signum(cross(a, b, c)) * Long.signum(cross(a, b, d)) < 0
+				&& Long.signum(cross(c, d, a)) * Long.signum(cross(c, d, b)) < 0;
+	}
+
+	private static long cross(Point origin, Point a, Point b) {
+		return (long) (a.x - origin.x) * (b.y - origin.y) - (long) (a.y - origin.y) * (b.x - origin.x);
+	}
+}